@@ -188,6 +188,49 @@ public class MessagesListAdapter<MESSAGE extends IMessage>
         trimEnd();
     }
 
+    /**
+     * Adds new messages to the start with a single update.
+     *
+     * @param messages messages in chronological order. The last one becomes the first item.
+     * @param scroll   {@code true} if need to scroll list to bottom when message added.
+     */
+    public void addToStart(List<MESSAGE> messages, boolean scroll) {
+        if (messages == null || messages.isEmpty()) return;
+
+        if (isDateHeaderEnabled) {
+            for (MESSAGE message : messages) {
+                addToStart(message, scroll);
+            }
+            return;
+        }
+
+        removeLoadingMessageIfNeeded();
+
+        // Older messages would be trimmed anyway
+        int fromIndex = maxItemsCount > 0 ? Math.max(messages.size() - maxItemsCount, 0) : 0;
+        int insertedCount = 0;
+
+        for (int i = fromIndex; i < messages.size(); i++) {
+            MESSAGE message = messages.get(i);
+
+            if (!IMessage.checkMessage(message)) {
+                continue;
+            }
+
+            items.add(0, new Wrapper<>(message));
+            insertedCount++;
+        }
+
+        if (insertedCount == 0) return;
+
+        notifyItemRangeInserted(0, insertedCount);
+        if (layoutManager != null && scroll) {
+            layoutManager.scrollToPosition(0);
+        }
+
+        trimEnd();
+    }
+
     /**
      * Adds messages list in chronological order. Use this method to add history.
      *
@@ -24,6 +24,9 @@ import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
 import com.liskovsoft.youtubeapi.common.helpers.ServiceHelper;
 import com.liskovsoft.youtubeapi.common.helpers.YouTubeHelper;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
@@ -488,6 +491,78 @@ public final class Video {
                 metadataTitle, metadataSecondTitle, badge, isLive, channelGroupId);
     }
 
+    /**
+     * Binary counterpart of {@link #toString()}.<br/>
+     * NOTE: append new fields to the end and bump the version of the calling storage.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(id);
+        writeStr(out, category);
+        writeStr(out, title);
+        writeStr(out, videoId);
+        writeStr(out, videoUrl);
+        writeStr(out, playlistId);
+        writeStr(out, channelId);
+        writeStr(out, bgImageUrl);
+        writeStr(out, cardImageUrl);
+        writeStr(out, playlistParams);
+        out.writeInt(sectionId);
+        writeStr(out, getReloadPageKey());
+        out.writeInt(itemType);
+        writeStr(out, secondTitle);
+        writeStr(out, previewUrl);
+        out.writeFloat(percentWatched);
+        writeStr(out, metadataTitle);
+        writeStr(out, metadataSecondTitle);
+        writeStr(out, badge);
+        out.writeBoolean(isLive);
+        writeStr(out, channelGroupId);
+    }
+
+    /**
+     * Binary counterpart of {@link #fromString(String)}
+     * @param version version of the storage that used to write the data (use it to skip missing fields)
+     */
+    public static Video readFrom(DataInput in, int version) throws IOException {
+        Video result = new Video();
+
+        result.id = in.readInt();
+        result.category = readStr(in);
+        result.title = readStr(in);
+        result.videoId = readStr(in);
+        result.videoUrl = readStr(in);
+        result.playlistId = readStr(in);
+        result.channelId = readStr(in);
+        result.bgImageUrl = readStr(in);
+        result.cardImageUrl = readStr(in);
+        result.playlistParams = readStr(in);
+        result.sectionId = in.readInt();
+        result.reloadPageKey = readStr(in);
+        result.itemType = in.readInt();
+        result.secondTitle = readStr(in);
+        result.previewUrl = readStr(in);
+        result.percentWatched = in.readFloat();
+        result.metadataTitle = readStr(in);
+        result.metadataSecondTitle = readStr(in);
+        result.badge = readStr(in);
+        result.isLive = in.readBoolean();
+        result.channelGroupId = readStr(in);
+
+        return result;
+    }
+
+    private static void writeStr(DataOutput out, CharSequence value) throws IOException {
+        out.writeBoolean(value != null);
+
+        if (value != null) {
+            out.writeUTF(value.toString());
+        }
+    }
+
+    private static String readStr(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
     public boolean hasVideo() {
         return videoId != null;
     }
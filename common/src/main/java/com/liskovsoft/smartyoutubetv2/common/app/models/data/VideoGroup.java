@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.Map;
 
 public class VideoGroup {
     /**
@@ -109,11 +110,7 @@ public class VideoGroup {
             return videoGroup;
         }
 
-        for (MediaItem item : mediaGroup.getMediaItems()) {
-            Video video = Video.from(item);
-
-            videoGroup.add(video);
-        }
+        videoGroup.addAll(mediaGroup.getMediaItems());
 
         return videoGroup;
     }
@@ -130,12 +127,26 @@ public class VideoGroup {
             return baseGroup;
         }
 
-        for (MediaItem item : mediaGroup.getMediaItems()) {
-            Video video = Video.from(item);
+        baseGroup.addAll(mediaGroup.getMediaItems());
+
+        baseGroup.mAction = ACTION_APPEND;
+
+        return baseGroup;
+    }
 
-            baseGroup.add(video);
+    /**
+     * Continuation with the videos created in background. See {@link #createVideos(List)}.
+     */
+    public static VideoGroup from(VideoGroup baseGroup, MediaGroup mediaGroup, List<Video> videos) {
+        baseGroup.mMediaGroup = mediaGroup;
+
+        if (videos == null || videos.isEmpty()) {
+            Log.e(TAG, "MediaGroup doesn't contain media items. Title: " + (mediaGroup != null ? mediaGroup.getTitle() : null));
+            return baseGroup;
         }
 
+        baseGroup.addVideos(videos);
+
         baseGroup.mAction = ACTION_APPEND;
 
         return baseGroup;
@@ -407,12 +418,68 @@ public class VideoGroup {
         video.groupPosition = mPosition;
         video.setGroup(this);
 
-        VideoStateService stateService = VideoStateService.instance(null);
-        if (stateService != null && (video.percentWatched == -1 || video.percentWatched == 100)) {
-            State state = stateService.getByVideoId(video.videoId);
-            video.sync(state);
+        if (video.percentWatched == -1 || video.percentWatched == 100) {
+            VideoStateService stateService = VideoStateService.instance(null);
+            if (stateService != null) {
+                State state = stateService.getByVideoId(video.videoId);
+                video.sync(state);
+            }
         }
 
         mVideos.add(idx, video);
     }
+
+    /**
+     * Heavy part of the bulk add. Videos of the whole page are created and synced with the watch states (queried at once).<br/>
+     * Doesn't touch the group. Could be called from any thread.
+     */
+    public static List<Video> createVideos(List<MediaItem> mediaItems) {
+        List<Video> videos = new ArrayList<>(mediaItems.size());
+        List<String> videoIds = new ArrayList<>(mediaItems.size());
+
+        for (MediaItem item : mediaItems) {
+            Video video = Video.from(item);
+
+            if (video == null || video.isEmpty()) {
+                continue;
+            }
+
+            videos.add(video);
+
+            if (video.videoId != null && (video.percentWatched == -1 || video.percentWatched == 100)) {
+                videoIds.add(video.videoId);
+            }
+        }
+
+        VideoStateService stateService = VideoStateService.instance(null);
+        Map<String, State> states = stateService != null ? stateService.getByVideoIds(videoIds) : Collections.emptyMap();
+
+        for (Video video : videos) {
+            if (video.percentWatched == -1 || video.percentWatched == 100) {
+                video.sync(states.get(video.videoId));
+            }
+        }
+
+        return videos;
+    }
+
+    private void addAll(List<MediaItem> mediaItems) {
+        addVideos(createVideos(mediaItems));
+    }
+
+    /**
+     * Videos are already synced with the watch states
+     */
+    private void addVideos(List<Video> videos) {
+        if (mVideos == null) {
+            mVideos = new ArrayList<>(videos.size());
+        }
+
+        for (Video video : videos) {
+            // Group position in multi-grid fragments
+            video.groupPosition = mPosition;
+            video.setGroup(this);
+            mVideos.add(video);
+        }
+    }
 }
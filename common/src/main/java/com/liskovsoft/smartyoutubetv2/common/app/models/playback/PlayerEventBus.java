@@ -0,0 +1,330 @@
+package com.liskovsoft.smartyoutubetv2.common.app.models.playback;
+
+import android.util.Pair;
+import com.liskovsoft.mediaserviceinterfaces.data.MediaItemMetadata;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
+import com.liskovsoft.smartyoutubetv2.common.app.models.playback.listener.PlayerEventListener;
+import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.FormatItem;
+import com.liskovsoft.smartyoutubetv2.common.utils.Utils.ChainProcessor;
+import com.liskovsoft.smartyoutubetv2.common.utils.Utils.Processor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dispatches the player events to the controllers.<br/>
+ * Handlers of every event are resolved once: only the controllers that override the hook are called.
+ * Dispatch doesn't allocate when the processor is the method reference (nothing is captured).<br/>
+ * Time of every handler is added to the histogram of the event and the controller (nested events included).
+ */
+public final class PlayerEventBus {
+    /**
+     * Upper bounds of the histogram buckets (microseconds). The last bucket is unbounded.
+     */
+    private static final int[] BUCKET_BOUNDS_US = {250, 500, 1_000, 2_000, 4_000, 8_000, 16_000, 32_000, 64_000};
+    private static final int BUCKETS = BUCKET_BOUNDS_US.length + 1;
+    /**
+     * The frame is skipped
+     */
+    private static final long SLOW_HANDLER_NS = 16_000_000;
+    private static PlayerEventBus sInstance;
+    private final List<PlayerEventListener> mListeners;
+    private final PlayerEventListener[][] mHandlers;
+    private final int[][] mHandlerIndexes;
+    private final int[] mCounts;
+    private final long[] mTotalNs;
+    private final long[] mMaxNs;
+
+    public enum Event {
+        INIT("onInit"),
+        NEW_VIDEO("onNewVideo", Video.class),
+        METADATA("onMetadata", MediaItemMetadata.class),
+        FINISH("onFinish"),
+        TICKLE("onTickle"),
+        VIEW_CREATED("onViewCreated"),
+        VIEW_DESTROYED("onViewDestroyed"),
+        VIEW_PAUSED("onViewPaused"),
+        VIEW_RESUMED("onViewResumed"),
+        PLAY("onPlay"),
+        PAUSE("onPause"),
+        PLAY_END("onPlayEnd"),
+        BUFFERING("onBuffering"),
+        SEEK_END("onSeekEnd"),
+        SEEK_POSITION_CHANGED("onSeekPositionChanged", long.class),
+        SPEED_CHANGED("onSpeedChanged", float.class),
+        SOURCE_CHANGED("onSourceChanged", Video.class),
+        VIDEO_LOADED("onVideoLoaded", Video.class),
+        ENGINE_INITIALIZED("onEngineInitialized"),
+        ENGINE_RELEASED("onEngineReleased"),
+        ENGINE_ERROR("onEngineError", int.class, int.class, Throwable.class),
+        TRACK_CHANGED("onTrackChanged", FormatItem.class),
+        TRACK_SELECTED("onTrackSelected", FormatItem.class),
+        SUGGESTION_ITEM_CLICKED("onSuggestionItemClicked", Video.class),
+        SUGGESTION_ITEM_LONG_CLICKED("onSuggestionItemLongClicked", Video.class),
+        SCROLL_END("onScrollEnd", Video.class),
+        PREVIOUS_CLICKED("onPreviousClicked"),
+        NEXT_CLICKED("onNextClicked"),
+        PLAY_CLICKED("onPlayClicked"),
+        PAUSE_CLICKED("onPauseClicked"),
+        KEY_DOWN("onKeyDown", int.class),
+        HIGH_QUALITY_CLICKED("onHighQualityClicked"),
+        DISLIKE_CLICKED("onDislikeClicked", boolean.class),
+        LIKE_CLICKED("onLikeClicked", boolean.class),
+        SUBTITLE_CLICKED("onSubtitleClicked", boolean.class),
+        SUBTITLE_LONG_CLICKED("onSubtitleLongClicked", boolean.class),
+        PLAYLIST_ADD_CLICKED("onPlaylistAddClicked"),
+        DEBUG_INFO_CLICKED("onDebugInfoClicked", boolean.class),
+        SPEED_CLICKED("onSpeedClicked", boolean.class),
+        SPEED_LONG_CLICKED("onSpeedLongClicked", boolean.class),
+        SEEK_INTERVAL_CLICKED("onSeekIntervalClicked"),
+        VIDEO_INFO_CLICKED("onVideoInfoClicked"),
+        SHARE_LINK_CLICKED("onShareLinkClicked"),
+        SEARCH_CLICKED("onSearchClicked"),
+        VIDEO_ZOOM_CLICKED("onVideoZoomClicked"),
+        PIP_CLICKED("onPipClicked"),
+        PLAYBACK_QUEUE_CLICKED("onPlaybackQueueClicked"),
+        BUTTON_CLICKED("onButtonClicked", int.class, int.class),
+        BUTTON_LONG_CLICKED("onButtonLongClicked", int.class, int.class),
+        CONTROLS_SHOWN("onControlsShown", boolean.class);
+
+        private final String mMethod;
+        private final Class<?>[] mParams;
+
+        Event(String method, Class<?>... params) {
+            mMethod = method;
+            mParams = params;
+        }
+    }
+
+    public interface ArgProcessor<A> {
+        void process(PlayerEventListener listener, A arg);
+    }
+
+    public interface LongProcessor {
+        void process(PlayerEventListener listener, long arg);
+    }
+
+    public interface FloatProcessor {
+        void process(PlayerEventListener listener, float arg);
+    }
+
+    public interface IntIntProcessor {
+        void process(PlayerEventListener listener, int arg1, int arg2);
+    }
+
+    public interface IntChainProcessor {
+        boolean process(PlayerEventListener listener, int arg);
+    }
+
+    /**
+     * NOTE: the order of the listeners is the order of the calls
+     */
+    public PlayerEventBus(List<PlayerEventListener> listeners) {
+        int events = Event.values().length;
+        mListeners = listeners;
+        mHandlers = new PlayerEventListener[events][];
+        mHandlerIndexes = new int[events][];
+        mCounts = new int[events * listeners.size() * BUCKETS];
+        mTotalNs = new long[events * listeners.size()];
+        mMaxNs = new long[events * listeners.size()];
+
+        for (Event event : Event.values()) {
+            List<Integer> indexes = new ArrayList<>();
+
+            for (int i = 0; i < listeners.size(); i++) {
+                if (isHandled(listeners.get(i), event)) {
+                    indexes.add(i);
+                }
+            }
+
+            PlayerEventListener[] handlers = new PlayerEventListener[indexes.size()];
+            int[] handlerIndexes = new int[indexes.size()];
+
+            for (int i = 0; i < indexes.size(); i++) {
+                handlerIndexes[i] = indexes.get(i);
+                handlers[i] = listeners.get(handlerIndexes[i]);
+            }
+
+            mHandlers[event.ordinal()] = handlers;
+            mHandlerIndexes[event.ordinal()] = handlerIndexes;
+        }
+
+        sInstance = this;
+    }
+
+    public void process(Event event, Processor<PlayerEventListener> processor) {
+        PlayerEventListener[] handlers = mHandlers[event.ordinal()];
+
+        for (int i = 0; i < handlers.length; i++) {
+            long startNs = System.nanoTime();
+            processor.process(handlers[i]);
+            record(event, i, startNs);
+        }
+    }
+
+    public <A> void process(Event event, A arg, ArgProcessor<A> processor) {
+        PlayerEventListener[] handlers = mHandlers[event.ordinal()];
+
+        for (int i = 0; i < handlers.length; i++) {
+            long startNs = System.nanoTime();
+            processor.process(handlers[i], arg);
+            record(event, i, startNs);
+        }
+    }
+
+    public void process(Event event, long arg, LongProcessor processor) {
+        PlayerEventListener[] handlers = mHandlers[event.ordinal()];
+
+        for (int i = 0; i < handlers.length; i++) {
+            long startNs = System.nanoTime();
+            processor.process(handlers[i], arg);
+            record(event, i, startNs);
+        }
+    }
+
+    public void process(Event event, float arg, FloatProcessor processor) {
+        PlayerEventListener[] handlers = mHandlers[event.ordinal()];
+
+        for (int i = 0; i < handlers.length; i++) {
+            long startNs = System.nanoTime();
+            processor.process(handlers[i], arg);
+            record(event, i, startNs);
+        }
+    }
+
+    public void process(Event event, int arg1, int arg2, IntIntProcessor processor) {
+        PlayerEventListener[] handlers = mHandlers[event.ordinal()];
+
+        for (int i = 0; i < handlers.length; i++) {
+            long startNs = System.nanoTime();
+            processor.process(handlers[i], arg1, arg2);
+            record(event, i, startNs);
+        }
+    }
+
+    /**
+     * Stops on the first handler that returns true
+     */
+    public boolean chainProcess(Event event, ChainProcessor<PlayerEventListener> processor) {
+        PlayerEventListener[] handlers = mHandlers[event.ordinal()];
+        boolean result = false;
+
+        for (int i = 0; i < handlers.length && !result; i++) {
+            long startNs = System.nanoTime();
+            result = processor.process(handlers[i]);
+            record(event, i, startNs);
+        }
+
+        return result;
+    }
+
+    public boolean chainProcess(Event event, int arg, IntChainProcessor processor) {
+        PlayerEventListener[] handlers = mHandlers[event.ordinal()];
+        boolean result = false;
+
+        for (int i = 0; i < handlers.length && !result; i++) {
+            long startNs = System.nanoTime();
+            result = processor.process(handlers[i], arg);
+            record(event, i, startNs);
+        }
+
+        return result;
+    }
+
+    /**
+     * Every time of the video events and the slow handlers of the others
+     */
+    public static List<Pair<String, String>> getStats() {
+        List<Pair<String, String>> result = new ArrayList<>();
+
+        if (sInstance == null) {
+            return result;
+        }
+
+        for (Event event : Event.values()) {
+            for (int index : sInstance.mHandlerIndexes[event.ordinal()]) {
+                int slot = sInstance.getSlot(event, index);
+                int count = sInstance.getCount(slot);
+
+                if (count == 0 || (event != Event.NEW_VIDEO && event != Event.VIDEO_LOADED && sInstance.mMaxNs[slot] < SLOW_HANDLER_NS)) {
+                    continue;
+                }
+
+                result.add(new Pair<>(String.format("%s %s", event.mMethod, sInstance.mListeners.get(index).getClass().getSimpleName()),
+                        String.format("avg %.2f ms, p90 %s ms, max %.2f ms, %s calls",
+                                sInstance.mTotalNs[slot] / (count * 1_000_000f), sInstance.getPercentile(slot, 0.9f),
+                                sInstance.mMaxNs[slot] / 1_000_000f, count)));
+            }
+        }
+
+        return result;
+    }
+
+    private void record(Event event, int handler, long startNs) {
+        long durationNs = System.nanoTime() - startNs;
+        int slot = getSlot(event, mHandlerIndexes[event.ordinal()][handler]);
+        mCounts[slot * BUCKETS + getBucket(durationNs)]++;
+        mTotalNs[slot] += durationNs;
+
+        if (durationNs > mMaxNs[slot]) {
+            mMaxNs[slot] = durationNs;
+        }
+    }
+
+    private int getSlot(Event event, int listenerIndex) {
+        return event.ordinal() * mListeners.size() + listenerIndex;
+    }
+
+    private int getCount(int slot) {
+        int result = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            result += mCounts[slot * BUCKETS + i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Upper bound of the bucket that contains the percentile
+     */
+    private String getPercentile(int slot, float percentile) {
+        int target = (int) Math.ceil(getCount(slot) * percentile);
+        int sum = 0;
+
+        for (int i = 0; i < BUCKET_BOUNDS_US.length; i++) {
+            sum += mCounts[slot * BUCKETS + i];
+
+            if (sum >= target) {
+                return String.format("< %s", BUCKET_BOUNDS_US[i] / 1_000f);
+            }
+        }
+
+        return String.format("> %s", BUCKET_BOUNDS_US[BUCKET_BOUNDS_US.length - 1] / 1_000f);
+    }
+
+    private static int getBucket(long durationNs) {
+        long durationUs = durationNs / 1_000;
+
+        for (int i = 0; i < BUCKET_BOUNDS_US.length; i++) {
+            if (durationUs < BUCKET_BOUNDS_US[i]) {
+                return i;
+            }
+        }
+
+        return BUCKET_BOUNDS_US.length;
+    }
+
+    /**
+     * Hooks of the {@link BasePlayerController} do nothing
+     */
+    private static boolean isHandled(PlayerEventListener listener, Event event) {
+        try {
+            Method method = listener.getClass().getMethod(event.mMethod, event.mParams);
+            return method.getDeclaringClass() != BasePlayerController.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+}
@@ -17,9 +17,11 @@ import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
 import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 
 public class ChatController extends BasePlayerController {
     private static final String TAG = ChatController.class.getSimpleName();
@@ -27,6 +29,11 @@ public class ChatController extends BasePlayerController {
      * NOTE: Don't remove duplicates! They contain different chars.
      */
     private static final String[] BLACK_LIST = {". XYZ", ". ХYZ", "⠄XYZ", "⠄ХYZ", "Ricardo Merlino", "⠄СОM", ".COM", ".СОM", ". COM"};
+    private static final Pattern BLACK_LIST_PATTERN = createPattern(BLACK_LIST);
+    /**
+     * Busy streams produce more. The rest is dropped.
+     */
+    private static final int MAX_CHAT_ITEMS_PER_SECOND = 10;
     private LiveChatService mChatService;
     private Disposable mChatAction;
     private String mLiveChatKey;
@@ -56,17 +63,15 @@ public class ChatController extends BasePlayerController {
             return;
         }
 
-        ChatReceiver chatReceiver = new ChatReceiverImpl();
+        ChatReceiver chatReceiver = new ChatReceiverImpl(MAX_CHAT_ITEMS_PER_SECOND);
         getPlayer().setChatReceiver(chatReceiver);
 
+        // The receiver is thread safe and hands the items to the view once per frame
         mChatAction = mChatService.openLiveChatObserve(mLiveChatKey)
+                .observeOn(Schedulers.computation())
+                .filter(this::checkItem)
                 .subscribe(
-                        chatItem -> {
-                            Log.d(TAG, chatItem.getMessage());
-                            if (checkItem(chatItem)) {
-                                chatReceiver.addChatItem(chatItem);
-                            }
-                        },
+                        chatReceiver::addChatItem,
                         error -> {
                             Log.e(TAG, error.getMessage());
                             error.printStackTrace();
@@ -144,15 +149,21 @@ public class ChatController extends BasePlayerController {
             return false;
         }
 
-        String authorName = chatItem.getAuthorName();
+        return !BLACK_LIST_PATTERN.matcher(chatItem.getAuthorName()).find();
+    }
+
+    private static Pattern createPattern(String[] blackList) {
+        StringBuilder result = new StringBuilder();
 
-        for (String spammer : BLACK_LIST) {
-            if (authorName.toLowerCase().contains(spammer.toLowerCase())) {
-                return false;
+        for (String spammer : blackList) {
+            if (result.length() > 0) {
+                result.append('|');
             }
+
+            result.append(Pattern.quote(spammer));
         }
 
-        return true;
+        return Pattern.compile(result.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
     }
 
     private void enableLiveChat(boolean enabled) {
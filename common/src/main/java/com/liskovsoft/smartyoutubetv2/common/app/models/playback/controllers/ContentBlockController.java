@@ -2,10 +2,7 @@ package com.liskovsoft.smartyoutubetv2.common.app.models.playback.controllers;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
-import com.liskovsoft.mediaserviceinterfaces.MediaItemService;
-import com.liskovsoft.mediaserviceinterfaces.ServiceManager;
 import com.liskovsoft.mediaserviceinterfaces.data.MediaItemMetadata;
-import com.liskovsoft.mediaserviceinterfaces.data.SponsorSegment;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.sharedutils.helpers.MessageHelpers;
 import com.liskovsoft.sharedutils.mylogger.Log;
@@ -18,11 +15,12 @@ import com.liskovsoft.smartyoutubetv2.common.app.models.playback.ui.SeekBarSegme
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.ui.UiOptionItem;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.AppDialogPresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.settings.ContentBlockSettingsPresenter;
+import com.liskovsoft.smartyoutubetv2.common.misc.CommunityDataCache;
+import com.liskovsoft.smartyoutubetv2.common.misc.CommunityDataCache.Segment;
 import com.liskovsoft.smartyoutubetv2.common.prefs.ContentBlockData;
 import com.liskovsoft.sharedutils.rx.RxHelper;
 import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
-import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
 import io.reactivex.Observable;
 import io.reactivex.disposables.Disposable;
 
@@ -34,13 +32,13 @@ public class ContentBlockController extends BasePlayerController {
     private static final String TAG = ContentBlockController.class.getSimpleName();
     private static final long POLL_INTERVAL_MS = 1_000;
     private static final int CONTENT_BLOCK_ID = 144;
-    private MediaItemService mMediaItemService;
-    private List<SponsorSegment> mOriginalSegments;
-    private List<SponsorSegment> mActiveSegments;
+    private List<Segment> mOriginalSegments;
+    private SponsorSegmentIndex mSegmentIndex;
     private long mLastSkipPosMs;
     private boolean mSkipExclude;
     private Disposable mSegmentsAction;
-    private Observable<List<SponsorSegment>> mCachedSegmentsAction;
+    private Disposable mPollAction;
+    private Observable<List<Segment>> mCachedSegmentsAction;
     private String mVideoId;
 
     public static class SegmentAction {
@@ -79,12 +77,6 @@ public class ContentBlockController extends BasePlayerController {
         }
     }
 
-    @Override
-    public void onInit() {
-        ServiceManager service = YouTubeServiceManager.instance();
-        mMediaItemService = service.getMediaItemService();
-    }
-
     @Override
     public void onNewVideo(Video item) {
         mSkipExclude = false;
@@ -126,13 +118,28 @@ public class ContentBlockController extends BasePlayerController {
         disposeActions();
     }
 
+    @Override
+    public void onSeekEnd() {
+        // Position markers don't fire when jumping inside the segment
+        if (mSegmentIndex != null) {
+            checkSegments();
+        }
+    }
+
+    @Override
+    public void onPlay() {
+        if (mSegmentIndex != null) {
+            checkSegments();
+        }
+    }
+
     @Override
     public void onButtonClicked(int buttonId, int buttonState) {
         if (buttonId == R.id.action_content_block) {
-            List<SponsorSegment> foundSegments = findMatchedSegments(getPlayer().getPositionMs(), mOriginalSegments, true);
+            List<Integer> foundSegments = findMatchedSegments(getPlayer().getPositionMs(), true, false);
 
             if (foundSegments != null) {
-                SponsorSegment lastSegment = foundSegments.get(foundSegments.size() - 1);
+                Segment lastSegment = mSegmentIndex.get(foundSegments.get(foundSegments.size() - 1));
                 setPositionMs(lastSegment.getEndMs());
                 return;
             }
@@ -157,7 +164,8 @@ public class ContentBlockController extends BasePlayerController {
 
     private void updateSponsorSegmentsAndWatch(Video item) {
         if (item == null || item.videoId == null || item.isLive || getContentBlockData().getEnabledCategories().isEmpty()) {
-            mActiveSegments = mOriginalSegments = null;
+            mOriginalSegments = null;
+            mSegmentIndex = null;
             mCachedSegmentsAction = null;
             return;
         }
@@ -165,43 +173,56 @@ public class ContentBlockController extends BasePlayerController {
         if (!Helpers.equals(mVideoId, item.videoId) || mCachedSegmentsAction == null) {
             // NOTE: SponsorBlock (when happened java.net.SocketTimeoutException) could block whole application with Schedulers.io()
             // Because Schedulers.io() reuses blocked threads in RxJava 2: https://github.com/ReactiveX/RxJava/issues/6542
-            mCachedSegmentsAction = mMediaItemService.getSponsorSegmentsObserve(item.videoId, getContentBlockData().getEnabledCategories())
+            // Segments are cached on disk. Opening the same video again doesn't touch the network.
+            mCachedSegmentsAction = CommunityDataCache.instance(getContext()).getSegmentsObserve(item.videoId, getContentBlockData().getEnabledCategories())
                     .cache();
             mVideoId = item.videoId;
         }
 
         mSegmentsAction = mCachedSegmentsAction
-                .flatMap(this::startSponsorWatcher)
                 .subscribe(
-                        this::skipSegment,
+                        this::startSponsorWatcher,
                         error -> Log.d(TAG, "It's ok. Nothing to block in this video. Error msg: %s", error.getMessage())
                 );
     }
 
-    private Observable<Long> startSponsorWatcher(List<SponsorSegment> segments) {
-        if (segments == null || segments.isEmpty()) {
-            mActiveSegments = mOriginalSegments = null;
-            return Observable.empty();
+    private void startSponsorWatcher(List<Segment> segments) {
+        if (segments == null || segments.isEmpty() || getPlayer() == null) {
+            mOriginalSegments = null;
+            mSegmentIndex = null;
+            return;
         }
 
         mOriginalSegments = segments;
-
-        mActiveSegments = new ArrayList<>(segments);
+        mSegmentIndex = new SponsorSegmentIndex(segments);
 
         if (getContentBlockData().isColorMarkersEnabled()) {
             getPlayer().setSeekBarSegments(toSeekBarSegments(segments));
         }
-        if (getContentBlockData().isActionsEnabled()) {
-            // Warn. Try to not access player object here.
-            // Or you'll get "Player is accessed on the wrong thread" error.
-            return RxHelper.interval(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        if (!getContentBlockData().isActionsEnabled()) {
+            return;
+        }
+
+        // The player notifies about the segment start by itself. No need to wake up every second.
+        if (getPlayer().setPositionMarkers(mSegmentIndex.getStartPositions(), positionMs -> checkSegments())) {
+            checkSegments(); // we may be inside the segment already
         } else {
-            return Observable.empty();
+            // Fallback mode
+            mPollAction = RxHelper.interval(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)
+                    .subscribe(
+                            interval -> checkSegments(),
+                            error -> Log.e(TAG, "Segment watcher error: %s", error.getMessage())
+                    );
         }
     }
 
     private void disposeActions() {
-        RxHelper.disposeActions(mSegmentsAction);
+        RxHelper.disposeActions(mSegmentsAction, mPollAction);
+
+        if (getPlayer() != null) {
+            getPlayer().setPositionMarkers(null, null);
+        }
 
         // Note, removes all segments at once
         //getPlayer().setSeekBarSegments(null); // reset colors
@@ -210,8 +231,8 @@ public class ContentBlockController extends BasePlayerController {
         mLastSkipPosMs = 0;
     }
 
-    private void skipSegment(long interval) {
-        if (mActiveSegments == null || mActiveSegments.isEmpty() || getVideo() == null || !Helpers.equals(mVideoId, getVideo().videoId)) {
+    private void checkSegments() {
+        if (mSegmentIndex == null || getVideo() == null || !Helpers.equals(mVideoId, getVideo().videoId)) {
             disposeActions();
             return;
         }
@@ -223,17 +244,19 @@ public class ContentBlockController extends BasePlayerController {
 
         long positionMs = getPlayer().getPositionMs();
 
-        List<SponsorSegment> foundSegments = findMatchedSegments(positionMs, mActiveSegments, false);
+        List<Integer> foundSegments = findMatchedSegments(positionMs, false, true);
 
         applyActions(foundSegments);
 
         // Skip each segment only once
         if (foundSegments != null && getContentBlockData().isDontSkipSegmentAgainEnabled()) {
-            mActiveSegments.removeAll(foundSegments);
+            for (int index : foundSegments) {
+                mSegmentIndex.setSkipped(index);
+            }
         }
     }
 
-    private boolean isPositionInsideSegment(long positionMs, SponsorSegment segment, boolean fullMatch) {
+    private boolean isPositionInsideSegment(long positionMs, Segment segment, boolean fullMatch) {
         // NOTE: in case of using Player.setSeekParameters (inaccurate seeking) increase sponsor segment window
         // int seekShift = 1_000;
         // return positionMs >= (segment.getStartMs() - seekShift) && positionMs <= (segment.getEndMs() + seekShift);
@@ -299,14 +322,14 @@ public class ContentBlockController extends BasePlayerController {
         dialogPresenter.showDialog(getContext().getString(R.string.content_block_provider));
     }
 
-    private List<SeekBarSegment> toSeekBarSegments(List<SponsorSegment> segments) {
+    private List<SeekBarSegment> toSeekBarSegments(List<Segment> segments) {
         if (segments == null) {
             return null;
         }
 
         List<SeekBarSegment> result = new ArrayList<>();
 
-        for (SponsorSegment sponsorSegment : segments) {
+        for (Segment sponsorSegment : segments) {
             if (!getContentBlockData().isColorMarkerEnabled(sponsorSegment.getCategory())) {
                 continue;
             }
@@ -335,22 +358,41 @@ public class ContentBlockController extends BasePlayerController {
 
     /**
      * @param fullMatch Match only the beginning or the full segment length
+     * @param activeOnly Ignore already skipped segments
+     * @return indexes of the segments inside {@link #mSegmentIndex}
      */
-    private List<SponsorSegment> findMatchedSegments(long positionMs, List<SponsorSegment> segments, boolean fullMatch) {
-        if (segments == null) {
+    private List<Integer> findMatchedSegments(long positionMs, boolean fullMatch, boolean activeOnly) {
+        SponsorSegmentIndex index = mSegmentIndex;
+
+        if (index == null) {
+            return null;
+        }
+
+        int first = index.findFirstCandidate(positionMs);
+
+        if (first == -1) {
             return null;
         }
 
-        List<SponsorSegment> foundSegment = null;
+        List<Integer> foundSegment = null;
 
-        for (SponsorSegment segment : segments) {
+        for (int i = first; i < index.size(); i++) {
+            if (activeOnly && index.isSkipped(i)) {
+                continue;
+            }
+
+            Segment segment = index.get(i);
             int action = getContentBlockData().getAction(segment.getCategory());
             boolean isSkipAction = action == ContentBlockData.ACTION_SKIP_ONLY ||
                     action == ContentBlockData.ACTION_SKIP_WITH_TOAST;
             if (foundSegment == null) {
+                if (index.getStartMs(i) > positionMs) {
+                    break; // segments are sorted
+                }
+
                 if (isPositionInsideSegment(positionMs, segment, fullMatch)) {
                     foundSegment = new ArrayList<>();
-                    foundSegment.add(segment);
+                    foundSegment.add(i);
 
                     // Action grouping aren't supported for dialogs
                     if (!isSkipAction) {
@@ -358,9 +400,15 @@ public class ContentBlockController extends BasePlayerController {
                     }
                 }
             } else {
-                SponsorSegment lastSegment = foundSegment.get(foundSegment.size() - 1);
-                if (isSkipAction && isPositionInsideSegment(lastSegment.getEndMs() + 3_000, segment, fullMatch)) {
-                    foundSegment.add(segment);
+                Segment lastSegment = index.get(foundSegment.get(foundSegment.size() - 1));
+                long nextPositionMs = lastSegment.getEndMs() + 3_000;
+
+                if (index.getStartMs(i) > nextPositionMs) {
+                    break; // segments are sorted
+                }
+
+                if (isSkipAction && isPositionInsideSegment(nextPositionMs, segment, fullMatch)) {
+                    foundSegment.add(i);
                 }
             }
         }
@@ -368,13 +416,13 @@ public class ContentBlockController extends BasePlayerController {
         return foundSegment;
     }
 
-    private void applyActions(List<SponsorSegment> foundSegments) {
+    private void applyActions(List<Integer> foundSegments) {
         if (foundSegments == null) {
             mLastSkipPosMs = 0;
             return;
         }
 
-        SponsorSegment lastSegment = foundSegments.get(foundSegments.size() - 1);
+        Segment lastSegment = mSegmentIndex.get(foundSegments.get(foundSegments.size() - 1));
 
         Integer resId = getContentBlockData().getLocalizedRes(lastSegment.getCategory());
         String skipMessage = resId != null ? getContext().getString(resId) : lastSegment.getCategory();
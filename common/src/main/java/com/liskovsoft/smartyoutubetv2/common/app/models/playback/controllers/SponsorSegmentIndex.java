@@ -0,0 +1,120 @@
+package com.liskovsoft.smartyoutubetv2.common.app.models.playback.controllers;
+
+import com.liskovsoft.smartyoutubetv2.common.misc.CommunityDataCache.Segment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable interval index over the sponsor segments.<br/>
+ * Segments are sorted by the start. Lookup by position is O(log n) (plus the number of overlapping segments).
+ */
+final class SponsorSegmentIndex {
+    private final Segment[] mSegments;
+    private final long[] mStarts;
+    /**
+     * Max end among the segments [0..i]. Used to find overlapping segments that start earlier.
+     */
+    private final long[] mMaxEnds;
+    private final boolean[] mSkipped;
+
+    SponsorSegmentIndex(List<Segment> segments) {
+        List<Segment> sorted = new ArrayList<>(segments);
+        // Stable sort. Keeps the original order of the segments with the same start.
+        Collections.sort(sorted, (o1, o2) -> Long.compare(o1.getStartMs(), o2.getStartMs()));
+
+        int size = sorted.size();
+        mSegments = sorted.toArray(new Segment[size]);
+        mStarts = new long[size];
+        mMaxEnds = new long[size];
+        mSkipped = new boolean[size];
+
+        long maxEnd = Long.MIN_VALUE;
+
+        for (int i = 0; i < size; i++) {
+            mStarts[i] = mSegments[i].getStartMs();
+            maxEnd = Math.max(maxEnd, mSegments[i].getEndMs());
+            mMaxEnds[i] = maxEnd;
+        }
+    }
+
+    public int size() {
+        return mSegments.length;
+    }
+
+    public Segment get(int index) {
+        return mSegments[index];
+    }
+
+    public long getStartMs(int index) {
+        return mStarts[index];
+    }
+
+    public boolean isSkipped(int index) {
+        return mSkipped[index];
+    }
+
+    public void setSkipped(int index) {
+        mSkipped[index] = true;
+    }
+
+    /**
+     * @return first index of the segment that may contain the position or -1
+     */
+    public int findFirstCandidate(long positionMs) {
+        int last = findLastStartedBefore(positionMs);
+
+        if (last == -1 || mMaxEnds[last] < positionMs) {
+            return -1;
+        }
+
+        // Walk back to the earliest segment that still covers the position
+        int first = last;
+
+        while (first > 0 && mMaxEnds[first - 1] >= positionMs) {
+            first--;
+        }
+
+        return first;
+    }
+
+    /**
+     * Distinct sorted start positions
+     */
+    public long[] getStartPositions() {
+        long[] result = new long[mStarts.length];
+        int count = 0;
+
+        for (long start : mStarts) {
+            if (count == 0 || result[count - 1] != start) {
+                result[count++] = start;
+            }
+        }
+
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * @return index of the last segment that starts at or before the position or -1
+     */
+    private int findLastStartedBefore(long positionMs) {
+        int low = 0;
+        int high = mStarts.length - 1;
+        int result = -1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+
+            if (mStarts[mid] <= positionMs) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return result;
+    }
+}
@@ -26,7 +26,10 @@ import com.liskovsoft.smartyoutubetv2.common.app.models.playback.ui.UiOptionItem
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.AppDialogPresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.PlaybackPresenter;
 import com.liskovsoft.smartyoutubetv2.common.misc.BrowseProcessorManager;
+import com.liskovsoft.smartyoutubetv2.common.misc.CommunityDataCache;
+import com.liskovsoft.smartyoutubetv2.common.misc.ContinuationPrefetcher;
 import com.liskovsoft.smartyoutubetv2.common.misc.MediaServiceManager;
+import com.liskovsoft.smartyoutubetv2.common.misc.VideoOpenSession;
 import com.liskovsoft.smartyoutubetv2.common.prefs.GeneralData;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
@@ -106,8 +109,13 @@ public class SuggestionsController extends BasePlayerController {
         }
 
         VideoGroup group = item.getGroup();
+        int token = ContinuationPrefetcher.instance(getContext()).startContinuation(group);
 
-        continueGroup(group);
+        if (token == ContinuationPrefetcher.NO_TOKEN) {
+            return;
+        }
+
+        continueGroup(group, token);
     }
 
     @Override
@@ -163,15 +171,22 @@ public class SuggestionsController extends BasePlayerController {
         loadMetadata(video, metadata -> syncCurrentVideo(metadata, video));
     }
 
-    private void continueGroup(VideoGroup group) {
-        continueGroup(group, null, true);
+    private void continueGroup(VideoGroup group, int token) {
+        continueGroup(group, null, true, token);
     }
 
     private void continueGroup(VideoGroup group, boolean showLoading) {
-        continueGroup(group, null, showLoading);
+        continueGroup(group, null, showLoading, ContinuationPrefetcher.NO_TOKEN);
     }
 
+    /**
+     * The page of the callback request is applied immediately (autoplay and focus wait for it)
+     */
     private void continueGroup(VideoGroup group, OnVideoGroup callback, boolean showLoading) {
+        continueGroup(group, callback, showLoading, ContinuationPrefetcher.NO_TOKEN);
+    }
+
+    private void continueGroup(VideoGroup group, OnVideoGroup callback, boolean showLoading, int token) {
         if (group == null) {
             Log.e(TAG, "Can't continue group. The group is null.");
             return;
@@ -190,20 +205,28 @@ public class SuggestionsController extends BasePlayerController {
                         continueMediaGroup -> {
                             getPlayer().showProgressBar(false);
 
-                            VideoGroup videoGroup = VideoGroup.from(group, continueMediaGroup);
-                            getPlayer().updateSuggestions(videoGroup);
-                            mBrowseProcessor.process(videoGroup);
+                            // The prefetched page may be applied later
+                            ContinuationPrefetcher.instance(getContext()).onPageLoaded(group, token, () -> {
+                                if (getPlayer() == null) {
+                                    return;
+                                }
 
-                            mergeUserAndRemoteQueue(videoGroup);
+                                VideoGroup videoGroup = VideoGroup.from(group, continueMediaGroup);
+                                getPlayer().updateSuggestions(videoGroup);
+                                mBrowseProcessor.process(videoGroup);
 
-                            if (callback != null) {
-                                callback.onVideoGroup(videoGroup);
-                            } else {
-                                continueGroupIfNeeded(videoGroup);
-                            }
+                                mergeUserAndRemoteQueue(videoGroup);
+
+                                if (callback != null) {
+                                    callback.onVideoGroup(videoGroup);
+                                } else {
+                                    continueGroupIfNeeded(videoGroup);
+                                }
+                            });
                         },
                         error -> {
                             Log.e(TAG, "continueGroup error: %s", error.getMessage());
+                            ContinuationPrefetcher.instance(getContext()).onPageFailed(group, token);
                             if (getPlayer() != null) {
                                 getPlayer().showProgressBar(false);
                             }
@@ -249,11 +272,8 @@ public class SuggestionsController extends BasePlayerController {
             return;
         }
 
-        Observable<MediaItemMetadata> observable;
-
-        // NOTE: Load suggestions from mediaItem isn't robust. Because playlistId may be initialized from RemoteControlManager.
-        // Video might be loaded from Channels section (has playlistParams)
-        observable = mMediaItemService.getMetadataObserve(video.videoId, video.getPlaylistId(), video.playlistIndex, video.playlistParams);
+        // Usually prefetched when the video is opened
+        Observable<MediaItemMetadata> observable = VideoOpenSession.instance().takeMetadata(video);
 
         Disposable metadataAction = observable
                 .subscribe(
@@ -337,6 +357,7 @@ public class SuggestionsController extends BasePlayerController {
         // Frees a lot of memory
         if (video.isRemote || !getPlayer().isSuggestionsShown()) {
             getPlayer().clearSuggestions();
+            ContinuationPrefetcher.instance(getContext()).clear(null);
         }
     }
 
@@ -349,6 +370,17 @@ public class SuggestionsController extends BasePlayerController {
         callListener(mediaItemMetadata);
     }
 
+    /**
+     * The next video will be opened without waiting for SponsorBlock
+     */
+    private void prefetchSegmentsIfNeeded(VideoGroup videoGroup) {
+        if (!getContentBlockData().isSponsorBlockEnabled()) {
+            return;
+        }
+
+        CommunityDataCache.instance(getContext()).prefetchSegments(videoGroup, getContentBlockData().getEnabledCategories());
+    }
+
     private void appendSuggestions(Video video, MediaItemMetadata mediaItemMetadata) {
         if (video == null || getPlayer() == null) {
             return;
@@ -360,6 +392,7 @@ public class SuggestionsController extends BasePlayerController {
         }
 
         getPlayer().clearSuggestions(); // clear previous videos
+        ContinuationPrefetcher.instance(getContext()).clear(null);
 
         appendChaptersIfNeeded(mediaItemMetadata);
 
@@ -400,6 +433,7 @@ public class SuggestionsController extends BasePlayerController {
                 mBrowseProcessor.process(videoGroup);
 
                 if (groupIndex == 0) {
+                    prefetchSegmentsIfNeeded(videoGroup);
                     focusAndContinueIfNeeded(videoGroup);
                 } else {
                     continueGroupIfNeeded(videoGroup);
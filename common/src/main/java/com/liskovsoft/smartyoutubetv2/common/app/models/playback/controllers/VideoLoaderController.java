@@ -3,8 +3,6 @@ package com.liskovsoft.smartyoutubetv2.common.app.models.playback.controllers;
 import android.annotation.SuppressLint;
 import android.util.Pair;
 
-import com.liskovsoft.mediaserviceinterfaces.MediaItemService;
-import com.liskovsoft.mediaserviceinterfaces.ServiceManager;
 import com.liskovsoft.mediaserviceinterfaces.data.MediaFormat;
 import com.liskovsoft.mediaserviceinterfaces.data.MediaItemFormatInfo;
 import com.liskovsoft.sharedutils.Analytics;
@@ -23,8 +21,11 @@ import com.liskovsoft.smartyoutubetv2.common.app.models.playback.listener.Player
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.manager.PlayerConstants;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.AppDialogPresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.dialogs.VideoActionPresenter;
+import com.liskovsoft.smartyoutubetv2.common.exoplayer.DataSourceBenchmark;
+import com.liskovsoft.smartyoutubetv2.common.exoplayer.DataSourceStack;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.FormatItem;
 import com.liskovsoft.smartyoutubetv2.common.misc.MediaServiceManager;
+import com.liskovsoft.smartyoutubetv2.common.misc.VideoOpenSession;
 import com.liskovsoft.smartyoutubetv2.common.prefs.ContentBlockData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.common.DataChangeBase.OnDataChange;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.SignInPresenter;
@@ -46,6 +47,8 @@ public class VideoLoaderController extends BasePlayerController {
     private static final long BUFFERING_THRESHOLD_MS = 5_000;
     private static final long BUFFERING_WINDOW_MS = 60_000;
     private static final long BUFFERING_RECURRENCE_COUNT = (long) (BUFFERING_WINDOW_MS * 0.5 / BUFFERING_THRESHOLD_MS);
+    private static final long PREFETCH_BEFORE_END_MS = 60_000;
+    private static final long PREFETCH_MIN_DELAY_MS = 10_000;
     private final Playlist mPlaylist;
     private Video mPendingVideo;
     private int mLastErrorType = -1;
@@ -53,11 +56,14 @@ public class VideoLoaderController extends BasePlayerController {
     private long mSleepTimerStartMs;
     private Disposable mFormatInfoAction;
     private Disposable mMpdStreamAction;
+    private Disposable mPrefetchAction;
+    private String mPrefetchedVideoId;
     private final Runnable mReloadVideo = () -> {
         getController(VideoStateController.class).saveState();
         loadVideo(getVideo());
     };
     private final Runnable mLoadNext = this::loadNext;
+    private final Runnable mPrefetchNext = this::prefetchNextVideo;
     private final Runnable mMetadataSync = () -> {
         if (getPlayer() != null) {
             waitMetadataSync(getVideo(), false);
@@ -103,6 +109,11 @@ public class VideoLoaderController extends BasePlayerController {
 
         boolean isVideoChanged = !item.equals(getVideo());
 
+        if (isVideoChanged) {
+            // Network requests run while the engine is initializing
+            VideoOpenSession.instance().start(item, isEmbedPlayer());
+        }
+
         if (!item.fromQueue) {
             mPlaylist.add(item);
         } else {
@@ -139,8 +150,8 @@ public class VideoLoaderController extends BasePlayerController {
             getMainController().onPlayEnd();
         } else if (!getVideo().isLive && !getVideo().isLiveEnd && !getPlayerTweaksData().isNetworkErrorFixingDisabled()) {
             MessageHelpers.showLongMessage(getContext(), R.string.applying_fix);
-            // Faster source is different among devices. Try them one by one.
-            switchNextEngine();
+            // Faster source is different among devices. Select it by the measurements.
+            switchEngine();
             restartEngine();
         }
     }
@@ -160,6 +171,7 @@ public class VideoLoaderController extends BasePlayerController {
     @Override
     public void onEngineReleased() {
         disposeActions();
+        VideoOpenSession.instance().cancel();
     }
 
     @Override
@@ -186,6 +198,17 @@ public class VideoLoaderController extends BasePlayerController {
         getPlayer().setButtonState(R.id.action_repeat, video.finishOnEnded ? PlayerConstants.PLAYBACK_MODE_CLOSE : getPlayerData().getPlaybackMode());
         // Can't set title at this point
         //checkSleepTimer();
+        schedulePrefetchNextVideo();
+    }
+
+    @Override
+    public void onSeekEnd() {
+        schedulePrefetchNextVideo();
+    }
+
+    @Override
+    public void onSpeedChanged(float speed) {
+        schedulePrefetchNextVideo();
     }
 
     @Override
@@ -341,9 +364,7 @@ public class VideoLoaderController extends BasePlayerController {
         getPlayer().showProgressBar(true);
         disposeActions();
 
-        ServiceManager service = YouTubeServiceManager.instance();
-        MediaItemService mediaItemManager = service.getMediaItemService();
-        mFormatInfoAction = mediaItemManager.getFormatInfoObserve(video.videoId)
+        mFormatInfoAction = VideoOpenSession.instance().takeFormatInfo(video)
                 .subscribe(this::processFormatInfo,
                            error -> {
                                getPlayer().showProgressBar(false);
@@ -497,8 +518,8 @@ public class VideoLoaderController extends BasePlayerController {
     private void disposeActions() {
         mBufferingCount = null;
         MediaServiceManager.instance().disposeActions();
-        RxHelper.disposeActions(mFormatInfoAction, mMpdStreamAction);
-        Utils.removeCallbacks(mReloadVideo, mLoadNext, mRestartEngine, mMetadataSync, mOnLongBuffering, mRebootApp);
+        RxHelper.disposeActions(mFormatInfoAction, mMpdStreamAction, mPrefetchAction);
+        Utils.removeCallbacks(mReloadVideo, mLoadNext, mRestartEngine, mMetadataSync, mOnLongBuffering, mRebootApp, mPrefetchNext);
     }
 
     private void runFormatErrorAction(Throwable error) {
@@ -947,16 +968,9 @@ public class VideoLoaderController extends BasePlayerController {
         }
     }
 
-    private void switchNextEngine() {
-        getPlayerTweaksData().setPlayerDataSource(getNextEngine());
-    }
-
-    private int getNextEngine() {
-        int currentEngine = getPlayerTweaksData().getPlayerDataSource();
-        Integer[] engineList = Utils.skipCronet() ?
-                new Integer[] { PlayerTweaksData.PLAYER_DATA_SOURCE_DEFAULT, PlayerTweaksData.PLAYER_DATA_SOURCE_OKHTTP } :
-                new Integer[] { PlayerTweaksData.PLAYER_DATA_SOURCE_CRONET, PlayerTweaksData.PLAYER_DATA_SOURCE_DEFAULT, PlayerTweaksData.PLAYER_DATA_SOURCE_OKHTTP };
-        return Helpers.getNextValue(currentEngine, engineList);
+    private void switchEngine() {
+        int currentEngine = DataSourceStack.instance(getContext()).getPlayerDataSource();
+        getPlayerTweaksData().setPlayerDataSource(DataSourceBenchmark.instance(getContext()).onLongBuffering(currentEngine));
     }
 
     private static int getFasterDataSource() {
@@ -1016,13 +1030,70 @@ public class VideoLoaderController extends BasePlayerController {
         }
     }
 
-    private void preloadNextVideoIfNeeded() {
+    /**
+     * Starts the prefetch about a minute before the end of the video. The time depends on the position and the speed.
+     */
+    private void schedulePrefetchNextVideo() {
+        Utils.removeCallbacks(mPrefetchNext);
+
         if (isEmbedPlayer() || getPlayer() == null || getVideo() == null || getVideo().isLive) {
             return;
         }
 
-        if (getPlayer().getDurationMs() - getPlayer().getPositionMs() < 50_000) {
-            MediaServiceManager.instance().loadFormatInfo(mSuggestionsController.getNext(), formatInfo -> {});
+        long remainingMs = getPlayer().getDurationMs() - getPlayer().getPositionMs();
+
+        if (remainingMs <= 0) {
+            return;
+        }
+
+        float speed = getPlayer().getSpeed() > 0 ? getPlayer().getSpeed() : 1.0f;
+        long delayMs = (long) ((remainingMs - PREFETCH_BEFORE_END_MS) / speed);
+        Utils.postDelayed(mPrefetchNext, Math.max(delayMs, PREFETCH_MIN_DELAY_MS));
+    }
+
+    /**
+     * Loads the beginning of the next video into the cache. So it starts without the network delay.
+     */
+    private void prefetchNextVideo() {
+        if (getPlayer() == null || getVideo() == null || !isNextAutoplayed()) {
+            return;
+        }
+
+        Video next = mSuggestionsController.getNext();
+
+        if (next == null || next.videoId == null || next.isLive || next.isUpcoming || Helpers.equals(next.videoId, mPrefetchedVideoId)) {
+            return;
+        }
+
+        mPrefetchedVideoId = next.videoId;
+        RxHelper.disposeActions(mPrefetchAction);
+
+        mPrefetchAction = YouTubeServiceManager.instance().getMediaItemService().getFormatInfoObserve(next.videoId)
+                .filter(formatInfo -> !formatInfo.isLive() && !formatInfo.isUnplayable() && acceptDashVideo(formatInfo))
+                .flatMap(MediaItemFormatInfo::createMpdStreamObservable)
+                .subscribe(
+                        dashManifest -> {
+                            if (getPlayer() != null) {
+                                getPlayer().prefetchDash(dashManifest);
+                            }
+                        },
+                        error -> Log.e(TAG, "Prefetch next video error: %s", error.getMessage())
+                );
+    }
+
+    private boolean isNextAutoplayed() {
+        switch (getPlaybackMode()) {
+            case PlayerConstants.PLAYBACK_MODE_ALL:
+            case PlayerConstants.PLAYBACK_MODE_SHUFFLE:
+                return true;
+            case PlayerConstants.PLAYBACK_MODE_ONE:
+                return false;
+            case PlayerConstants.PLAYBACK_MODE_LIST:
+            case PlayerConstants.PLAYBACK_MODE_LOOP_LIST:
+                return getVideo().hasNextPlaylist() || mPlaylist.getNext() != null;
+            default:
+                // Queue only
+                return mPlaylist.getNext() != null;
         }
     }
 }
@@ -6,6 +6,10 @@ import java.io.InputStream;
 import java.util.List;
 
 public interface PlayerEngine extends PlayerConstants {
+    interface OnPositionMarker {
+        void onPositionMarker(long positionMs);
+    }
+
     void openDash(InputStream dashManifest);
     void openDashUrl(String dashManifestUrl);
     void openHlsUrl(String hlsPlaylistUrl);
@@ -46,4 +50,14 @@ public interface PlayerEngine extends PlayerConstants {
     void setRotationAngle(int angle);
     void setVideoFlipEnabled(boolean enabled);
     void setVideoGravity(int gravity);
+    /**
+     * Callback is called on the main thread each time the playback crosses one of the positions.<br/>
+     * Markers are removed when the new media is opened. Pass null to remove them manually.
+     * @return false when the markers aren't supported at the moment
+     */
+    boolean setPositionMarkers(long[] positionsMs, OnPositionMarker callback);
+    /**
+     * Loads the beginning of the next video into the cache. Doesn't affect the current playback.
+     */
+    void prefetchDash(InputStream dashManifest);
 }
@@ -0,0 +1,259 @@
+package com.liskovsoft.smartyoutubetv2.common.app.models.playback.service;
+
+import android.util.Pair;
+
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv2.common.app.models.playback.service.VideoStateService.State;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append only binary log of the watch states.<br/>
+ * Layout: header (magic, version) followed by records (length, type, payload).<br/>
+ * Changes are queued in memory and appended on {@link #flush}. The log is rewritten from scratch (compacted)
+ * when it contains much more records than the actual states.
+ */
+final class VideoStateLog {
+    private static final String TAG = VideoStateLog.class.getSimpleName();
+    private static final int MAGIC = 0x53545653; // STVS
+    /**
+     * Bump when changing the record layout. Old logs are read with their own version and then compacted.
+     */
+    private static final int VERSION = 1;
+    private static final byte RECORD_STATE = 1;
+    private static final byte RECORD_REMOVE = 2;
+    private static final byte RECORD_HISTORY_BROKEN = 3;
+    private static final int MAX_RECORD_SIZE = 256 * 1024;
+    private static final int MIN_COMPACT_RECORDS = 100;
+    private final File mFile;
+    private final List<Pair<Byte, Object>> mPending = new ArrayList<>();
+    private final ByteArrayOutputStream mBuffer = new ByteArrayOutputStream(1024);
+    private int mRecordCount;
+    private boolean mIsCompactionNeeded;
+    private boolean mIsHistoryBroken;
+
+    VideoStateLog(File file) {
+        mFile = file;
+    }
+
+    public boolean exists() {
+        return mFile.exists();
+    }
+
+    public boolean isHistoryBroken() {
+        return mIsHistoryBroken;
+    }
+
+    /**
+     * Replays the whole log into the store
+     */
+    public synchronized void read(VideoStateStore store) {
+        mRecordCount = 0;
+        mIsCompactionNeeded = false;
+
+        if (!mFile.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)))) {
+            if (in.readInt() != MAGIC) {
+                Log.e(TAG, "Unknown history file format: %s", mFile);
+                mIsCompactionNeeded = true;
+                return;
+            }
+
+            int version = in.readInt();
+            mIsCompactionNeeded = version != VERSION;
+
+            byte[] record = new byte[1024];
+
+            while (true) {
+                int length;
+
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break; // normal end
+                }
+
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    Log.e(TAG, "Corrupted history record. Size: %s", length);
+                    mIsCompactionNeeded = true;
+                    break;
+                }
+
+                if (record.length < length) {
+                    record = new byte[length];
+                }
+
+                in.readFully(record, 0, length);
+                applyRecord(new DataInputStream(new ByteArrayInputStream(record, 0, length)), version, store);
+                mRecordCount++;
+            }
+        } catch (EOFException e) {
+            // Partially written tail. Will be cut off with the next compaction.
+            Log.e(TAG, "Truncated history file: %s", mFile);
+            mIsCompactionNeeded = true;
+        } catch (IOException e) {
+            Log.e(TAG, "Can't read history file: %s", e.getMessage());
+            mIsCompactionNeeded = true;
+        }
+    }
+
+    public synchronized void add(State state) {
+        mPending.add(new Pair<>(RECORD_STATE, state));
+    }
+
+    public synchronized void remove(String videoId) {
+        if (videoId == null) {
+            return;
+        }
+
+        mPending.add(new Pair<>(RECORD_REMOVE, videoId));
+    }
+
+    public synchronized void clear() {
+        // No need to keep the older changes
+        mPending.clear();
+        mIsCompactionNeeded = true;
+    }
+
+    public synchronized void setHistoryBroken(boolean isBroken) {
+        if (mIsHistoryBroken == isBroken) {
+            return;
+        }
+
+        mIsHistoryBroken = isBroken;
+        mPending.add(new Pair<>(RECORD_HISTORY_BROKEN, isBroken));
+    }
+
+    /**
+     * Appends pending changes or compacts the log
+     */
+    public synchronized void flush(VideoStateStore store) {
+        if (!mIsCompactionNeeded && mPending.isEmpty()) {
+            return;
+        }
+
+        int storeSize = store.size();
+
+        if (mIsCompactionNeeded || !mFile.exists() || mRecordCount + mPending.size() > Math.max(MIN_COMPACT_RECORDS, storeSize * 2)) {
+            compact(store.toList());
+        } else {
+            append();
+        }
+    }
+
+    /**
+     * Rewrites the log so it contains only the actual states
+     */
+    public synchronized void compact(List<State> states) {
+        mPending.clear();
+
+        File tmpFile = new File(mFile.getPath() + ".tmp");
+        File parent = mFile.getParentFile();
+
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            Log.e(TAG, "Can't create history dir: %s", parent);
+            return;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            int count = 0;
+
+            if (mIsHistoryBroken) {
+                writeRecord(out, RECORD_HISTORY_BROKEN, true);
+                count++;
+            }
+
+            for (State state : states) {
+                writeRecord(out, RECORD_STATE, state);
+                count++;
+            }
+
+            out.flush();
+            mRecordCount = count;
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write history file: %s", e.getMessage());
+            return;
+        }
+
+        if (!tmpFile.renameTo(mFile)) {
+            Log.e(TAG, "Can't replace history file: %s", mFile);
+            return;
+        }
+
+        mIsCompactionNeeded = false;
+    }
+
+    private void append() {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(mFile, true)))) {
+            for (Pair<Byte, Object> pending : mPending) {
+                writeRecord(out, pending.first, pending.second);
+                mRecordCount++;
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Can't append to history file: %s", e.getMessage());
+            mIsCompactionNeeded = true; // the tail might be broken
+            return;
+        }
+
+        mPending.clear();
+    }
+
+    private void writeRecord(DataOutputStream out, byte type, Object value) throws IOException {
+        mBuffer.reset();
+        DataOutputStream record = new DataOutputStream(mBuffer);
+        record.writeByte(type);
+
+        switch (type) {
+            case RECORD_STATE:
+                ((State) value).writeTo(record);
+                break;
+            case RECORD_REMOVE:
+                record.writeUTF((String) value);
+                break;
+            case RECORD_HISTORY_BROKEN:
+                record.writeBoolean((Boolean) value);
+                break;
+        }
+
+        record.flush();
+        out.writeInt(mBuffer.size());
+        mBuffer.writeTo(out);
+    }
+
+    private void applyRecord(DataInputStream record, int version, VideoStateStore store) throws IOException {
+        byte type = record.readByte();
+
+        switch (type) {
+            case RECORD_STATE:
+                store.add(State.readFrom(record, version));
+                break;
+            case RECORD_REMOVE:
+                store.remove(record.readUTF());
+                break;
+            case RECORD_HISTORY_BROKEN:
+                mIsHistoryBroken = record.readBoolean();
+                break;
+            default:
+                Log.e(TAG, "Unknown history record type: %s", type);
+                break;
+        }
+    }
+}
@@ -9,104 +9,188 @@ import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs.ProfileChangeListener;
+import com.liskovsoft.smartyoutubetv2.common.utils.StartupTrace;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class VideoStateService implements ProfileChangeListener {
     @SuppressLint("StaticFieldLeak")
-    private static VideoStateService sInstance;
+    private static volatile VideoStateService sInstance;
     private static final int MIN_PERSISTENT_STATE_SIZE = 50;
-    private static final int MAX_PERSISTENT_STATE_SIZE = 300;
+    private static final int MAX_PERSISTENT_STATE_SIZE = 1_000;
     private static final long PERSIST_DELAY_MS = 10_000;
+    private static final ExecutorService sPersistExecutor = Executors.newSingleThreadExecutor();
     // Don't store state inside Video object.
     // As one video might correspond to multiple Video objects.
     //private final Map<String, State> mStates = Helpers.createLRUMap(MAX_PERSISTENT_STATE_SIZE);
-    private final List<State> mStates;
+    private final VideoStateStore mStates;
     private final AppPrefs mPrefs;
+    private final File mHistoryDir;
     private static final String DELIM = "&si;";
-    private boolean mIsHistoryBroken;
-    private final Runnable mPersistStateInt = this::persistStateInt;
+    public static final String HISTORY_SUBDIR = "history";
+    private VideoStateLog mLog;
+    private volatile boolean mIsRestored;
+    private final Runnable mPersistStateInt = () -> sPersistExecutor.execute(this::persistStateInt);
 
     private VideoStateService(Context context) {
         mPrefs = AppPrefs.instance(context);
         mPrefs.addListener(this);
-        mStates = Helpers.createSafeLRUList(
+        mHistoryDir = new File(context.getApplicationInfo().dataDir, HISTORY_SUBDIR);
+        mStates = new VideoStateStore(
                 Utils.isEnoughRam() ? MAX_PERSISTENT_STATE_SIZE : MIN_PERSISTENT_STATE_SIZE);
-        restoreState();
+        // NOTE: the history is restored lazily on the first access
     }
 
     public static VideoStateService instance(Context context) {
         if (sInstance == null && context != null) {
-            sInstance = new VideoStateService(context.getApplicationContext());
+            // Could be created by the background initializer
+            synchronized (VideoStateService.class) {
+                if (sInstance == null) {
+                    long beginMs = StartupTrace.begin();
+                    sInstance = new VideoStateService(context.getApplicationContext());
+                    StartupTrace.end("VideoStateService", beginMs);
+                }
+            }
         }
 
         return sInstance;
     }
 
+    /**
+     * Restores the history in advance. Could be called from any thread.
+     */
+    public void preload() {
+        restoreStateIfNeeded();
+    }
+
+    /**
+     * Read only snapshot. The last item is the most recent one.
+     */
     public List<State> getStates() {
-        return mStates;
+        restoreStateIfNeeded();
+        return mStates.toList();
     }
 
     public @Nullable State getLastState() {
-        if (isEmpty()) {
-            return null;
-        }
-
-        return mStates.get(mStates.size() - 1);
+        restoreStateIfNeeded();
+        return mStates.getLast();
     }
 
     public State getByVideoId(String videoId) {
-        for (State state : mStates) {
-            if (Helpers.equals(videoId, state.video.videoId)) {
-                return state;
-            }
+        restoreStateIfNeeded();
+        return mStates.get(videoId);
+    }
+
+    /**
+     * Bulk version of {@link #getByVideoId(String)}. Use it when syncing the whole page of videos.
+     * @return found states keyed by videoId
+     */
+    public Map<String, State> getByVideoIds(Collection<String> videoIds) {
+        if (videoIds == null || videoIds.isEmpty()) {
+            return Collections.emptyMap();
         }
 
-        return null;
+        restoreStateIfNeeded();
+        return mStates.getAll(videoIds);
     }
 
     public void removeByVideoId(String videoId) {
-        Helpers.removeIf(mStates, state -> Helpers.equals(state.video.videoId, videoId));
+        restoreStateIfNeeded();
+        mStates.remove(videoId);
+        mLog.remove(videoId);
     }
 
     public boolean isEmpty() {
+        restoreStateIfNeeded();
         return mStates.isEmpty();
     }
 
     public void save(State state) {
+        restoreStateIfNeeded();
         mStates.add(state);
+        mLog.add(state);
     }
 
     public void clear() {
+        restoreStateIfNeeded();
         mStates.clear();
+        mLog.clear();
         persistState();
     }
 
     public void setHistoryBroken(boolean isBroken) {
-        mIsHistoryBroken = isBroken;
+        restoreStateIfNeeded();
+        mLog.setHistoryBroken(isBroken);
     }
 
     public boolean isHistoryBroken() {
-        return mIsHistoryBroken;
+        restoreStateIfNeeded();
+        return mLog.isHistoryBroken();
+    }
+
+    private void restoreStateIfNeeded() {
+        if (mIsRestored) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!mIsRestored) {
+                restoreState();
+                mIsRestored = true;
+            }
+        }
     }
 
     private void restoreState() {
         mStates.clear();
+        mLog = new VideoStateLog(new File(mHistoryDir, mPrefs.getStateUpdaterName()));
+
+        if (mLog.exists()) {
+            mLog.read(mStates);
+        } else {
+            migrateLegacyState();
+        }
+    }
+
+    /**
+     * One time migration from the prefs based storage
+     */
+    private void migrateLegacyState() {
         String data = mPrefs.getStateUpdaterData();
 
+        if (data == null) {
+            return;
+        }
+
         String[] split = Helpers.splitData(data);
 
-        setStateData(Helpers.parseStr(split, 0));
-        mIsHistoryBroken = Helpers.parseBoolean(split, 1);
+        setStateDataSafe(Helpers.parseStr(split, 0));
+        mLog.setHistoryBroken(Helpers.parseBoolean(split, 1));
+        mLog.compact(mStates.toList());
+
+        if (mLog.exists()) {
+            mPrefs.setStateUpdaterData(null);
+        }
     }
 
+    /**
+     * Disk io. Runs on the persist thread. The lock waits for the restore of the new profile.
+     */
     private void persistStateInt() {
-        if (mIsHistoryBroken) {
-            mPrefs.setStateUpdaterData(Helpers.mergeData(getStateData(), mIsHistoryBroken));
-        } else {
-            // Eliminate additional string creation with the merge
-            mPrefs.setStateUpdaterData(getStateData());
+        synchronized (this) {
+            if (mIsRestored) {
+                mLog.flush(mStates);
+            }
         }
     }
 
@@ -163,6 +247,27 @@ public class VideoStateService implements ProfileChangeListener {
             return new State(video, positionMs, lengthMs, speed);
         }
 
+        /**
+         * Binary counterpart of {@link #from(String)}
+         */
+        public static State readFrom(DataInput in, int version) throws IOException {
+            long positionMs = in.readLong();
+            long lengthMs = in.readLong();
+            float speed = in.readFloat();
+
+            Video video = Video.readFrom(in, version);
+            video.percentWatched = (positionMs * 100f) / lengthMs;
+
+            return new State(video, positionMs, lengthMs, speed);
+        }
+
+        public void writeTo(DataOutput out) throws IOException {
+            out.writeLong(positionMs);
+            out.writeLong(durationMs);
+            out.writeFloat(speed);
+            video.writeTo(out);
+        }
+
         @NonNull
         @Override
         public String toString() {
@@ -181,7 +286,14 @@ public class VideoStateService implements ProfileChangeListener {
 
     @Override
     public void onProfileChanged() {
-        restoreState();
+        // Don't lose the changes of the previous profile
+        // NOTE: not async, the log of the previous profile should be flushed before the next restore
+        Utils.removeCallbacks(mPersistStateInt);
+
+        synchronized (this) {
+            persistStateInt();
+            mIsRestored = false;
+        }
     }
 
     private void setStateDataSafe(String data) {
@@ -205,18 +317,4 @@ public class VideoStateService implements ProfileChangeListener {
             }
         }
     }
-
-    private String getStateData() {
-        StringBuilder sb = new StringBuilder();
-
-        for (State state : mStates) {
-            if (sb.length() != 0) {
-                sb.append(DELIM);
-            }
-
-            sb.append(state);
-        }
-
-        return sb.toString();
-    }
 }
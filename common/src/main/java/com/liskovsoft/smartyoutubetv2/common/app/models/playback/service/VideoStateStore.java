@@ -0,0 +1,114 @@
+package com.liskovsoft.smartyoutubetv2.common.app.models.playback.service;
+
+import androidx.annotation.Nullable;
+
+import com.liskovsoft.smartyoutubetv2.common.app.models.playback.service.VideoStateService.State;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread safe LRU store of the watch states.<br/>
+ * Insertion order is the LRU order (the last one is the most recent), lookups by videoId are O(1).
+ */
+final class VideoStateStore {
+    private final int mMaxSize;
+    private final LinkedHashMap<String, State> mStates;
+    /**
+     * Tail of the LRU order. LinkedHashMap doesn't have a tail accessor.
+     */
+    private State mLast;
+
+    VideoStateStore(int maxSize) {
+        mMaxSize = maxSize;
+        mStates = new LinkedHashMap<String, State>(maxSize + 1, 1.0f) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, State> eldest) {
+                return size() > mMaxSize;
+            }
+        };
+    }
+
+    /**
+     * Adds the state or moves the existing one to the end of the LRU order
+     */
+    public synchronized void add(State state) {
+        if (state == null || state.video == null) {
+            return;
+        }
+
+        String key = keyOf(state.video.videoId);
+        // Re-insert to move the item to the end
+        mStates.remove(key);
+        mStates.put(key, state);
+        mLast = state;
+    }
+
+    public synchronized @Nullable State get(String videoId) {
+        return mStates.get(keyOf(videoId));
+    }
+
+    /**
+     * Bulk lookup. Takes the lock only once per call.
+     * @return map that contains only found items
+     */
+    public synchronized Map<String, State> getAll(Collection<String> videoIds) {
+        Map<String, State> result = new HashMap<>(videoIds.size());
+
+        for (String videoId : videoIds) {
+            State state = mStates.get(keyOf(videoId));
+
+            if (state != null) {
+                result.put(videoId, state);
+            }
+        }
+
+        return result;
+    }
+
+    public synchronized @Nullable State getLast() {
+        return mLast;
+    }
+
+    public synchronized void remove(String videoId) {
+        State removed = mStates.remove(keyOf(videoId));
+
+        if (removed != null && removed == mLast) {
+            // Rare. The new tail is searched once.
+            mLast = null;
+
+            for (State state : mStates.values()) {
+                mLast = state;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        mStates.clear();
+        mLast = null;
+    }
+
+    public synchronized boolean isEmpty() {
+        return mStates.isEmpty();
+    }
+
+    public synchronized int size() {
+        return mStates.size();
+    }
+
+    /**
+     * Snapshot in LRU order (the last one is the most recent)
+     */
+    public synchronized List<State> toList() {
+        return new ArrayList<>(mStates.values());
+    }
+
+    private static String keyOf(String videoId) {
+        // Old states might not contain the id
+        return videoId != null ? videoId : "";
+    }
+}
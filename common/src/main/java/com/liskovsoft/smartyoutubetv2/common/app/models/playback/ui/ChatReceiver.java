@@ -2,9 +2,15 @@ package com.liskovsoft.smartyoutubetv2.common.app.models.playback.ui;
 
 import com.liskovsoft.mediaserviceinterfaces.data.ChatItem;
 
+import java.util.List;
+
 public interface ChatReceiver {
     interface Callback {
-        void onChatItem(ChatItem chatItem);
+        /**
+         * Called on the main thread. At most once per display frame.
+         * @param chatItems from the oldest to the newest
+         */
+        void onChatItems(List<ChatItem> chatItems);
     }
     void addChatItem(ChatItem chatItem);
     void setCallback(Callback callback);
@@ -1,19 +1,132 @@
 package com.liskovsoft.smartyoutubetv2.common.app.models.playback.ui;
 
+import android.util.Pair;
+import android.view.Choreographer;
 import com.liskovsoft.mediaserviceinterfaces.data.ChatItem;
 
-public class ChatReceiverImpl implements ChatReceiver {
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Items could be added from any thread. They are handed to the view in batches, one batch per display frame.<br/>
+ * The rate is limited. The overflow is dropped (the oldest items first), so the chat doesn't lag behind the video.<br/>
+ * NOTE: create on the main thread.
+ */
+public class ChatReceiverImpl implements ChatReceiver, Choreographer.FrameCallback {
+    private static final int DEFAULT_MAX_ITEMS_PER_SECOND = 10;
+    private static final int MAX_QUEUE_SECONDS = 2;
+    private static final long NANOS_PER_SECOND = 1_000_000_000;
+    private static final AtomicLong sReceived = new AtomicLong();
+    private static final AtomicLong sDropped = new AtomicLong();
+    private static final AtomicLong sRendered = new AtomicLong();
+    private final ArrayDeque<ChatItem> mQueue = new ArrayDeque<>();
+    private final Choreographer mChoreographer;
+    private final int mMaxItemsPerSecond;
+    private final int mMaxQueueSize;
     private Callback mCallback;
+    private boolean mIsFrameScheduled;
+    private long mLastFrameTimeNanos;
+    private float mBudget;
+
+    public ChatReceiverImpl() {
+        this(DEFAULT_MAX_ITEMS_PER_SECOND);
+    }
+
+    public ChatReceiverImpl(int maxItemsPerSecond) {
+        mChoreographer = Choreographer.getInstance();
+        mMaxItemsPerSecond = Math.max(maxItemsPerSecond, 1);
+        mMaxQueueSize = mMaxItemsPerSecond * MAX_QUEUE_SECONDS;
+    }
 
     @Override
     public void addChatItem(ChatItem chatItem) {
-        if (mCallback != null) {
-            mCallback.onChatItem(chatItem);
+        sReceived.incrementAndGet();
+
+        synchronized (mQueue) {
+            mQueue.add(chatItem);
+
+            while (mQueue.size() > mMaxQueueSize) {
+                mQueue.poll();
+                sDropped.incrementAndGet();
+            }
+
+            scheduleFrame(0);
         }
     }
 
     @Override
     public void setCallback(Callback callback) {
         mCallback = callback;
+
+        synchronized (mQueue) {
+            if (callback != null) {
+                scheduleFrame(0);
+            } else {
+                sDropped.addAndGet(mQueue.size());
+                mQueue.clear();
+                mChoreographer.removeFrameCallback(this);
+                mIsFrameScheduled = false;
+            }
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        List<ChatItem> chatItems;
+
+        synchronized (mQueue) {
+            mIsFrameScheduled = false;
+
+            if (mCallback == null || mQueue.isEmpty()) {
+                return;
+            }
+
+            long elapsedNanos = mLastFrameTimeNanos > 0 ? frameTimeNanos - mLastFrameTimeNanos : NANOS_PER_SECOND;
+            mLastFrameTimeNanos = frameTimeNanos;
+            // Burst is limited to one second of items
+            mBudget = Math.min(mBudget + (float) elapsedNanos * mMaxItemsPerSecond / NANOS_PER_SECOND, mMaxItemsPerSecond);
+
+            int count = Math.min((int) mBudget, mQueue.size());
+
+            if (count == 0) {
+                scheduleFrame((long) ((1 - mBudget) * 1_000 / mMaxItemsPerSecond));
+                return;
+            }
+
+            mBudget -= count;
+            chatItems = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                chatItems.add(mQueue.poll());
+            }
+
+            if (!mQueue.isEmpty()) {
+                scheduleFrame(0);
+            }
+        }
+
+        sRendered.addAndGet(chatItems.size());
+        mCallback.onChatItems(chatItems);
+    }
+
+    public static List<Pair<String, String>> getStats() {
+        List<Pair<String, String>> result = new ArrayList<>();
+
+        result.add(new Pair<>("Chat Received/Dropped/Rendered", String.format("%s/%s/%s",
+                sReceived.get(), sDropped.get(), sRendered.get())));
+
+        return result;
+    }
+
+    private void scheduleFrame(long delayMs) {
+        if (mIsFrameScheduled) {
+            return;
+        }
+
+        mIsFrameScheduled = true;
+        // Thread safe
+        mChoreographer.postFrameCallbackDelayed(this, delayMs);
     }
 }
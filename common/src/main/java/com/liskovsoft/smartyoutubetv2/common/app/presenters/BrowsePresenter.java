@@ -2,6 +2,7 @@ package com.liskovsoft.smartyoutubetv2.common.app.presenters;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.util.Pair;
 
 import com.liskovsoft.mediaserviceinterfaces.data.Account;
 import com.liskovsoft.mediaserviceinterfaces.data.MediaGroup;
@@ -34,11 +35,14 @@ import com.liskovsoft.smartyoutubetv2.common.app.presenters.interfaces.VideoGrou
 import com.liskovsoft.smartyoutubetv2.common.app.views.BrowseView;
 import com.liskovsoft.smartyoutubetv2.common.misc.AppDataSourceManager;
 import com.liskovsoft.smartyoutubetv2.common.misc.BrowseProcessorManager;
+import com.liskovsoft.smartyoutubetv2.common.misc.ContinuationPrefetcher;
+import com.liskovsoft.smartyoutubetv2.common.misc.LauncherFeedCache;
 import com.liskovsoft.smartyoutubetv2.common.misc.MediaServiceManager;
 import com.liskovsoft.smartyoutubetv2.common.misc.MediaServiceManager.AccountChangeListener;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AccountsData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.MainUIData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
+import com.liskovsoft.smartyoutubetv2.common.utils.StartupTrace;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 
 import java.util.ArrayList;
@@ -50,7 +54,9 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 
 import io.reactivex.Observable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 
 public class BrowsePresenter extends BasePresenter<BrowseView> implements SectionPresenter, VideoGroupPresenter, AccountChangeListener {
     private static final String TAG = BrowsePresenter.class.getSimpleName();
@@ -115,6 +121,7 @@ public class BrowsePresenter extends BasePresenter<BrowseView> implements Sectio
             return;
         }
 
+        StartupTrace.mark("BrowsePresenter.onViewInitialized");
         refreshSections();
 
         // Move default focus
@@ -458,8 +465,13 @@ public class BrowsePresenter extends BasePresenter<BrowseView> implements Sectio
         }
 
         VideoGroup group = item.getGroup();
+        int token = ContinuationPrefetcher.instance(getContext()).startContinuation(group);
 
-        continueGroup(group);
+        if (token == ContinuationPrefetcher.NO_TOKEN) {
+            return;
+        }
+
+        continueGroup(group, token);
     }
 
     @Override
@@ -614,6 +626,9 @@ public class BrowsePresenter extends BasePresenter<BrowseView> implements Sectio
     }
 
     private void updateSection(BrowseSection section) {
+        // Held pages of the previous content
+        ContinuationPrefetcher.instance(getContext()).clear(section);
+
         switch (section.getType()) {
             case BrowseSection.TYPE_GRID:
             case BrowseSection.TYPE_SHORTS_GRID:
@@ -685,21 +700,16 @@ public class BrowsePresenter extends BasePresenter<BrowseView> implements Sectio
         }
 
         Disposable updateAction = groups
+                .observeOn(Schedulers.computation())
+                .map(mediaGroups -> createVideoGroups(mediaGroups, section))
+                .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
-                        mediaGroups -> {
+                        videoGroups -> {
                             getView().showProgressBar(false);
 
-                            filterHomeIfNeeded(mediaGroups);
-
-                            for (MediaGroup mediaGroup : mediaGroups) {
-                                if (mediaGroup.isEmpty()) {
-                                    Log.e(TAG, "loadRowsHeader: MediaGroup is empty. Group Name: " + mediaGroup.getTitle());
-                                    continue;
-                                }
-
-                                VideoGroup videoGroup = VideoGroup.from(mediaGroup, section);
-
+                            for (VideoGroup videoGroup : videoGroups) {
                                 getView().updateSection(videoGroup);
+                                StartupTrace.finish(getContext(), "First Browse row");
                                 mBrowseProcessor.process(videoGroup);
 
                                 continueGroupIfNeeded(videoGroup, false);
@@ -737,20 +747,24 @@ public class BrowsePresenter extends BasePresenter<BrowseView> implements Sectio
         }
 
         Disposable updateAction = group
+                .observeOn(Schedulers.computation())
+                .map(mediaGroup -> VideoGroup.from(mediaGroup, section, column))
+                .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
-                        mediaGroup -> {
-                            getView().showProgressBar(false);
-
+                        videoGroup -> {
                             if (getView() == null) {
                                 Log.e(TAG, "Browse view has been unloaded from the memory. Low RAM?");
                                 getViewManager().startView(BrowseView.class);
                                 return;
                             }
 
-                            VideoGroup videoGroup = VideoGroup.from(mediaGroup, section, column);
+                            getView().showProgressBar(false);
+
                             appendLocalHistory(videoGroup);
                             getView().updateSection(videoGroup);
+                            StartupTrace.finish(getContext(), "First Browse row");
                             mBrowseProcessor.process(videoGroup);
+                            LauncherFeedCache.update(getContext(), videoGroup, true);
 
                             continueGroupIfNeeded(videoGroup);
                         },
@@ -762,11 +776,15 @@ public class BrowsePresenter extends BasePresenter<BrowseView> implements Sectio
         mActions.add(updateAction);
     }
 
-    private void continueGroup(VideoGroup group) {
-        continueGroup(group, true);
+    private void continueGroup(VideoGroup group, int token) {
+        continueGroup(group, true, token);
     }
 
     private void continueGroup(VideoGroup group, boolean showLoading) {
+        continueGroup(group, showLoading, ContinuationPrefetcher.NO_TOKEN);
+    }
+
+    private void continueGroup(VideoGroup group, boolean showLoading, int token) {
         if (getView() == null) {
             Log.e(TAG, "Can't continue group. The view is null.");
             return;
@@ -797,18 +815,31 @@ public class BrowsePresenter extends BasePresenter<BrowseView> implements Sectio
         continuation = getContentService().continueGroupObserve(mediaGroup);
 
         Disposable continueAction = continuation
+                .observeOn(Schedulers.computation())
+                .map(continueGroup -> new Pair<>(continueGroup,
+                        continueGroup.isEmpty() ? Collections.<Video>emptyList() : VideoGroup.createVideos(continueGroup.getMediaItems())))
+                .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
                         continueGroup -> {
                             getView().showProgressBar(false);
 
-                            VideoGroup videoGroup = VideoGroup.from(group, continueGroup);
-                            getView().updateSection(videoGroup);
-                            mBrowseProcessor.process(videoGroup);
+                            // The prefetched page may be applied later
+                            ContinuationPrefetcher.instance(getContext()).onPageLoaded(group, token, () -> {
+                                if (getView() == null) {
+                                    return;
+                                }
 
-                            continueGroupIfNeeded(videoGroup, showLoading);
+                                VideoGroup videoGroup = VideoGroup.from(group, continueGroup.first, continueGroup.second);
+                                getView().updateSection(videoGroup);
+                                mBrowseProcessor.process(videoGroup);
+                                LauncherFeedCache.update(getContext(), videoGroup, false);
+
+                                continueGroupIfNeeded(videoGroup, showLoading);
+                            });
                         },
                         error -> {
                             Log.e(TAG, "continueGroup error: %s", error.getMessage());
+                            ContinuationPrefetcher.instance(getContext()).onPageFailed(group, token);
                             if (getView() != null) {
                                 getView().showProgressBar(false);
                             }
@@ -960,8 +991,28 @@ public class BrowsePresenter extends BasePresenter<BrowseView> implements Sectio
         return result != null ? result : previousSection;
     }
 
-    private void filterHomeIfNeeded(List<MediaGroup> mediaGroups) {
-        if (mediaGroups == null || !isHomeSection()) {
+    /**
+     * Heavy part of the rows update (videos and watch states). Called in background.
+     */
+    private List<VideoGroup> createVideoGroups(List<MediaGroup> mediaGroups, BrowseSection section) {
+        filterHomeIfNeeded(mediaGroups, section);
+
+        List<VideoGroup> result = new ArrayList<>(mediaGroups.size());
+
+        for (MediaGroup mediaGroup : mediaGroups) {
+            if (mediaGroup.isEmpty()) {
+                Log.e(TAG, "loadRowsHeader: MediaGroup is empty. Group Name: " + mediaGroup.getTitle());
+                continue;
+            }
+
+            result.add(VideoGroup.from(mediaGroup, section));
+        }
+
+        return result;
+    }
+
+    private void filterHomeIfNeeded(List<MediaGroup> mediaGroups, BrowseSection section) {
+        if (mediaGroups == null || section == null || section.getId() != MediaGroup.TYPE_HOME) {
             return;
         }
 
@@ -1150,12 +1201,14 @@ public class BrowsePresenter extends BasePresenter<BrowseView> implements Sectio
             return;
         }
 
-        if (stateService.isEmpty()) {
+        State lastState = stateService.getLastState();
+
+        if (lastState == null) {
             return;
         }
 
         Video firstInGroup = videoGroup.isEmpty() ? null : videoGroup.get(0);
-        Video lastInState = stateService.getStates().get(stateService.getStates().size() - 1).video;
+        Video lastInState = lastState.video;
 
         if (firstInGroup != null && Helpers.equals(firstInGroup, lastInState)) {
             return;
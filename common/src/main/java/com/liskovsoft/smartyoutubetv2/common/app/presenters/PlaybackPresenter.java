@@ -8,6 +8,8 @@ import com.liskovsoft.mediaserviceinterfaces.data.MediaItemMetadata;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Playlist;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.BasePlayerController;
+import com.liskovsoft.smartyoutubetv2.common.app.models.playback.PlayerEventBus;
+import com.liskovsoft.smartyoutubetv2.common.app.models.playback.PlayerEventBus.Event;
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.controllers.AutoFrameRateController;
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.controllers.ChatController;
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.controllers.CommentsController;
@@ -25,9 +27,8 @@ import com.liskovsoft.smartyoutubetv2.common.app.presenters.base.BasePresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.dialogs.menu.VideoMenuPresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.views.PlaybackView;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.FormatItem;
+import com.liskovsoft.smartyoutubetv2.common.misc.TickleManager;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
-import com.liskovsoft.smartyoutubetv2.common.utils.Utils.ChainProcessor;
-import com.liskovsoft.smartyoutubetv2.common.utils.Utils.Processor;
 import com.liskovsoft.youtubeapi.common.helpers.ServiceHelper;
 
 import java.lang.ref.WeakReference;
@@ -46,6 +47,8 @@ public class PlaybackPresenter extends BasePresenter<PlaybackView> implements Pl
             return super.add(listener);
         }
     };
+    private final PlayerEventBus mEventBus;
+    private final Runnable mUpdateTickle = this::updateTickle;
     private WeakReference<Video> mVideo;
     // Fix for using destroyed view
     private WeakReference<PlaybackView> mPlayer = new WeakReference<>(null);
@@ -65,6 +68,8 @@ public class PlaybackPresenter extends BasePresenter<PlaybackView> implements Pl
         mEventListeners.add(new HQDialogController());
         mEventListeners.add(new ChatController());
         mEventListeners.add(new CommentsController());
+
+        mEventBus = new PlayerEventBus(mEventListeners);
     }
 
     public static PlaybackPresenter instance(Context context) {
@@ -86,7 +91,7 @@ public class PlaybackPresenter extends BasePresenter<PlaybackView> implements Pl
 
     private void initControllers() {
         // Re-init after app exit
-        process(PlayerEventListener::onInit);
+        mEventBus.process(Event.INIT, PlayerEventListener::onInit);
     }
 
     public void openVideo(String videoId) {
@@ -227,14 +232,14 @@ public class PlaybackPresenter extends BasePresenter<PlaybackView> implements Pl
 
     @Override
     public void onNewVideo(Video video) {
-        process(listener -> listener.onNewVideo(video));
+        mEventBus.process(Event.NEW_VIDEO, video, PlayerEventListener::onNewVideo);
         mVideo = new WeakReference<>(video);
         mIsEmbedPlayerStarted = true;
     }
 
     @Override
     public void onFinish() {
-        process(PlayerEventListener::onFinish);
+        mEventBus.process(Event.FINISH, PlayerEventListener::onFinish);
     }
 
     @Override
@@ -244,19 +249,19 @@ public class PlaybackPresenter extends BasePresenter<PlaybackView> implements Pl
 
     @Override
     public void onMetadata(MediaItemMetadata metadata) {
-        process(listener -> listener.onMetadata(metadata));
+        mEventBus.process(Event.METADATA, metadata, PlayerEventListener::onMetadata);
     }
 
     // End core events
 
     // Helpers
 
-    private boolean chainProcess(ChainProcessor<PlayerEventListener> processor) {
-        return Utils.chainProcess(mEventListeners, processor);
-    }
-
-    private void process(Processor<PlayerEventListener> processor) {
-        Utils.process(mEventListeners, processor);
+    /**
+     * Nobody sees the clock and the paused player while the app is in background
+     */
+    private void updateTickle() {
+        Utils.removeCallbacks(mUpdateTickle);
+        getTickleManager().setEnabled(isPlaying() || Utils.isAppInForegroundFixed());
     }
 
     // End Helpers
@@ -265,22 +270,28 @@ public class PlaybackPresenter extends BasePresenter<PlaybackView> implements Pl
 
     @Override
     public void onViewCreated() {
-        process(ViewEventListener::onViewCreated);
+        mEventBus.process(Event.VIEW_CREATED, ViewEventListener::onViewCreated);
     }
 
     @Override
     public void onViewDestroyed() {
-        process(ViewEventListener::onViewDestroyed);
+        mEventBus.process(Event.VIEW_DESTROYED, ViewEventListener::onViewDestroyed);
     }
 
     @Override
     public void onViewPaused() {
-        process(ViewEventListener::onViewPaused);
+        super.onViewPaused();
+        mEventBus.process(Event.VIEW_PAUSED, ViewEventListener::onViewPaused);
+
+        // Wait till the app is moved to background
+        Utils.postDelayed(mUpdateTickle, 1_000);
     }
 
     @Override
     public void onViewResumed() {
-        process(ViewEventListener::onViewResumed);
+        mEventBus.process(Event.VIEW_RESUMED, ViewEventListener::onViewResumed);
+
+        updateTickle();
     }
 
     // End common events
@@ -289,86 +300,93 @@ public class PlaybackPresenter extends BasePresenter<PlaybackView> implements Pl
 
     @Override
     public void onSourceChanged(Video item) {
-        process(listener -> listener.onSourceChanged(item));
+        mEventBus.process(Event.SOURCE_CHANGED, item, PlayerEventListener::onSourceChanged);
     }
 
     @Override
     public void onEngineInitialized() {
-        getTickleManager().addListener(this);
+        getTickleManager().addListener(this, TickleManager.SCHEDULE_PLAYER);
 
-        process(PlayerEventListener::onEngineInitialized);
+        mEventBus.process(Event.ENGINE_INITIALIZED, PlayerEventListener::onEngineInitialized);
     }
 
     @Override
     public void onEngineReleased() {
         getTickleManager().removeListener(this);
+        Utils.removeCallbacks(mUpdateTickle);
+        getTickleManager().setEnabled(true);
 
-        process(PlayerEventListener::onEngineReleased);
+        mEventBus.process(Event.ENGINE_RELEASED, PlayerEventListener::onEngineReleased);
     }
 
     @Override
     public void onEngineError(int type, int rendererIndex, Throwable error) {
-        process(listener -> listener.onEngineError(type, rendererIndex, error));
+        // Rare event. Allocation of the lambda doesn't matter.
+        mEventBus.process(Event.ENGINE_ERROR, listener -> listener.onEngineError(type, rendererIndex, error));
     }
 
     @Override
     public void onPlay() {
-        process(PlayerEventListener::onPlay);
+        mEventBus.process(Event.PLAY, PlayerEventListener::onPlay);
+
+        updateTickle();
     }
 
     @Override
     public void onPause() {
-        process(PlayerEventListener::onPause);
+        mEventBus.process(Event.PAUSE, PlayerEventListener::onPause);
+
+        updateTickle();
     }
 
     @Override
     public void onPlayClicked() {
-        process(PlayerEventListener::onPlayClicked);
+        mEventBus.process(Event.PLAY_CLICKED, PlayerEventListener::onPlayClicked);
     }
 
     @Override
     public void onPauseClicked() {
-        process(PlayerEventListener::onPauseClicked);
+        mEventBus.process(Event.PAUSE_CLICKED, PlayerEventListener::onPauseClicked);
     }
 
     @Override
     public void onSeekEnd() {
-        process(PlayerEventListener::onSeekEnd);
+        mEventBus.process(Event.SEEK_END, PlayerEventListener::onSeekEnd);
     }
 
     @Override
     public void onSeekPositionChanged(long positionMs) {
-        process(listener -> listener.onSeekPositionChanged(positionMs));
+        mEventBus.process(Event.SEEK_POSITION_CHANGED, positionMs, PlayerEventListener::onSeekPositionChanged);
     }
 
     @Override
     public void onSpeedChanged(float speed) {
-        process(listener -> listener.onSpeedChanged(speed));
+        mEventBus.process(Event.SPEED_CHANGED, speed, PlayerEventListener::onSpeedChanged);
     }
 
     @Override
     public void onPlayEnd() {
-        process(PlayerEventListener::onPlayEnd);
+        mEventBus.process(Event.PLAY_END, PlayerEventListener::onPlayEnd);
     }
 
     @Override
     public void onBuffering() {
-        process(PlayerEventListener::onBuffering);
+        mEventBus.process(Event.BUFFERING, PlayerEventListener::onBuffering);
     }
 
     @Override
     public boolean onKeyDown(int keyCode) {
-        return chainProcess(listener -> listener.onKeyDown(keyCode));
+        return mEventBus.chainProcess(Event.KEY_DOWN, keyCode, PlayerEventListener::onKeyDown);
     }
 
     @Override
     public void onVideoLoaded(Video item) {
-        process(listener -> listener.onVideoLoaded(item));
+        mEventBus.process(Event.VIDEO_LOADED, item, PlayerEventListener::onVideoLoaded);
     }
 
     @Override
     public void onTickle() {
-        process(PlayerEventListener::onTickle);
+        mEventBus.process(Event.TICKLE, PlayerEventListener::onTickle);
     }
 
     // End engine events
@@ -377,132 +395,132 @@ public class PlaybackPresenter extends BasePresenter<PlaybackView> implements Pl
 
     @Override
     public void onSuggestionItemClicked(Video item) {
-        process(listener -> listener.onSuggestionItemClicked(item));
+        mEventBus.process(Event.SUGGESTION_ITEM_CLICKED, item, PlayerEventListener::onSuggestionItemClicked);
     }
 
     @Override
     public void onSuggestionItemLongClicked(Video item) {
-        process(listener -> listener.onSuggestionItemLongClicked(item));
+        mEventBus.process(Event.SUGGESTION_ITEM_LONG_CLICKED, item, PlayerEventListener::onSuggestionItemLongClicked);
     }
 
     @Override
     public void onScrollEnd(Video item) {
-        process(listener -> listener.onScrollEnd(item));
+        mEventBus.process(Event.SCROLL_END, item, PlayerEventListener::onScrollEnd);
     }
 
     @Override
     public boolean onPreviousClicked() {
-        return chainProcess(PlayerEventListener::onPreviousClicked);
+        return mEventBus.chainProcess(Event.PREVIOUS_CLICKED, PlayerEventListener::onPreviousClicked);
     }
 
     @Override
     public boolean onNextClicked() {
-        return chainProcess(PlayerEventListener::onNextClicked);
+        return mEventBus.chainProcess(Event.NEXT_CLICKED, PlayerEventListener::onNextClicked);
     }
 
     @Override
     public void onHighQualityClicked() {
-        process(PlayerUiEventListener::onHighQualityClicked);
+        mEventBus.process(Event.HIGH_QUALITY_CLICKED, PlayerUiEventListener::onHighQualityClicked);
     }
 
     @Override
     public void onDislikeClicked(boolean dislike) {
-        process(listener -> listener.onDislikeClicked(dislike));
+        mEventBus.process(Event.DISLIKE_CLICKED, dislike, PlayerEventListener::onDislikeClicked);
     }
 
     @Override
     public void onLikeClicked(boolean like) {
-        process(listener -> listener.onLikeClicked(like));
+        mEventBus.process(Event.LIKE_CLICKED, like, PlayerEventListener::onLikeClicked);
     }
 
     @Override
     public void onTrackSelected(FormatItem track) {
-        process(listener -> listener.onTrackSelected(track));
+        mEventBus.process(Event.TRACK_SELECTED, track, PlayerEventListener::onTrackSelected);
     }
 
     @Override
     public void onSubtitleClicked(boolean enabled) {
-        process(listener -> listener.onSubtitleClicked(enabled));
+        mEventBus.process(Event.SUBTITLE_CLICKED, enabled, PlayerEventListener::onSubtitleClicked);
     }
 
     @Override
     public void onSubtitleLongClicked(boolean enabled) {
-        process(listener -> listener.onSubtitleLongClicked(enabled));
+        mEventBus.process(Event.SUBTITLE_LONG_CLICKED, enabled, PlayerEventListener::onSubtitleLongClicked);
     }
 
     @Override
     public void onControlsShown(boolean shown) {
-        process(listener -> listener.onControlsShown(shown));
+        mEventBus.process(Event.CONTROLS_SHOWN, shown, PlayerEventListener::onControlsShown);
     }
 
     @Override
     public void onTrackChanged(FormatItem track) {
-        process(listener -> listener.onTrackChanged(track));
+        mEventBus.process(Event.TRACK_CHANGED, track, PlayerEventListener::onTrackChanged);
     }
 
     @Override
     public void onPlaylistAddClicked() {
-        process(PlayerUiEventListener::onPlaylistAddClicked);
+        mEventBus.process(Event.PLAYLIST_ADD_CLICKED, PlayerUiEventListener::onPlaylistAddClicked);
     }
 
     @Override
     public void onDebugInfoClicked(boolean enabled) {
-        process(listener -> listener.onDebugInfoClicked(enabled));
+        mEventBus.process(Event.DEBUG_INFO_CLICKED, enabled, PlayerEventListener::onDebugInfoClicked);
     }
 
     @Override
     public void onSpeedClicked(boolean enabled) {
-        process(listener -> listener.onSpeedClicked(enabled));
+        mEventBus.process(Event.SPEED_CLICKED, enabled, PlayerEventListener::onSpeedClicked);
     }
 
     @Override
     public void onSpeedLongClicked(boolean enabled) {
-        process(listener -> listener.onSpeedLongClicked(enabled));
+        mEventBus.process(Event.SPEED_LONG_CLICKED, enabled, PlayerEventListener::onSpeedLongClicked);
     }
 
     @Override
     public void onSeekIntervalClicked() {
-        process(PlayerUiEventListener::onSeekIntervalClicked);
+        mEventBus.process(Event.SEEK_INTERVAL_CLICKED, PlayerUiEventListener::onSeekIntervalClicked);
     }
 
     @Override
     public void onVideoInfoClicked() {
-        process(PlayerUiEventListener::onVideoInfoClicked);
+        mEventBus.process(Event.VIDEO_INFO_CLICKED, PlayerUiEventListener::onVideoInfoClicked);
     }
 
     @Override
     public void onShareLinkClicked() {
-        process(PlayerUiEventListener::onShareLinkClicked);
+        mEventBus.process(Event.SHARE_LINK_CLICKED, PlayerUiEventListener::onShareLinkClicked);
     }
 
     @Override
     public void onSearchClicked() {
-        process(PlayerUiEventListener::onSearchClicked);
+        mEventBus.process(Event.SEARCH_CLICKED, PlayerUiEventListener::onSearchClicked);
     }
 
     @Override
     public void onVideoZoomClicked() {
-        process(PlayerUiEventListener::onVideoZoomClicked);
+        mEventBus.process(Event.VIDEO_ZOOM_CLICKED, PlayerUiEventListener::onVideoZoomClicked);
     }
 
     @Override
     public void onPipClicked() {
-        process(PlayerUiEventListener::onPipClicked);
+        mEventBus.process(Event.PIP_CLICKED, PlayerUiEventListener::onPipClicked);
     }
 
     @Override
     public void onPlaybackQueueClicked() {
-        process(PlayerUiEventListener::onPlaybackQueueClicked);
+        mEventBus.process(Event.PLAYBACK_QUEUE_CLICKED, PlayerUiEventListener::onPlaybackQueueClicked);
     }
 
     @Override
     public void onButtonClicked(int buttonId, int buttonState) {
-        process(listener -> listener.onButtonClicked(buttonId, buttonState));
+        mEventBus.process(Event.BUTTON_CLICKED, buttonId, buttonState, PlayerEventListener::onButtonClicked);
     }
 
     @Override
     public void onButtonLongClicked(int buttonId, int buttonState) {
-        process(listener -> listener.onButtonLongClicked(buttonId, buttonState));
+        mEventBus.process(Event.BUTTON_LONG_CLICKED, buttonId, buttonState, PlayerEventListener::onButtonLongClicked);
     }
 
     // End UI events
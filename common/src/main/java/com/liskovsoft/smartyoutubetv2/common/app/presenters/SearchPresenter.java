@@ -20,6 +20,7 @@ import com.liskovsoft.smartyoutubetv2.common.app.presenters.dialogs.menu.VideoMe
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.interfaces.VideoGroupPresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.views.SearchView;
 import com.liskovsoft.smartyoutubetv2.common.misc.BrowseProcessorManager;
+import com.liskovsoft.smartyoutubetv2.common.misc.ContinuationPrefetcher;
 import com.liskovsoft.smartyoutubetv2.common.misc.MediaServiceManager;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AccountsData;
 import com.liskovsoft.smartyoutubetv2.common.utils.AppDialogUtil;
@@ -212,6 +213,12 @@ public class SearchPresenter extends BasePresenter<SearchView> implements VideoG
             return;
         }
 
+        int token = ContinuationPrefetcher.instance(getContext()).startContinuation(group);
+
+        if (token == ContinuationPrefetcher.NO_TOKEN) {
+            return;
+        }
+
         Log.d(TAG, "continueGroup: start continue group: " + group.getTitle());
 
         getView().showProgressBar(true);
@@ -223,12 +230,20 @@ public class SearchPresenter extends BasePresenter<SearchView> implements VideoG
         mScrollAction = contentService.continueGroupObserve(mediaGroup)
                 .subscribe(
                         continueMediaGroup -> {
-                            VideoGroup newGroup = VideoGroup.from(group, continueMediaGroup);
-                            getView().updateSearch(newGroup);
-                            mBrowseProcessor.process(newGroup);
+                            // The prefetched page may be applied later
+                            ContinuationPrefetcher.instance(getContext()).onPageLoaded(group, token, () -> {
+                                if (getView() == null) {
+                                    return;
+                                }
+
+                                VideoGroup newGroup = VideoGroup.from(group, continueMediaGroup);
+                                getView().updateSearch(newGroup);
+                                mBrowseProcessor.process(newGroup);
+                            });
                         },
                         error -> {
                             Log.e(TAG, "continueGroup error: %s", error.getMessage());
+                            ContinuationPrefetcher.instance(getContext()).onPageFailed(group, token);
                             if (getView() != null) {
                                 getView().showProgressBar(false);
                             }
@@ -303,6 +318,10 @@ public class SearchPresenter extends BasePresenter<SearchView> implements VideoG
 
     public void disposeActions() {
         RxHelper.disposeActions(mLoadAction, mScrollAction);
+        if (getContext() != null) {
+            // Search groups don't have the section
+            ContinuationPrefetcher.instance(getContext()).clear(null);
+        }
         if (getView() != null) {
             getView().showProgressBar(false);
         }
@@ -25,11 +25,13 @@ import com.liskovsoft.smartyoutubetv2.common.misc.MediaServiceManager;
 import com.liskovsoft.smartyoutubetv2.common.misc.StreamReminderService;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AccountsData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.GeneralData;
+import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
 import com.liskovsoft.smartyoutubetv2.common.proxy.ProxyManager;
 import com.liskovsoft.smartyoutubetv2.common.utils.CustomInit;
 import com.liskovsoft.smartyoutubetv2.common.utils.IntentExtractor;
 import com.liskovsoft.smartyoutubetv2.common.utils.SimpleEditDialog;
+import com.liskovsoft.smartyoutubetv2.common.utils.StartupTrace;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
 
@@ -79,6 +81,8 @@ public class SplashPresenter extends BasePresenter<SplashView> {
             return;
         }
 
+        StartupTrace.mark("SplashPresenter.onViewInitialized");
+
         applyRunOnceTasks();
         applyRunPerInstanceTasks();
         Utils.postDelayed(mCheckForUpdates, APP_INIT_DELAY_MS);
@@ -98,8 +102,7 @@ public class SplashPresenter extends BasePresenter<SplashView> {
             RxHelper.setupGlobalErrorHandler();
             initGlobalPrefs();
             initProxy();
-            initVideoStateService();
-            initStreamReminderService();
+            initBackgroundSingletons();
             //Utils.initVolume(getContext());
             CustomInit.init(getContext());
         }
@@ -116,6 +119,7 @@ public class SplashPresenter extends BasePresenter<SplashView> {
     }
 
     private void runBackgroundTasks() {
+        initStreamReminderService(); // pending streams are checked every minute anyway
         YouTubeServiceManager.instance().refreshCacheIfNeeded(); // warm up player engine
         //YouTubeServiceManager.instance().applyAntiBotFix();
         enableHistoryIfNeeded();
@@ -151,9 +155,20 @@ public class SplashPresenter extends BasePresenter<SplashView> {
         }
     }
 
-    private void initVideoStateService() {
+    /**
+     * Not needed for the first Browse row. Prepared while Browse is loading.
+     */
+    private void initBackgroundSingletons() {
         if (getContext() != null) {
-            VideoStateService.instance(getContext());
+            Context context = getContext().getApplicationContext();
+            // Cheap (the history is restored lazily). Browse rows use instance(null) and expect it to exist.
+            VideoStateService stateService = VideoStateService.instance(context);
+
+            RxHelper.runAsync(() -> {
+                // Watch history is synced with the first row
+                stateService.preload();
+                PlayerData.instance(context);
+            });
         }
     }
 
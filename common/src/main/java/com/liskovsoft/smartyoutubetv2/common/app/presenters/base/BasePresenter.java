@@ -29,6 +29,7 @@ import com.liskovsoft.smartyoutubetv2.common.misc.TickleManager;
 import com.liskovsoft.smartyoutubetv2.common.prefs.GeneralData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.MainUIData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.SearchData;
+import com.liskovsoft.smartyoutubetv2.common.prefs.common.DataSaverBase;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
 
@@ -111,7 +112,8 @@ public abstract class BasePresenter<T> implements Presenter<T> {
 
     @Override
     public void onViewPaused() {
-        // NOP
+        // The app might be killed after that
+        DataSaverBase.persistAll();
     }
 
     @Override
@@ -274,7 +276,7 @@ public abstract class BasePresenter<T> implements Presenter<T> {
     }
 
     protected TickleManager getTickleManager() {
-        return TickleManager.instance();
+        return TickleManager.instance(getContext());
     }
 
     protected PlaybackPresenter getPlaybackPresenter() {
@@ -12,6 +12,7 @@ import com.liskovsoft.smartyoutubetv2.common.app.presenters.BrowsePresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.YTSignInPresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.base.BasePresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.dialogs.AccountSelectionPresenter;
+import com.liskovsoft.smartyoutubetv2.common.misc.CommunityDataCache;
 import com.liskovsoft.smartyoutubetv2.common.misc.MediaServiceManager;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AccountsData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs;
@@ -74,6 +75,7 @@ public class AccountSettingsPresenter extends BasePresenter<Void> {
         optionItems.add(UiOptionItem.from(
                 getContext().getString(R.string.dialog_account_none), optionItem -> {
                     AccountSelectionPresenter.instance(getContext()).selectAccount(null);
+                    CommunityDataCache.instance(getContext()).clear();
                     settingsPresenter.closeDialog();
                 }, true
         ));
@@ -166,6 +168,7 @@ public class AccountSettingsPresenter extends BasePresenter<Void> {
 
     private void removeAccount(Account account) {
         mMediaServiceManager.getSingInService().removeAccount(account);
+        CommunityDataCache.instance(getContext()).clear();
         BrowsePresenter.instance(getContext()).refresh(false);
     }
 
@@ -12,6 +12,7 @@ import com.liskovsoft.smartyoutubetv2.common.app.presenters.AppDialogPresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.PlaybackPresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.base.BasePresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.views.PlaybackView;
+import com.liskovsoft.smartyoutubetv2.common.misc.CommunityDataCache;
 import com.liskovsoft.smartyoutubetv2.common.misc.MediaServiceManager;
 import com.liskovsoft.smartyoutubetv2.common.prefs.ContentBlockData;
 import com.liskovsoft.smartyoutubetv2.common.utils.AppDialogUtil;
@@ -64,6 +65,7 @@ public class ContentBlockSettingsPresenter extends BasePresenter<Void> {
                 option -> {
                     mContentBlockData.enableSponsorBlock(option.isSelected());
                     ContentBlockData.instance(getContext()).stopExcludingChannel(channelId);
+                    CommunityDataCache.instance(getContext()).clear();
                 },
                 !isChannelExcluded && mContentBlockData.isSponsorBlockEnabled()
         );
@@ -148,7 +150,10 @@ public class ContentBlockSettingsPresenter extends BasePresenter<Void> {
 
         options.add(UiOptionItem.from(getContext().getString(R.string.content_block_alt_server),
                 getContext().getString(R.string.content_block_alt_server_desc),
-                optionItem -> mContentBlockData.enableAltServer(optionItem.isSelected()),
+                optionItem -> {
+                    mContentBlockData.enableAltServer(optionItem.isSelected());
+                    CommunityDataCache.instance(getContext()).clear();
+                },
                 mContentBlockData.isAltServerEnabled()));
 
         settingsPresenter.appendCheckedCategory(getContext().getString(R.string.player_other), options);
@@ -7,6 +7,7 @@ import com.liskovsoft.smartyoutubetv2.common.app.models.playback.ui.OptionItem;
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.ui.UiOptionItem;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.AppDialogPresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.base.BasePresenter;
+import com.liskovsoft.smartyoutubetv2.common.misc.CommunityDataCache;
 import com.liskovsoft.smartyoutubetv2.common.prefs.DeArrowData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.MainUIData;
 import com.liskovsoft.smartyoutubetv2.common.utils.ClickbaitRemover;
@@ -64,11 +65,17 @@ public class DeArrowSettingsPresenter extends BasePresenter<Void> {
         List<OptionItem> options = new ArrayList<>();
 
         options.add(UiOptionItem.from(getContext().getString(R.string.crowdsoursed_titles),
-                optionItem -> mDeArrowData.replaceTitles(optionItem.isSelected()),
+                optionItem -> {
+                    mDeArrowData.replaceTitles(optionItem.isSelected());
+                    CommunityDataCache.instance(getContext()).clear();
+                },
                 mDeArrowData.isReplaceTitlesEnabled()));
 
         options.add(UiOptionItem.from(getContext().getString(R.string.crowdsourced_thumbnails),
-                optionItem -> mDeArrowData.replaceThumbnails(optionItem.isSelected()),
+                optionItem -> {
+                    mDeArrowData.replaceThumbnails(optionItem.isSelected());
+                    CommunityDataCache.instance(getContext()).clear();
+                },
                 mDeArrowData.isReplaceThumbnailsEnabled()));
 
         for (OptionItem item : options) {
@@ -94,7 +101,10 @@ public class DeArrowSettingsPresenter extends BasePresenter<Void> {
                 getContext().getString(R.string.dearrow_provider_url)
         );
         OptionItem sponsorBlockOption = UiOptionItem.from(title,
-                option -> mDeArrowData.enableDeArrow(option.isSelected()),
+                option -> {
+                    mDeArrowData.enableDeArrow(option.isSelected());
+                    CommunityDataCache.instance(getContext()).clear();
+                },
                 mDeArrowData.isDeArrowEnabled()
         );
 
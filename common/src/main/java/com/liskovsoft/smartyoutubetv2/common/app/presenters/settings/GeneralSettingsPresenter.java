@@ -79,6 +79,7 @@ public class GeneralSettingsPresenter extends BasePresenter<Void> {
         //appendKeyRemappingCategory(settingsPresenter);
         //appendAppBackupCategory(settingsPresenter);
         appendInternetCensorship(settingsPresenter);
+        appendPagePrefetchSwitch(settingsPresenter);
         //appendHistoryCategory(settingsPresenter);
         //appendMiscCategory(settingsPresenter);
 
@@ -618,6 +619,13 @@ public class GeneralSettingsPresenter extends BasePresenter<Void> {
         settingsPresenter.appendCheckedCategory(getContext().getString(R.string.player_other), options);
     }
 
+    private void appendPagePrefetchSwitch(AppDialogPresenter settingsPresenter) {
+        settingsPresenter.appendSingleSwitch(UiOptionItem.from(getContext().getString(R.string.page_prefetch),
+                getContext().getString(R.string.page_prefetch_desc),
+                option -> mGeneralData.enablePagePrefetch(option.isSelected()),
+                mGeneralData.isPagePrefetchEnabled()));
+    }
+
     private void appendInternetCensorship(AppDialogPresenter settingsPresenter) {
         List<OptionItem> options = new ArrayList<>();
 
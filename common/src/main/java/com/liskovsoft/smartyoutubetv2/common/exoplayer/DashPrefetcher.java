@@ -0,0 +1,217 @@
+package com.liskovsoft.smartyoutubetv2.common.exoplayer;
+
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.source.dash.DashSegmentIndex;
+import com.google.android.exoplayer2.source.dash.manifest.AdaptationSet;
+import com.google.android.exoplayer2.source.dash.manifest.DashManifest;
+import com.google.android.exoplayer2.source.dash.manifest.Period;
+import com.google.android.exoplayer2.source.dash.manifest.RangedUri;
+import com.google.android.exoplayer2.source.dash.manifest.Representation;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.liskovsoft.sharedutils.helpers.Helpers;
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the beginning of the next video into the {@link SegmentCache} while the current one is still playing.<br/>
+ * Only one video and one audio representation are loaded: init and index data plus the first seconds of the media.
+ */
+final class DashPrefetcher {
+    private static final String TAG = DashPrefetcher.class.getSimpleName();
+    private static final long PREFETCH_DURATION_MS = 5_000;
+    private static final long MAX_PREFETCH_BYTES = 8 * 1024 * 1024;
+    private static final long DEFAULT_PREFETCH_BYTES = 1024 * 1024;
+    private static final int DEFAULT_MAX_HEIGHT = 1080;
+    private static final ExecutorService sExecutor = Executors.newSingleThreadExecutor();
+    private static AtomicBoolean sIsCanceled;
+
+    /**
+     * Cancels the previous prefetch. Formats of the current video are used to guess the tracks of the next one.
+     */
+    public static void prefetch(SegmentCache segmentCache, DataSource.Factory upstreamFactory, DashManifest manifest,
+                                @Nullable Format videoHint, @Nullable Format audioHint) {
+        cancel();
+
+        if (!segmentCache.isEnabled() || manifest == null || manifest.dynamic || manifest.getPeriodCount() == 0) {
+            return;
+        }
+
+        Period period = manifest.getPeriod(0);
+        List<DataSpec> dataSpecs = new ArrayList<>();
+        addDataSpecs(dataSpecs, selectVideo(period, videoHint), manifest.getPeriodDurationUs(0));
+        addDataSpecs(dataSpecs, selectAudio(period, audioHint), manifest.getPeriodDurationUs(0));
+
+        if (dataSpecs.isEmpty()) {
+            return;
+        }
+
+        AtomicBoolean isCanceled = new AtomicBoolean();
+        sIsCanceled = isCanceled;
+
+        sExecutor.execute(() -> {
+            long startMs = System.currentTimeMillis();
+            long bytes = 0;
+
+            for (DataSpec dataSpec : dataSpecs) {
+                if (isCanceled.get()) {
+                    return;
+                }
+
+                try {
+                    segmentCache.cache(dataSpec, upstreamFactory.createDataSource(), isCanceled);
+                    bytes += Math.max(dataSpec.length, 0);
+                } catch (Exception e) { // IOException, InterruptedException
+                    Log.e(TAG, "Prefetch error: %s", e.getMessage());
+                    return;
+                }
+            }
+
+            Log.d(TAG, "Prefetched %s KB in %s ms", bytes / 1024, System.currentTimeMillis() - startMs);
+        });
+    }
+
+    public static void cancel() {
+        if (sIsCanceled != null) {
+            sIsCanceled.set(true);
+            sIsCanceled = null;
+        }
+    }
+
+    /**
+     * The same codec and the same height as the current video or the best below it.
+     */
+    @Nullable
+    private static Representation selectVideo(Period period, @Nullable Format hint) {
+        List<Representation> representations = getRepresentations(period, C.TRACK_TYPE_VIDEO, hint);
+        int maxHeight = hint != null && hint.height > 0 ? hint.height : DEFAULT_MAX_HEIGHT;
+        Representation result = null;
+
+        for (Representation representation : representations) {
+            int height = representation.format.height;
+
+            if (height > maxHeight) {
+                continue;
+            }
+
+            if (result == null || height > result.format.height ||
+                    (height == result.format.height && representation.format.bitrate > result.format.bitrate)) {
+                result = representation;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The same codec as the current audio with the highest bitrate.
+     */
+    @Nullable
+    private static Representation selectAudio(Period period, @Nullable Format hint) {
+        Representation result = null;
+
+        for (Representation representation : getRepresentations(period, C.TRACK_TYPE_AUDIO, hint)) {
+            if (result == null || representation.format.bitrate > result.format.bitrate) {
+                result = representation;
+            }
+        }
+
+        return result;
+    }
+
+    private static List<Representation> getRepresentations(Period period, int trackType, @Nullable Format hint) {
+        List<Representation> all = new ArrayList<>();
+        List<Representation> sameMime = new ArrayList<>();
+
+        for (AdaptationSet adaptationSet : period.adaptationSets) {
+            if (adaptationSet.type != trackType) {
+                continue;
+            }
+
+            for (Representation representation : adaptationSet.representations) {
+                all.add(representation);
+
+                if (hint != null && Helpers.equals(hint.sampleMimeType, representation.format.sampleMimeType)) {
+                    sameMime.add(representation);
+                }
+            }
+        }
+
+        return sameMime.isEmpty() ? all : sameMime;
+    }
+
+    private static void addDataSpecs(List<DataSpec> result, @Nullable Representation representation, long periodDurationUs) {
+        if (representation == null) {
+            return;
+        }
+
+        DashSegmentIndex index = representation.getIndex();
+
+        if (index != null && representation instanceof Representation.MultiSegmentRepresentation) {
+            addSegments(result, representation, index, periodDurationUs);
+        } else {
+            addRanges(result, representation);
+        }
+    }
+
+    /**
+     * Separate segment urls (e.g. SegmentTemplate).
+     */
+    private static void addSegments(List<DataSpec> result, Representation representation, DashSegmentIndex index, long periodDurationUs) {
+        RangedUri initUri = representation.getInitializationUri();
+
+        if (initUri != null) {
+            result.add(toDataSpec(representation, initUri));
+        }
+
+        long firstNum = index.getFirstSegmentNum();
+        int count = index.getSegmentCount(periodDurationUs);
+        long startUs = index.getTimeUs(firstNum);
+
+        for (long num = firstNum; count == DashSegmentIndex.INDEX_UNBOUNDED || num < firstNum + count; num++) {
+            result.add(toDataSpec(representation, index.getSegmentUrl(num)));
+
+            if (index.getTimeUs(num) + index.getDurationUs(num, periodDurationUs) - startUs >= PREFETCH_DURATION_MS * 1_000) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Single file with byte ranges (SegmentBase). YouTube VOD streams. Init and index are followed by the media.
+     */
+    private static void addRanges(List<DataSpec> result, Representation representation) {
+        RangedUri initUri = representation.getInitializationUri();
+        RangedUri indexUri = representation.getIndexUri();
+
+        if (initUri == null) {
+            return;
+        }
+
+        long start = initUri.start;
+        long end = initUri.length != C.LENGTH_UNSET ? initUri.start + initUri.length : C.LENGTH_UNSET;
+
+        if (end != C.LENGTH_UNSET && indexUri != null && indexUri.length != C.LENGTH_UNSET) {
+            start = Math.min(start, indexUri.start);
+            end = Math.max(end, indexUri.start + indexUri.length);
+        }
+
+        long mediaBytes = representation.format.bitrate > 0 ?
+                Math.min(representation.format.bitrate / 8 * PREFETCH_DURATION_MS / 1_000, MAX_PREFETCH_BYTES) : DEFAULT_PREFETCH_BYTES;
+
+        // Never load the whole file when the ranges are unknown
+        result.add(new DataSpec(initUri.resolveUri(representation.baseUrl), start,
+                (end != C.LENGTH_UNSET ? end - start : 0) + mediaBytes, null));
+    }
+
+    private static DataSpec toDataSpec(Representation representation, RangedUri rangedUri) {
+        return new DataSpec(rangedUri.resolveUri(representation.baseUrl), rangedUri.start, rangedUri.length, null);
+    }
+}
@@ -0,0 +1,279 @@
+package com.liskovsoft.smartyoutubetv2.common.exoplayer;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.SystemClock;
+import android.util.Pair;
+import android.util.SparseArray;
+import com.liskovsoft.sharedutils.helpers.Helpers;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs;
+import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
+import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the network engines (cronet, default, okhttp) on the segment requests of the normal playback.<br/>
+ * Time to the first byte, throughput and error rate are averaged per engine and per network type (wifi, ethernet...).
+ * The averages are persisted, so the device keeps what it learned.<br/>
+ * Score is the expected time to load a typical segment. Faster engine is different among devices and networks.
+ */
+public final class DataSourceBenchmark {
+    private static final String TAG = DataSourceBenchmark.class.getSimpleName();
+    private static final int[] ENGINES = {
+            PlayerTweaksData.PLAYER_DATA_SOURCE_CRONET, PlayerTweaksData.PLAYER_DATA_SOURCE_DEFAULT, PlayerTweaksData.PLAYER_DATA_SOURCE_OKHTTP
+    };
+    private static final String[] ENGINE_NAMES = {"default", "okhttp", "cronet"};
+    /**
+     * Engine with fewer samples is tried before the scores are compared
+     */
+    private static final int MIN_SAMPLES = 10;
+    /**
+     * Weight of the new sample in the running averages
+     */
+    private static final float SMOOTHING = 0.1f;
+    /**
+     * Smaller transfers measure the latency only
+     */
+    private static final long MIN_THROUGHPUT_BYTES = 64 * 1024;
+    private static final long SEGMENT_BYTES = 1024 * 1024;
+    private static final float ERROR_PENALTY = 10;
+    /**
+     * Hysteresis. Other engine should be at least 25% faster to be selected.
+     */
+    private static final float SWITCH_RATIO = 0.75f;
+    private static final long NETWORK_CHECK_INTERVAL_MS = 30_000;
+    private static final long SAVE_INTERVAL_MS = 60_000;
+    @SuppressLint("StaticFieldLeak")
+    private static DataSourceBenchmark sInstance;
+    private final Context mContext;
+    private final SparseArray<Stats> mStats = new SparseArray<>();
+    private String mNetwork;
+    private long mNetworkCheckMs;
+    private long mSavedMs;
+
+    private static final class Stats {
+        /**
+         * Throughput measurements and errors
+         */
+        private int mSamples;
+        private int mTransfers;
+        private float mTtfbMs;
+        private float mThroughputKbps;
+        private float mErrorRate;
+
+        private void onTransfer(long ttfbMs, long bytes, long transferMs) {
+            mTtfbMs = mTransfers == 0 ? ttfbMs : average(mTtfbMs, ttfbMs);
+            mErrorRate = average(mErrorRate, 0);
+            mTransfers++;
+
+            if (bytes >= MIN_THROUGHPUT_BYTES) {
+                float throughputKbps = bytes * 8f / Math.max(transferMs, 1);
+                mThroughputKbps = mThroughputKbps == 0 ? throughputKbps : average(mThroughputKbps, throughputKbps);
+                mSamples++;
+            }
+        }
+
+        private void onError() {
+            mErrorRate = average(mErrorRate, 1);
+            // Failing engine shouldn't stay not measured forever
+            mSamples++;
+        }
+
+        /**
+         * Expected time to load the segment (ms)
+         */
+        private float getScore() {
+            return (mTtfbMs + SEGMENT_BYTES * 8f / Math.max(mThroughputKbps, 1)) * (1 + mErrorRate * ERROR_PENALTY);
+        }
+
+        private static float average(float average, float value) {
+            return average + (value - average) * SMOOTHING;
+        }
+
+        private String serialize() {
+            return Helpers.mergeData(mSamples, mTransfers, mTtfbMs, mThroughputKbps, mErrorRate);
+        }
+
+        private static Stats from(String data) {
+            Stats result = new Stats();
+            String[] split = Helpers.splitData(data);
+            result.mSamples = Helpers.parseInt(split, 0, 0);
+            result.mTransfers = Helpers.parseInt(split, 1, 0);
+            result.mTtfbMs = Helpers.parseFloat(split, 2, 0);
+            result.mThroughputKbps = Helpers.parseFloat(split, 3, 0);
+            result.mErrorRate = Helpers.parseFloat(split, 4, 0);
+            return result;
+        }
+    }
+
+    private DataSourceBenchmark(Context context) {
+        mContext = context;
+    }
+
+    public static DataSourceBenchmark instance(Context context) {
+        if (sInstance == null) {
+            sInstance = new DataSourceBenchmark(context.getApplicationContext());
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Completed (or cancelled) segment request. Called on the loader threads.
+     */
+    public synchronized void onTransfer(int engine, long ttfbMs, long bytes, long transferMs) {
+        getStats(engine).onTransfer(ttfbMs, bytes, transferMs);
+        saveIfNeeded();
+    }
+
+    public synchronized void onError(int engine) {
+        getStats(engine).onError();
+        saveIfNeeded();
+    }
+
+    /**
+     * The playback hangs on buffering. Counted as the error of the engine.
+     *
+     * @return engine to use next: not measured one or the fastest one (if it's clearly faster than the current)
+     */
+    public synchronized int onLongBuffering(int currentEngine) {
+        Stats current = getStats(currentEngine);
+        current.onError();
+        save();
+
+        int[] engines = getEngines();
+        int currentIndex = indexOf(engines, currentEngine);
+
+        // Try the engines without the stats first. Round-robin from the current one.
+        for (int i = 1; i <= engines.length; i++) {
+            int engine = engines[(currentIndex + i) % engines.length];
+
+            if (engine != currentEngine && getStats(engine).mSamples < MIN_SAMPLES) {
+                Log.d(TAG, "Not measured engine selected: %s", getName(engine));
+                return engine;
+            }
+        }
+
+        int bestEngine = currentEngine;
+        float bestScore = currentIndex != -1 ? current.getScore() * SWITCH_RATIO : Float.MAX_VALUE;
+
+        for (int engine : engines) {
+            float score = getStats(engine).getScore();
+
+            if (engine != currentEngine && score < bestScore) {
+                bestEngine = engine;
+                bestScore = score;
+            }
+        }
+
+        Log.d(TAG, "Engine selected: %s, current: %s", getName(bestEngine), getName(currentEngine));
+
+        return bestEngine;
+    }
+
+    public static List<Pair<String, String>> getStats() {
+        List<Pair<String, String>> result = new ArrayList<>();
+
+        if (sInstance == null) {
+            return result;
+        }
+
+        synchronized (sInstance) {
+            for (int engine : ENGINES) {
+                Stats stats = sInstance.mStats.get(engine);
+
+                if (stats == null || stats.mTransfers == 0) {
+                    continue;
+                }
+
+                result.add(new Pair<>(String.format("Engine %s (%s)", getName(engine), sInstance.mNetwork),
+                        String.format("ttfb %.0f ms, %.0f kbps, errors %.0f%%, %s samples",
+                                stats.mTtfbMs, stats.mThroughputKbps, stats.mErrorRate * 100, stats.mSamples)));
+            }
+        }
+
+        return result;
+    }
+
+    private Stats getStats(int engine) {
+        updateNetwork();
+
+        Stats stats = mStats.get(engine);
+
+        if (stats == null) {
+            stats = Stats.from(AppPrefs.instance(mContext).getDataSourceStats(mNetwork, engine));
+            mStats.put(engine, stats);
+        }
+
+        return stats;
+    }
+
+    /**
+     * The stats of the previous network are saved and the new ones are loaded on demand
+     */
+    private void updateNetwork() {
+        long nowMs = SystemClock.elapsedRealtime();
+
+        if (mNetwork != null && nowMs - mNetworkCheckMs < NETWORK_CHECK_INTERVAL_MS) {
+            return;
+        }
+
+        mNetworkCheckMs = nowMs;
+        String network = getNetworkName();
+
+        if (!Helpers.equals(mNetwork, network)) {
+            if (mNetwork != null) {
+                save();
+            }
+
+            Log.d(TAG, "Network changed: %s", network);
+            mNetwork = network;
+            mStats.clear();
+        }
+    }
+
+    private String getNetworkName() {
+        ConnectivityManager manager = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo info = manager != null ? manager.getActiveNetworkInfo() : null;
+
+        return info != null && info.getTypeName() != null ? info.getTypeName().toLowerCase() : "unknown";
+    }
+
+    private void saveIfNeeded() {
+        if (SystemClock.elapsedRealtime() - mSavedMs >= SAVE_INTERVAL_MS) {
+            save();
+        }
+    }
+
+    private void save() {
+        mSavedMs = SystemClock.elapsedRealtime();
+
+        for (int i = 0; i < mStats.size(); i++) {
+            AppPrefs.instance(mContext).setDataSourceStats(mNetwork, mStats.keyAt(i), mStats.valueAt(i).serialize());
+        }
+    }
+
+    private static int[] getEngines() {
+        return Utils.skipCronet() ?
+                new int[] {PlayerTweaksData.PLAYER_DATA_SOURCE_DEFAULT, PlayerTweaksData.PLAYER_DATA_SOURCE_OKHTTP} : ENGINES;
+    }
+
+    private static int indexOf(int[] engines, int engine) {
+        for (int i = 0; i < engines.length; i++) {
+            if (engines[i] == engine) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static String getName(int engine) {
+        return engine >= 0 && engine < ENGINE_NAMES.length ? ENGINE_NAMES[engine] : String.valueOf(engine);
+    }
+}
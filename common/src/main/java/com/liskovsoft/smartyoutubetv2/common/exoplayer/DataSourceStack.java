@@ -0,0 +1,205 @@
+package com.liskovsoft.smartyoutubetv2.common.exoplayer;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.util.SparseArray;
+import com.google.android.exoplayer2.ext.cronet.CronetDataSourceFactory;
+import com.google.android.exoplayer2.ext.cronet.CronetEngineWrapper;
+import com.google.android.exoplayer2.ext.okhttp.OkHttpDataSourceFactory;
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
+import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
+import com.google.android.exoplayer2.upstream.DefaultHttpDataSourceFactory;
+import com.google.android.exoplayer2.upstream.HttpDataSource;
+import com.google.android.exoplayer2.upstream.HttpDataSource.BaseFactory;
+import com.liskovsoft.sharedutils.cronet.CronetManager;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.sharedutils.okhttp.OkHttpCommons;
+import com.liskovsoft.sharedutils.okhttp.OkHttpManager;
+import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs;
+import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
+import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
+import com.liskovsoft.youtubeapi.common.helpers.DefaultHeaders;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Network stack shared by all players of the process.<br/>
+ * Http factories are created once per backend, so the connections of the backend are reused between videos.<br/>
+ * The bandwidth estimate survives between videos and app restarts. The player starts with the right bitrate.
+ */
+public final class DataSourceStack {
+    private static final String TAG = DataSourceStack.class.getSimpleName();
+    private static final String USER_AGENT = DefaultHeaders.APP_USER_AGENT;
+    private static final int CRONET_THREADS = 2;
+    private static final long SAVE_ESTIMATE_INTERVAL_MS = 60_000;
+    @SuppressLint("StaticFieldLeak")
+    private static DataSourceStack sInstance;
+    private final Context mContext;
+    private final ExecutorService mCronetExecutor = Executors.newFixedThreadPool(CRONET_THREADS);
+    private final SparseArray<HttpDataSource.Factory> mHttpFactories = new SparseArray<>();
+    private final DefaultBandwidthMeter mBandwidthMeter;
+    private long mEstimateSavedMs;
+
+    private DataSourceStack(Context context) {
+        mContext = context;
+        mBandwidthMeter = createBandwidthMeter(context);
+    }
+
+    public static DataSourceStack instance(Context context) {
+        if (sInstance == null) {
+            sInstance = new DataSourceStack(context.getApplicationContext());
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Used by the player and its track selection.<br/>
+     * NOTE: the player passes the transfer listener of the meter to the media sources.
+     * So the factories don't attach the meter themselves (transfers would be counted twice).
+     */
+    public BandwidthMeter getBandwidthMeter() {
+        return mBandwidthMeter;
+    }
+
+    /**
+     * Uses the backend selected in the player settings.
+     */
+    public DataSource.Factory getDataSourceFactory() {
+        return new DefaultDataSourceFactory(mContext, null, getHttpDataSourceFactory());
+    }
+
+    public HttpDataSource.Factory getHttpDataSourceFactory() {
+        int source = getPlayerDataSource();
+        HttpDataSource.Factory factory = mHttpFactories.get(source);
+
+        if (factory == null) {
+            factory = source == PlayerTweaksData.PLAYER_DATA_SOURCE_OKHTTP ? buildOkHttpDataSourceFactory() :
+                    source == PlayerTweaksData.PLAYER_DATA_SOURCE_CRONET ? buildCronetDataSourceFactory() :
+                            buildDefaultHttpDataSourceFactory();
+            // Segment requests of the engine are measured
+            factory = new MeasuredHttpDataSource.Factory(factory, source, DataSourceBenchmark.instance(mContext));
+            mHttpFactories.put(source, factory);
+        }
+
+        return factory;
+    }
+
+    /**
+     * Backend that is actually used. Cronet falls back to the default one when the engine isn't available.
+     */
+    public int getPlayerDataSource() {
+        int source = PlayerTweaksData.instance(mContext).getPlayerDataSource();
+
+        if (source == PlayerTweaksData.PLAYER_DATA_SOURCE_CRONET && CronetManager.getEngine(mContext) == null) {
+            source = PlayerTweaksData.PLAYER_DATA_SOURCE_DEFAULT;
+        }
+
+        return source;
+    }
+
+    /**
+     * Use OkHttp for networking
+     */
+    private HttpDataSource.Factory buildOkHttpDataSourceFactory() {
+        OkHttpDataSourceFactory dataSourceFactory = new OkHttpDataSourceFactory(OkHttpManager.instance().getClient(), USER_AGENT,
+                null);
+        addCommonHeaders(dataSourceFactory);
+        return dataSourceFactory;
+    }
+
+    private HttpDataSource.Factory buildCronetDataSourceFactory() {
+        CronetDataSourceFactory dataSourceFactory =
+                new CronetDataSourceFactory(
+                        new CronetEngineWrapper(CronetManager.getEngine(mContext)),
+                        mCronetExecutor,
+                        null,
+                        null,
+                        (int) OkHttpCommons.CONNECT_TIMEOUT_MS,
+                        (int) OkHttpCommons.READ_TIMEOUT_MS,
+                        true,
+                        USER_AGENT);
+        addCommonHeaders(dataSourceFactory);
+        return dataSourceFactory;
+    }
+
+    /**
+     * Use built-in component for networking
+     */
+    private HttpDataSource.Factory buildDefaultHttpDataSourceFactory() {
+        DefaultHttpDataSourceFactory dataSourceFactory = new DefaultHttpDataSourceFactory(
+                USER_AGENT, null, (int) OkHttpCommons.CONNECT_TIMEOUT_MS,
+                (int) OkHttpCommons.READ_TIMEOUT_MS, true); // allowCrossProtocolRedirects = true
+
+        addCommonHeaders(dataSourceFactory); // cause troubles for some users
+        return dataSourceFactory;
+    }
+
+    private static void addCommonHeaders(BaseFactory dataSourceFactory) {
+        // Doesn't work
+        // Trying to fix 429 error (too many requests)
+        //String authorization = RetrofitOkHttpHelper.getAuthHeaders().get("Authorization");
+        //
+        //if (authorization != null) {
+        //    dataSourceFactory.getDefaultRequestProperties().set("Authorization", authorization);
+        //}
+
+        //HeaderManager headerManager = new HeaderManager(context);
+        //HashMap<String, String> headers = headerManager.getHeaders();
+
+        // NOTE: "Accept-Encoding" should not be set manually (gzip is added by default).
+
+        //for (String header : headers.keySet()) {
+        //    if (EXO_HEADERS.contains(header)) {
+        //        dataSourceFactory.getDefaultRequestProperties().set(header, headers.get(header));
+        //    }
+        //}
+
+        // Emulate browser request
+        //dataSourceFactory.getDefaultRequestProperties().set("accept", "*/*");
+        //dataSourceFactory.getDefaultRequestProperties().set("accept-encoding", "identity"); // Next won't work: gzip, deflate, br
+        //dataSourceFactory.getDefaultRequestProperties().set("accept-language", "en-US,en;q=0.9");
+        //dataSourceFactory.getDefaultRequestProperties().set("dnt", "1");
+        //dataSourceFactory.getDefaultRequestProperties().set("origin", "https://www.youtube.com");
+        //dataSourceFactory.getDefaultRequestProperties().set("referer", "https://www.youtube.com/");
+        //dataSourceFactory.getDefaultRequestProperties().set("sec-fetch-dest", "empty");
+        //dataSourceFactory.getDefaultRequestProperties().set("sec-fetch-mode", "cors");
+        //dataSourceFactory.getDefaultRequestProperties().set("sec-fetch-site", "cross-site");
+
+        // WARN: Compression won't work with legacy streams.
+        // "Accept-Encoding" should not be set manually (gzip is added by default).
+        // Otherwise you should do decompression yourself.
+        // Source: https://stackoverflow.com/questions/18898959/httpurlconnection-not-decompressing-gzip/42346308#42346308
+        //dataSourceFactory.getDefaultRequestProperties().set("Accept-Encoding", AppConstants.ACCEPT_ENCODING_DEFAULT);
+    }
+
+    private DefaultBandwidthMeter createBandwidthMeter(Context context) {
+        DefaultBandwidthMeter.Builder builder = new DefaultBandwidthMeter.Builder(context);
+
+        long savedEstimate = AppPrefs.instance(context).getBandwidthEstimate();
+
+        if (savedEstimate > 0) {
+            Log.d(TAG, "Initial bandwidth estimate: %s kbps", savedEstimate / 1_000);
+            builder.setInitialBitrateEstimate(savedEstimate);
+        }
+
+        DefaultBandwidthMeter bandwidthMeter = builder.build();
+        bandwidthMeter.addEventListener(Utils.sHandler, (elapsedMs, bytesTransferred, bitrateEstimate) -> saveEstimate(bitrateEstimate));
+
+        return bandwidthMeter;
+    }
+
+    private void saveEstimate(long bitrateEstimate) {
+        long nowMs = System.currentTimeMillis();
+
+        if (bitrateEstimate <= 0 || nowMs - mEstimateSavedMs < SAVE_ESTIMATE_INTERVAL_MS) {
+            return;
+        }
+
+        mEstimateSavedMs = nowMs;
+        AppPrefs.instance(mContext).setBandwidthEstimate(bitrateEstimate);
+    }
+}
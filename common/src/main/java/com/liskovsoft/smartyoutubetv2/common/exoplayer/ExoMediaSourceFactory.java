@@ -5,10 +5,9 @@ import android.content.Context;
 import android.net.Uri;
 import android.text.TextUtils;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.google.android.exoplayer2.C;
-import com.google.android.exoplayer2.ext.cronet.CronetDataSourceFactory;
-import com.google.android.exoplayer2.ext.cronet.CronetEngineWrapper;
-import com.google.android.exoplayer2.ext.okhttp.OkHttpDataSourceFactory;
+import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.extractor.DefaultExtractorsFactory;
 import com.google.android.exoplayer2.source.ExtractorMediaSource;
 import com.google.android.exoplayer2.source.MediaSource;
@@ -23,43 +22,27 @@ import com.google.android.exoplayer2.source.dash.manifest.UtcTimingElement;
 import com.google.android.exoplayer2.source.hls.HlsMediaSource;
 import com.google.android.exoplayer2.source.smoothstreaming.DefaultSsChunkSource;
 import com.google.android.exoplayer2.source.smoothstreaming.SsMediaSource;
-import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DataSource.Factory;
-import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
-import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
-import com.google.android.exoplayer2.upstream.DefaultHttpDataSourceFactory;
-import com.google.android.exoplayer2.upstream.HttpDataSource;
-import com.google.android.exoplayer2.upstream.HttpDataSource.BaseFactory;
 import com.google.android.exoplayer2.util.Util;
-import com.liskovsoft.sharedutils.cronet.CronetManager;
 import com.liskovsoft.sharedutils.helpers.FileHelpers;
 import com.liskovsoft.sharedutils.mylogger.Log;
-import com.liskovsoft.sharedutils.okhttp.OkHttpCommons;
-import com.liskovsoft.sharedutils.okhttp.OkHttpManager;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.errors.DashDefaultLoadErrorHandlingPolicy;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.errors.TrackErrorFixer;
-import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
-import com.liskovsoft.youtubeapi.common.helpers.DefaultHeaders;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
-import java.util.concurrent.Executors;
 
 public class ExoMediaSourceFactory {
     private static final String TAG = ExoMediaSourceFactory.class.getSimpleName();
     @SuppressLint("StaticFieldLeak")
     //private static ExoMediaSourceFactory sInstance;
     private static final int MAX_SEGMENTS_PER_LOAD = 1;
-    private static final String USER_AGENT = DefaultHeaders.APP_USER_AGENT;
-    @SuppressLint("StaticFieldLeak")
-    private static final DefaultBandwidthMeter BANDWIDTH_METER = new DefaultBandwidthMeter();
     private final Context mContext;
     private static final Uri DASH_MANIFEST_URI = Uri.parse("https://example.com/test.mpd");
     private static final String DASH_MANIFEST_EXTENSION = "mpd";
     private static final String HLS_PLAYLIST_EXTENSION = "m3u8";
-    private static final boolean USE_BANDWIDTH_METER = false;
     private TrackErrorFixer mTrackErrorFixer;
     private Factory mMediaDataSourceFactory;
 
@@ -71,6 +54,23 @@ public class ExoMediaSourceFactory {
         return buildMPDMediaSource(DASH_MANIFEST_URI, dashManifest);
     }
 
+    /**
+     * Loads the beginning of the video into the cache in background.<br/>
+     * Hints are the formats of the current video. Used to guess the tracks the player will choose.
+     */
+    public void prefetchDashManifest(InputStream dashManifest, @Nullable Format videoHint, @Nullable Format audioHint) {
+        DashManifest manifest;
+
+        try {
+            manifest = getManifest(DASH_MANIFEST_URI, dashManifest);
+        } catch (IllegalStateException e) {
+            Log.e(TAG, "Can't prefetch. " + e.getMessage());
+            return;
+        }
+
+        DashPrefetcher.prefetch(SegmentCache.instance(mContext), DataSourceStack.instance(mContext).getDataSourceFactory(), manifest, videoHint, audioHint);
+    }
+
     public MediaSource fromDashManifestUrl(String dashManifestUrl) {
         return buildMediaSource(Uri.parse(dashManifestUrl), DASH_MANIFEST_EXTENSION);
     }
@@ -90,34 +90,6 @@ public class ExoMediaSourceFactory {
         return mediaSources[0]; // item with max resolution
     }
 
-    /**
-     * Returns a new DataSource factory.
-     *
-     * @param useBandwidthMeter Whether to set {@link #BANDWIDTH_METER} as a listener to the new
-     *                          DataSource factory.
-     * @return A new DataSource factory.
-     */
-    private DataSource.Factory buildDataSourceFactory(boolean useBandwidthMeter) {
-        DefaultBandwidthMeter bandwidthMeter = useBandwidthMeter ? BANDWIDTH_METER : null;
-        return new DefaultDataSourceFactory(mContext, bandwidthMeter, buildHttpDataSourceFactory(useBandwidthMeter));
-    }
-
-    /**
-     * Returns a new HttpDataSource factory.
-     *
-     * @param useBandwidthMeter Whether to set {@link #BANDWIDTH_METER} as a listener to the new
-     *                          DataSource factory.
-     * @return A new HttpDataSource factory.
-     */
-    private HttpDataSource.Factory buildHttpDataSourceFactory(boolean useBandwidthMeter) {
-        PlayerTweaksData tweaksData = PlayerTweaksData.instance(mContext);
-        int source = tweaksData.getPlayerDataSource();
-        DefaultBandwidthMeter bandwidthMeter = useBandwidthMeter ? BANDWIDTH_METER : null;
-        return source == PlayerTweaksData.PLAYER_DATA_SOURCE_OKHTTP ? buildOkHttpDataSourceFactory(bandwidthMeter) :
-                        source == PlayerTweaksData.PLAYER_DATA_SOURCE_CRONET && CronetManager.getEngine(mContext) != null ? buildCronetDataSourceFactory(bandwidthMeter) :
-                                buildDefaultHttpDataSourceFactory(bandwidthMeter);
-    }
-
     @SuppressWarnings("deprecation")
     private MediaSource buildMediaSource(Uri uri, String overrideExtension) {
         int type = TextUtils.isEmpty(overrideExtension) ? Util.inferContentType(uri) : Util.inferContentType("." + overrideExtension);
@@ -220,81 +192,6 @@ public class ExoMediaSourceFactory {
         return result;
     }
 
-    /**
-     * Use OkHttp for networking
-     */
-    private HttpDataSource.Factory buildOkHttpDataSourceFactory(DefaultBandwidthMeter bandwidthMeter) {
-        OkHttpDataSourceFactory dataSourceFactory = new OkHttpDataSourceFactory(OkHttpManager.instance().getClient(), USER_AGENT,
-                bandwidthMeter);
-        addCommonHeaders(dataSourceFactory);
-        return dataSourceFactory;
-    }
-
-    private HttpDataSource.Factory buildCronetDataSourceFactory(DefaultBandwidthMeter bandwidthMeter) {
-        CronetDataSourceFactory dataSourceFactory =
-                new CronetDataSourceFactory(
-                        new CronetEngineWrapper(CronetManager.getEngine(mContext)),
-                        Executors.newSingleThreadExecutor(),
-                        null,
-                        bandwidthMeter,
-                        (int) OkHttpCommons.CONNECT_TIMEOUT_MS,
-                        (int) OkHttpCommons.READ_TIMEOUT_MS,
-                        true,
-                        USER_AGENT);
-        addCommonHeaders(dataSourceFactory);
-        return dataSourceFactory;
-    }
-
-    /**
-     * Use built-in component for networking
-     */
-    private HttpDataSource.Factory buildDefaultHttpDataSourceFactory(DefaultBandwidthMeter bandwidthMeter) {
-        DefaultHttpDataSourceFactory dataSourceFactory = new DefaultHttpDataSourceFactory(
-                USER_AGENT, bandwidthMeter, (int) OkHttpCommons.CONNECT_TIMEOUT_MS,
-                (int) OkHttpCommons.READ_TIMEOUT_MS, true); // allowCrossProtocolRedirects = true
-
-        addCommonHeaders(dataSourceFactory); // cause troubles for some users
-        return dataSourceFactory;
-    }
-
-    private static void addCommonHeaders(BaseFactory dataSourceFactory) {
-        // Doesn't work
-        // Trying to fix 429 error (too many requests)
-        //String authorization = RetrofitOkHttpHelper.getAuthHeaders().get("Authorization");
-        //
-        //if (authorization != null) {
-        //    dataSourceFactory.getDefaultRequestProperties().set("Authorization", authorization);
-        //}
-
-        //HeaderManager headerManager = new HeaderManager(context);
-        //HashMap<String, String> headers = headerManager.getHeaders();
-
-        // NOTE: "Accept-Encoding" should not be set manually (gzip is added by default).
-
-        //for (String header : headers.keySet()) {
-        //    if (EXO_HEADERS.contains(header)) {
-        //        dataSourceFactory.getDefaultRequestProperties().set(header, headers.get(header));
-        //    }
-        //}
-
-        // Emulate browser request
-        //dataSourceFactory.getDefaultRequestProperties().set("accept", "*/*");
-        //dataSourceFactory.getDefaultRequestProperties().set("accept-encoding", "identity"); // Next won't work: gzip, deflate, br
-        //dataSourceFactory.getDefaultRequestProperties().set("accept-language", "en-US,en;q=0.9");
-        //dataSourceFactory.getDefaultRequestProperties().set("dnt", "1");
-        //dataSourceFactory.getDefaultRequestProperties().set("origin", "https://www.youtube.com");
-        //dataSourceFactory.getDefaultRequestProperties().set("referer", "https://www.youtube.com/");
-        //dataSourceFactory.getDefaultRequestProperties().set("sec-fetch-dest", "empty");
-        //dataSourceFactory.getDefaultRequestProperties().set("sec-fetch-mode", "cors");
-        //dataSourceFactory.getDefaultRequestProperties().set("sec-fetch-site", "cross-site");
-
-        // WARN: Compression won't work with legacy streams.
-        // "Accept-Encoding" should not be set manually (gzip is added by default).
-        // Otherwise you should do decompression yourself.
-        // Source: https://stackoverflow.com/questions/18898959/httpurlconnection-not-decompressing-gzip/42346308#42346308
-        //dataSourceFactory.getDefaultRequestProperties().set("Accept-Encoding", AppConstants.ACCEPT_ENCODING_DEFAULT);
-    }
-
     public void setTrackErrorFixer(TrackErrorFixer trackErrorFixer) {
         mTrackErrorFixer = trackErrorFixer;
     }
@@ -315,7 +212,7 @@ public class ExoMediaSourceFactory {
 
     private Factory getMediaDataSourceFactory() {
         if (mMediaDataSourceFactory == null) {
-            mMediaDataSourceFactory = buildDataSourceFactory(USE_BANDWIDTH_METER);
+            mMediaDataSourceFactory = SegmentCache.instance(mContext).wrap(DataSourceStack.instance(mContext).getDataSourceFactory());
         }
 
         return mMediaDataSourceFactory;
@@ -23,6 +23,7 @@ import com.liskovsoft.sharedutils.querystringparser.UrlQueryStringFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -73,31 +74,8 @@ public class LiveDashManifestParser extends DashManifestParser {
         if (mOldManifest == null) {
             //recreateMissingSegments(newManifest);
 
-            //newManifest.availabilityStartTimeMs = -1;
-            Period newPeriod = newManifest.getPeriod(0);
-            // TODO: modified
-            //newPeriod.startMs = 0;
-            Helpers.setField(newPeriod, "startMs", 0);
             mOldSegmentNum = newSegmentNum;
-
-            for (int i = 0; i < newPeriod.adaptationSets.size(); i++) {
-                for (int j = 0; j < newPeriod.adaptationSets.get(i).representations.size(); j++) {
-                    MultiSegmentRepresentation representation = (MultiSegmentRepresentation) newPeriod.adaptationSets.get(i).representations.get(j);
-                    //representation.presentationTimeOffsetUs = 0;
-
-                    // TODO: modified
-                    //SegmentList newSegmentList = (SegmentList) representation.segmentBase;
-                    SegmentList newSegmentList = (SegmentList) Helpers.getField(representation, "segmentBase");
-                    // TODO: modified
-                    //newSegmentList.presentationTimeOffset = 0;
-                    Helpers.setField(newSegmentList, "presentationTimeOffset", 0);
-                    // TODO: modified
-                    //newSegmentList.startNumber = 0;
-                    Helpers.setField(newSegmentList, "startNumber", 0);
-                }
-            }
-
-            mOldManifest = newManifest;
+            mOldManifest = createLiveManifest(newManifest);
 
             return;
         }
@@ -127,47 +105,43 @@ public class LiveDashManifestParser extends DashManifestParser {
             return;
         }
 
-        MultiSegmentRepresentation oldMultiRepresentation = (MultiSegmentRepresentation) oldRepresentation;
-        MultiSegmentRepresentation newMultiRepresentation = (MultiSegmentRepresentation) newRepresentation;
+        ((LiveSegmentRepresentation) oldRepresentation).mIndex.append(newRepresentation, segmentNumShift);
+    }
 
-        // TODO: modified
-        //SegmentList oldSegmentList = (SegmentList) oldRepresentation.segmentBase;
-        SegmentList oldSegmentList = (SegmentList) Helpers.getField(oldMultiRepresentation, "segmentBase");
-        // TODO: modified
-        //SegmentList newSegmentList = (SegmentList) newRepresentation.segmentBase;
-        SegmentList newSegmentList = (SegmentList) Helpers.getField(newMultiRepresentation, "segmentBase");
+    /**
+     * The period starts from zero and the segments are numbered from zero.<br/>
+     * Segment lists are replaced with {@link LiveSegmentIndex}. The memory doesn't grow with the stream length.
+     */
+    private static DashManifest createLiveManifest(DashManifest manifest) {
+        List<Period> periods = new ArrayList<>();
 
-        // TODO: modified
-        //List<RangedUri> oldMediaSegments = oldSegmentList.mediaSegments;
-        List<RangedUri> oldMediaSegments = (List<RangedUri>) Helpers.getField(oldSegmentList, "mediaSegments");
-        // TODO: modified
-        //List<RangedUri> newMediaSegments = newSegmentList.mediaSegments;
-        List<RangedUri> newMediaSegments = (List<RangedUri>) Helpers.getField(newSegmentList, "mediaSegments");
+        for (int i = 0; i < manifest.getPeriodCount(); i++) {
+            Period period = manifest.getPeriod(i);
 
-        oldMediaSegments.addAll(
-                newMediaSegments.subList(newMediaSegments.size() - (int) segmentNumShift, newMediaSegments.size()));
+            if (i > 0) {
+                periods.add(period);
+                continue;
+            }
 
-        // TODO: modified
-        //List<SegmentTimelineElement> oldSegmentTimeline = oldSegmentList.segmentTimeline;
-        List<SegmentTimelineElement> oldSegmentTimeline = (List<SegmentTimelineElement>) Helpers.getField(oldSegmentList, "segmentTimeline");
+            List<AdaptationSet> adaptationSets = new ArrayList<>();
 
-        // segmentTimeline is the same for all segments
-        if (oldMediaSegments.size() != oldSegmentTimeline.size()) {
-            SegmentTimelineElement lastTimeline = oldSegmentTimeline.get(oldSegmentTimeline.size() - 1);
-            // TODO: modified
-            //long lastTimelineDuration = lastTimeline.duration;
-            long lastTimelineDuration = (Long) Helpers.getField(lastTimeline, "duration");
-            // TODO: modified
-            //long lastTimelineStartTime = lastTimeline.startTime;
-            long lastTimelineStartTime = (Long) Helpers.getField(lastTimeline, "startTime");
+            for (AdaptationSet adaptationSet : period.adaptationSets) {
+                List<Representation> representations = new ArrayList<>();
 
-            for (int i = 1; i <= segmentNumShift; i++) {
-                oldSegmentTimeline.add(new SegmentTimelineElement(lastTimelineStartTime + (lastTimelineDuration * i), lastTimelineDuration));
+                for (Representation representation : adaptationSet.representations) {
+                    representations.add(new LiveSegmentRepresentation(representation));
+                }
+
+                adaptationSets.add(new AdaptationSet(adaptationSet.id, adaptationSet.type, representations,
+                        adaptationSet.accessibilityDescriptors, adaptationSet.supplementalProperties));
             }
 
-            //oldSegmentTimeline.addAll(
-            //        newSegmentList.segmentTimeline.subList(newSegmentList.segmentTimeline.size() - (int) segmentNumShift - 1, newSegmentList.segmentTimeline.size()));
+            periods.add(new Period(period.id, 0, adaptationSets, period.eventStreams));
         }
+
+        return new DashManifest(manifest.availabilityStartTimeMs, manifest.durationMs, manifest.minBufferTimeMs, manifest.dynamic,
+                manifest.minUpdatePeriodMs, manifest.timeShiftBufferDepthMs, manifest.suggestedPresentationDelayMs, manifest.publishTimeMs,
+                manifest.programInformation, manifest.utcTiming, manifest.location, periods);
     }
 
     private static void recreateMissingSegments(DashManifest manifest) {
@@ -313,6 +287,61 @@ public class LiveDashManifestParser extends DashManifestParser {
         return dashSegmentIndex.getDurationUs(getFirstSegmentNum(manifest), C.TIME_UNSET) / 1_000;
     }
 
+    private static class LiveSegmentRepresentation extends MultiSegmentRepresentation {
+        private final LiveSegmentIndex mIndex;
+
+        public LiveSegmentRepresentation(Representation origin) {
+            // Empty segment list. Only the init segment and the presentation offset are used.
+            super(origin.revisionId, origin.format, origin.baseUrl,
+                    new SegmentList(origin.getInitializationUri(), C.MICROS_PER_SECOND, origin.presentationTimeOffsetUs,
+                            0, 0, null, Collections.emptyList()),
+                    origin.inbandEventStreams);
+            mIndex = LiveSegmentIndex.from(origin);
+        }
+
+        @Override
+        public DashSegmentIndex getIndex() {
+            return mIndex;
+        }
+
+        // DashSegmentIndex implementation.
+
+        @Override
+        public RangedUri getSegmentUrl(long segmentIndex) {
+            return mIndex.getSegmentUrl(segmentIndex);
+        }
+
+        @Override
+        public long getSegmentNum(long timeUs, long periodDurationUs) {
+            return mIndex.getSegmentNum(timeUs, periodDurationUs);
+        }
+
+        @Override
+        public long getTimeUs(long segmentIndex) {
+            return mIndex.getTimeUs(segmentIndex);
+        }
+
+        @Override
+        public long getDurationUs(long segmentIndex, long periodDurationUs) {
+            return mIndex.getDurationUs(segmentIndex, periodDurationUs);
+        }
+
+        @Override
+        public long getFirstSegmentNum() {
+            return mIndex.getFirstSegmentNum();
+        }
+
+        @Override
+        public int getSegmentCount(long periodDurationUs) {
+            return mIndex.getSegmentCount(periodDurationUs);
+        }
+
+        @Override
+        public boolean isExplicit() {
+            return mIndex.isExplicit();
+        }
+    }
+
     private static class MultiSegmentRepresentationWrapper extends MultiSegmentRepresentation {
         private long mSegmentCount;
         private long mMinUpdatePeriodMs;
@@ -0,0 +1,287 @@
+package com.liskovsoft.smartyoutubetv2.common.exoplayer;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.source.dash.DashSegmentIndex;
+import com.google.android.exoplayer2.source.dash.manifest.RangedUri;
+import com.google.android.exoplayer2.source.dash.manifest.Representation;
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Segment index of the long live streams that grows without storing the segments.<br/>
+ * Url and time of the segment are computed from its number. E.g. .../sq/{sq}/lmt/{lmt}, start = time + num * duration.<br/>
+ * Segments that don't follow the formula (time gap, other url) start a new run. Usually the whole stream is a single run.
+ */
+final class LiveSegmentIndex implements DashSegmentIndex {
+    private static final String TAG = LiveSegmentIndex.class.getSimpleName();
+    private static final String SQ_PARAM = "sq/";
+    private static final String LMT_PARAM = "/lmt/";
+    private final List<Run> mRuns = new ArrayList<>();
+    private int mSegmentCount;
+
+    /**
+     * Copies the segments of the representation. The numbering starts from zero.
+     */
+    public static LiveSegmentIndex from(Representation representation) {
+        LiveSegmentIndex result = new LiveSegmentIndex();
+        result.append(representation, Integer.MAX_VALUE);
+        return result;
+    }
+
+    /**
+     * Appends the last segments of the representation.
+     */
+    public synchronized void append(Representation representation, long segmentCount) {
+        DashSegmentIndex index = representation.getIndex();
+
+        if (index == null) {
+            return;
+        }
+
+        int count = index.getSegmentCount(C.TIME_UNSET);
+
+        if (count == INDEX_UNBOUNDED || count <= 0) {
+            return;
+        }
+
+        long firstNum = index.getFirstSegmentNum();
+        long lastNum = firstNum + count - 1;
+
+        for (long num = Math.max(firstNum, lastNum - segmentCount + 1); num <= lastNum; num++) {
+            // Segment times of the representation without the presentation offset
+            append(index.getTimeUs(num) + representation.presentationTimeOffsetUs, index.getDurationUs(num, C.TIME_UNSET),
+                    index.getSegmentUrl(num), representation.baseUrl);
+        }
+    }
+
+    private void append(long timeUs, long durationUs, RangedUri segmentUri, String baseUrl) {
+        String uri = segmentUri.resolveUriString(baseUrl);
+        Run lastRun = mRuns.isEmpty() ? null : mRuns.get(mRuns.size() - 1);
+
+        if (lastRun == null || !lastRun.accept(mSegmentCount, timeUs, durationUs, uri, segmentUri)) {
+            if (lastRun != null) {
+                Log.d(TAG, "New segment run at %s: %s", mSegmentCount, uri);
+            }
+
+            mRuns.add(new Run(mSegmentCount, timeUs, durationUs, uri, segmentUri));
+        }
+
+        mSegmentCount++;
+    }
+
+    @Override
+    public synchronized long getSegmentNum(long timeUs, long periodDurationUs) {
+        if (mSegmentCount == 0) {
+            return 0;
+        }
+
+        Run run = mRuns.get(findRunByTime(timeUs));
+
+        if (timeUs < run.mStartTimeUs) {
+            return run.mStartNum;
+        }
+
+        long num = run.mStartNum + (timeUs - run.mStartTimeUs) / run.mDurationUs;
+
+        return Math.min(num, getRunEndNum(run) - 1);
+    }
+
+    @Override
+    public synchronized long getTimeUs(long segmentNum) {
+        Run run = mRuns.get(findRunByNum(segmentNum));
+        return run.mStartTimeUs + (segmentNum - run.mStartNum) * run.mDurationUs;
+    }
+
+    @Override
+    public synchronized long getDurationUs(long segmentNum, long periodDurationUs) {
+        return mRuns.get(findRunByNum(segmentNum)).mDurationUs;
+    }
+
+    @Override
+    public synchronized RangedUri getSegmentUrl(long segmentNum) {
+        Run run = mRuns.get(findRunByNum(segmentNum));
+        return new RangedUri(run.buildUri(segmentNum - run.mStartNum), run.mStart, run.mLength);
+    }
+
+    @Override
+    public long getFirstSegmentNum() {
+        return 0;
+    }
+
+    @Override
+    public synchronized int getSegmentCount(long periodDurationUs) {
+        return mSegmentCount;
+    }
+
+    @Override
+    public boolean isExplicit() {
+        return true;
+    }
+
+    private long getRunEndNum(Run run) {
+        int next = mRuns.indexOf(run) + 1;
+        return next < mRuns.size() ? mRuns.get(next).mStartNum : mSegmentCount;
+    }
+
+    private int findRunByNum(long segmentNum) {
+        int low = 0;
+        int high = mRuns.size() - 1;
+
+        // Last run is the most used one
+        if (mRuns.get(high).mStartNum <= segmentNum) {
+            return high;
+        }
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+
+            if (mRuns.get(mid).mStartNum <= segmentNum) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    private int findRunByTime(long timeUs) {
+        int low = 0;
+        int high = mRuns.size() - 1;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+
+            if (mRuns.get(mid).mStartTimeUs <= timeUs) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Segments with the same duration and the url that differs in the numbers only.
+     */
+    private static final class Run {
+        private static final long UNKNOWN_STEP = Long.MIN_VALUE;
+        private final long mStartNum;
+        private final long mStartTimeUs;
+        private final long mDurationUs;
+        private final long mStart;
+        private final long mLength;
+        /**
+         * Not null when the url doesn't contain the segment number. Such run has a single segment.
+         */
+        private final String mUri;
+        private final String mPrefix;
+        private final String mSuffix;
+        private final long mSq;
+        private final boolean mHasLmt;
+        private final long mLmt;
+        private long mLmtStep = UNKNOWN_STEP;
+
+        Run(long startNum, long startTimeUs, long durationUs, String uri, RangedUri segmentUri) {
+            mStartNum = startNum;
+            mStartTimeUs = startTimeUs;
+            mDurationUs = durationUs;
+            mStart = segmentUri.start;
+            mLength = segmentUri.length;
+
+            int sqStart = findSq(uri);
+            int sqEnd = skipDigits(uri, sqStart);
+            int lmtStart = uri.startsWith(LMT_PARAM, sqEnd) ? sqEnd + LMT_PARAM.length() : -1;
+            int lmtEnd = lmtStart != -1 ? skipDigits(uri, lmtStart) : sqEnd;
+
+            if (sqStart == -1 || sqEnd == sqStart || lmtEnd == lmtStart) {
+                mUri = uri;
+                mPrefix = null;
+                mSuffix = null;
+                mSq = 0;
+                mHasLmt = false;
+                mLmt = 0;
+                return;
+            }
+
+            mUri = null;
+            mPrefix = uri.substring(0, sqStart);
+            mSuffix = uri.substring(lmtEnd);
+            mSq = Long.parseLong(uri.substring(sqStart, sqEnd));
+            mHasLmt = lmtStart != -1;
+            mLmt = mHasLmt ? Long.parseLong(uri.substring(lmtStart, lmtEnd)) : 0;
+
+            if (!mHasLmt) {
+                mLmtStep = 0;
+            }
+        }
+
+        boolean accept(long num, long timeUs, long durationUs, String uri, RangedUri segmentUri) {
+            long offset = num - mStartNum;
+
+            if (mUri != null || durationUs != mDurationUs || timeUs != mStartTimeUs + offset * durationUs ||
+                    segmentUri.start != mStart || segmentUri.length != mLength) {
+                return false;
+            }
+
+            if (mLmtStep == UNKNOWN_STEP) {
+                // The second segment of the run defines the lmt step
+                Run next = new Run(num, timeUs, durationUs, uri, segmentUri);
+
+                if (next.mUri != null || !next.mHasLmt || next.mSq != mSq + 1 ||
+                        !next.mPrefix.equals(mPrefix) || !next.mSuffix.equals(mSuffix)) {
+                    return false;
+                }
+
+                mLmtStep = next.mLmt - mLmt;
+                return true;
+            }
+
+            return uri.equals(buildUri(offset));
+        }
+
+        String buildUri(long offset) {
+            if (mUri != null) {
+                return mUri;
+            }
+
+            StringBuilder result = new StringBuilder(mPrefix.length() + mSuffix.length() + 48)
+                    .append(mPrefix)
+                    .append(mSq + offset);
+
+            if (mHasLmt) {
+                result.append(LMT_PARAM).append(mLmt + offset * mLmtStep);
+            }
+
+            return result.append(mSuffix).toString();
+        }
+
+        /**
+         * @return position of the segment number or -1
+         */
+        private static int findSq(String uri) {
+            int pos = uri.lastIndexOf(SQ_PARAM);
+
+            if (pos == -1 || (pos > 0 && uri.charAt(pos - 1) != '/')) {
+                return -1;
+            }
+
+            return pos + SQ_PARAM.length();
+        }
+
+        private static int skipDigits(String uri, int pos) {
+            if (pos == -1) {
+                return -1;
+            }
+
+            while (pos < uri.length() && Character.isDigit(uri.charAt(pos))) {
+                pos++;
+            }
+
+            return pos;
+        }
+    }
+}
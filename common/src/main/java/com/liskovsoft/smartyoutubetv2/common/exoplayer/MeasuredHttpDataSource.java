@@ -0,0 +1,170 @@
+package com.liskovsoft.smartyoutubetv2.common.exoplayer;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.HttpDataSource;
+import com.google.android.exoplayer2.upstream.TransferListener;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Passes the timings of the segment requests to the {@link DataSourceBenchmark}.<br/>
+ * Time to the first byte is the duration of the open (the response headers are received).
+ * Throughput is measured from the open till the close.
+ */
+final class MeasuredHttpDataSource implements HttpDataSource {
+    private static final String SEGMENT_PATH = "videoplayback";
+    private final HttpDataSource mDataSource;
+    private final int mEngine;
+    private final DataSourceBenchmark mBenchmark;
+    private boolean mIsMeasured;
+    private long mOpenMs;
+    private long mFirstByteMs;
+    private long mBytes;
+
+    static final class Factory implements HttpDataSource.Factory {
+        private final HttpDataSource.Factory mFactory;
+        private final int mEngine;
+        private final DataSourceBenchmark mBenchmark;
+
+        /**
+         * @param engine one of the PlayerTweaksData.PLAYER_DATA_SOURCE_* constants
+         */
+        Factory(HttpDataSource.Factory factory, int engine, DataSourceBenchmark benchmark) {
+            mFactory = factory;
+            mEngine = engine;
+            mBenchmark = benchmark;
+        }
+
+        @Override
+        public HttpDataSource createDataSource() {
+            return new MeasuredHttpDataSource(mFactory.createDataSource(), mEngine, mBenchmark);
+        }
+
+        @Override
+        public RequestProperties getDefaultRequestProperties() {
+            return mFactory.getDefaultRequestProperties();
+        }
+
+        @Override
+        public void setDefaultRequestProperty(String name, String value) {
+            mFactory.getDefaultRequestProperties().set(name, value);
+        }
+
+        @Override
+        public void clearDefaultRequestProperty(String name) {
+            mFactory.getDefaultRequestProperties().remove(name);
+        }
+
+        @Override
+        public void clearAllDefaultRequestProperties() {
+            mFactory.getDefaultRequestProperties().clear();
+        }
+    }
+
+    private MeasuredHttpDataSource(HttpDataSource dataSource, int engine, DataSourceBenchmark benchmark) {
+        mDataSource = dataSource;
+        mEngine = engine;
+        mBenchmark = benchmark;
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws HttpDataSourceException {
+        String path = dataSpec.uri.getPath();
+        mIsMeasured = path != null && path.contains(SEGMENT_PATH);
+        mOpenMs = SystemClock.elapsedRealtime();
+        mFirstByteMs = 0;
+        mBytes = 0;
+
+        try {
+            long length = mDataSource.open(dataSpec);
+            mFirstByteMs = SystemClock.elapsedRealtime();
+            return length;
+        } catch (HttpDataSourceException e) {
+            onError(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int readLength) throws HttpDataSourceException {
+        try {
+            int read = mDataSource.read(buffer, offset, readLength);
+
+            if (read > 0) {
+                mBytes += read;
+            }
+
+            return read;
+        } catch (HttpDataSourceException e) {
+            onError(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws HttpDataSourceException {
+        try {
+            mDataSource.close();
+        } finally {
+            if (mIsMeasured && mFirstByteMs != 0) {
+                mBenchmark.onTransfer(mEngine, mFirstByteMs - mOpenMs, mBytes, SystemClock.elapsedRealtime() - mFirstByteMs);
+            }
+
+            mIsMeasured = false;
+        }
+    }
+
+    @Override
+    public void addTransferListener(TransferListener transferListener) {
+        mDataSource.addTransferListener(transferListener);
+    }
+
+    @Nullable
+    @Override
+    public Uri getUri() {
+        return mDataSource.getUri();
+    }
+
+    @Override
+    public void setRequestProperty(String name, String value) {
+        mDataSource.setRequestProperty(name, value);
+    }
+
+    @Override
+    public void clearRequestProperty(String name) {
+        mDataSource.clearRequestProperty(name);
+    }
+
+    @Override
+    public void clearAllRequestProperties() {
+        mDataSource.clearAllRequestProperties();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return mDataSource.getResponseCode();
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaders() {
+        return mDataSource.getResponseHeaders();
+    }
+
+    private void onError(HttpDataSourceException e) {
+        if (!mIsMeasured) {
+            return;
+        }
+
+        mIsMeasured = false;
+
+        // Cancelled loads (seek, quality switch) and bad urls (expired, 403) aren't problems of the engine
+        if (!(e.getCause() instanceof InterruptedIOException) && !(e instanceof InvalidResponseCodeException) && !Thread.currentThread().isInterrupted()) {
+            mBenchmark.onError(mEngine);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.liskovsoft.smartyoutubetv2.common.exoplayer;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Build.VERSION;
+import android.os.StatFs;
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.database.ExoDatabaseProvider;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.FileDataSource;
+import com.google.android.exoplayer2.upstream.FileDataSourceFactory;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSink;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSinkFactory;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSourceFactory;
+import com.google.android.exoplayer2.upstream.cache.CacheKeyFactory;
+import com.google.android.exoplayer2.upstream.cache.CacheUtil;
+import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Process-wide disk cache of the media segments.<br/>
+ * The player reads through it, so the prefetched beginning of the next video starts without network round trips.<br/>
+ * When enabled in the tweaks, the played segments are stored too. Seeks behind the back buffer and replays (looped shorts)
+ * don't use the network then. The size depends on the free storage.
+ */
+public final class SegmentCache {
+    private static final String TAG = SegmentCache.class.getSimpleName();
+    private static final String CACHE_DIR = "segment_cache";
+    private static final long MIN_CACHE_BYTES = 64 * 1024 * 1024;
+    private static final long MAX_CACHE_BYTES = 1024 * 1024 * 1024;
+    /**
+     * Part of the free storage
+     */
+    private static final int FREE_SPACE_DIVIDER = 20;
+    private static final int BUFFER_SIZE_BYTES = 128 * 1024;
+    /**
+     * The url is signed per session (sig, expire, ip etc.) but these params identify the content itself.
+     */
+    private static final String PARAM_ITAG = "itag";
+    private static final String PARAM_LMT = "lmt";
+    private static final String PARAM_CLEN = "clen";
+    private static final CacheKeyFactory KEY_FACTORY = new CacheKeyFactory() {
+        @Override
+        public String buildCacheKey(DataSpec dataSpec) {
+            return dataSpec.key != null ? dataSpec.key : createKey(dataSpec.uri);
+        }
+
+        @Override
+        public int maxDownloadParallelSegments() {
+            return 1;
+        }
+    };
+    private static SegmentCache sInstance;
+    private final Context mContext;
+    private final Cache mCache;
+
+    private SegmentCache(Context context) {
+        mContext = context;
+        mCache = createCache(context);
+    }
+
+    public static SegmentCache instance(Context context) {
+        if (sInstance == null) {
+            sInstance = new SegmentCache(context.getApplicationContext());
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Reads the cached parts and loads the rest from the network.
+     */
+    public DataSource.Factory wrap(DataSource.Factory upstreamFactory) {
+        if (mCache == null) {
+            return upstreamFactory;
+        }
+
+        if (!PlayerTweaksData.instance(mContext).isSegmentDiskCacheEnabled()) {
+            // Read only. Only the prefetched data is stored.
+            return new CacheDataSourceFactory(mCache, upstreamFactory, new FileDataSourceFactory(), null,
+                    CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR, null, KEY_FACTORY);
+        }
+
+        // Live segments and progressive streams have unset length (and volatile urls). Not stored.
+        return new CacheDataSourceFactory(mCache, upstreamFactory, new FileDataSourceFactory(),
+                new CacheDataSinkFactory(mCache, CacheDataSink.DEFAULT_FRAGMENT_SIZE, BUFFER_SIZE_BYTES),
+                CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR | CacheDataSource.FLAG_IGNORE_CACHE_FOR_UNSET_LENGTH_REQUESTS, null, KEY_FACTORY);
+    }
+
+    /**
+     * Stores the data into the cache. Blocking call.
+     */
+    public void cache(DataSpec dataSpec, DataSource upstream, @Nullable AtomicBoolean isCanceled) throws IOException, InterruptedException {
+        if (mCache == null) {
+            return;
+        }
+
+        CacheDataSource dataSource = new CacheDataSource(mCache, upstream, new FileDataSource(),
+                new CacheDataSink(mCache, CacheDataSink.DEFAULT_FRAGMENT_SIZE), CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR, null, KEY_FACTORY);
+
+        CacheUtil.cache(dataSpec, mCache, KEY_FACTORY, dataSource, new byte[BUFFER_SIZE_BYTES],
+                null, 0, null, isCanceled, false);
+    }
+
+    public boolean isEnabled() {
+        return mCache != null;
+    }
+
+    @Nullable
+    private static Cache createCache(Context context) {
+        long maxCacheBytes = getMaxCacheBytes(context.getCacheDir());
+
+        // Low storage. Don't take the rest of it.
+        if (maxCacheBytes < MIN_CACHE_BYTES) {
+            Log.d(TAG, "Not enough free space for the segment cache");
+            return null;
+        }
+
+        try {
+            File cacheDir = new File(context.getCacheDir(), CACHE_DIR);
+            return new SimpleCache(cacheDir, new LeastRecentlyUsedCacheEvictor(maxCacheBytes),
+                    new ExoDatabaseProvider(context));
+        } catch (IllegalStateException e) { // the folder is locked by the other instance
+            Log.e(TAG, "Can't create the segment cache: %s", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The cache is counted as free space. So the size is stable between launches.
+     */
+    private static long getMaxCacheBytes(File dir) {
+        long freeBytes;
+
+        try {
+            StatFs stat = new StatFs(dir.getPath());
+            freeBytes = VERSION.SDK_INT >= 18 ? stat.getAvailableBytes() : (long) stat.getAvailableBlocks() * stat.getBlockSize();
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+
+        long result = Math.min((freeBytes + getDirSize(new File(dir, CACHE_DIR))) / FREE_SPACE_DIVIDER, MAX_CACHE_BYTES);
+        Log.d(TAG, "Segment cache size: %s MB", result / 1024 / 1024);
+
+        return result;
+    }
+
+    private static long getDirSize(File dir) {
+        File[] files = dir.listFiles();
+
+        if (files == null) {
+            return 0;
+        }
+
+        long result = 0;
+
+        for (File file : files) {
+            result += file.isDirectory() ? getDirSize(file) : file.length();
+        }
+
+        return result;
+    }
+
+    private static String createKey(Uri uri) {
+        String itag = uri.getQueryParameter(PARAM_ITAG);
+        String lmt = uri.getQueryParameter(PARAM_LMT);
+        String clen = uri.getQueryParameter(PARAM_CLEN);
+
+        if (itag == null || lmt == null || clen == null) {
+            return uri.toString();
+        }
+
+        return String.format("%s.%s.%s", itag, lmt, clen);
+    }
+}
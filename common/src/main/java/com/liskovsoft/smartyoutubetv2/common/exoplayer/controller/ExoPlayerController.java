@@ -3,12 +3,15 @@ package com.liskovsoft.smartyoutubetv2.common.exoplayer.controller;
 import android.content.Context;
 import android.os.Build;
 import android.os.Build.VERSION;
+import android.os.Handler;
+import android.os.Looper;
 
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.PlaybackParameters;
 import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.PlayerMessage;
 import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.MergingMediaSource;
@@ -16,13 +19,17 @@ import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
 import com.google.android.exoplayer2.trackselection.TrackSelection;
 import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+import com.google.android.exoplayer2.video.VideoListener;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.sharedutils.mylogger.Log;
 import com.liskovsoft.smartyoutubetv2.common.BuildConfig;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.listener.PlayerEventListener;
+import com.liskovsoft.smartyoutubetv2.common.app.models.playback.manager.PlayerEngine.OnPositionMarker;
+import com.liskovsoft.smartyoutubetv2.common.exoplayer.DataSourceStack;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.ExoMediaSourceFactory;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.errors.TrackErrorFixer;
+import com.liskovsoft.smartyoutubetv2.common.exoplayer.other.PlaybackTelemetry;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.other.VolumeBooster;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.ExoFormatItem;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.FormatItem;
@@ -32,11 +39,13 @@ import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.TrackSelectorUti
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.track.MediaTrack;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.track.VideoTrack;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.versions.ExoUtils;
+import com.liskovsoft.smartyoutubetv2.common.misc.VideoOpenSession;
 import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
 
 import java.io.InputStream;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ExoPlayerController implements Player.EventListener, PlayerController {
@@ -49,13 +58,28 @@ public class ExoPlayerController implements Player.EventListener, PlayerControll
     private boolean mOnSourceChanged;
     private WeakReference<Video> mVideo;
     private final PlayerEventListener mEventListener;
+    /**
+     * Player of the PlaybackView. Embedded previews (cards) aren't recorded by the telemetry and the open session.
+     */
+    private final boolean mIsMainPlayer;
     private SimpleExoPlayer mPlayer;
     private PlayerView mPlayerView;
     private VolumeBooster mVolumeBooster;
     private boolean mIsEnded;
     private Runnable mOnVideoLoaded;
+    private final List<PlayerMessage> mPositionMarkers = new ArrayList<>();
+    private final VideoListener mFirstFrameListener = new VideoListener() {
+        @Override
+        public void onRenderedFirstFrame() {
+            VideoOpenSession.instance().onFirstFrame();
+        }
+    };
 
     public ExoPlayerController(Context context, PlayerEventListener eventListener) {
+        this(context, eventListener, false);
+    }
+
+    public ExoPlayerController(Context context, PlayerEventListener eventListener, boolean isMainPlayer) {
         PlayerTweaksData playerTweaksData = PlayerTweaksData.instance(context);
         mContext = context.getApplicationContext();
         mMediaSourceFactory = new ExoMediaSourceFactory(context);
@@ -66,6 +90,7 @@ public class ExoPlayerController implements Player.EventListener, PlayerControll
 
         mMediaSourceFactory.setTrackErrorFixer(mTrackErrorFixer);
         mEventListener = eventListener;
+        mIsMainPlayer = isMainPlayer;
         
         applyShield720pFix();
         VideoTrack.sIsNoFpsPresetsEnabled = playerTweaksData.isNoFpsPresetsEnabled();
@@ -111,13 +136,18 @@ public class ExoPlayerController implements Player.EventListener, PlayerControll
     }
 
     private void openMediaSource(MediaSource mediaSource) {
+        cancelPositionMarkers();
         resetPlayerState(); // fixes occasional video artifacts and problems with quality switching
         setQualityInfo("");
 
         mTrackSelectorManager.setMergedSource(mediaSource instanceof MergingMediaSource);
         mTrackSelectorManager.invalidate();
         mOnSourceChanged = true;
-        mEventListener.onSourceChanged(getVideo());
+        Video video = getVideo();
+        mEventListener.onSourceChanged(video);
+        if (mIsMainPlayer) {
+            PlaybackTelemetry.instance().startSession(video != null ? video.videoId : null, DataSourceStack.instance(mContext).getPlayerDataSource());
+        }
         mPlayer.prepare(mediaSource);
     }
 
@@ -201,6 +231,10 @@ public class ExoPlayerController implements Player.EventListener, PlayerControll
     public void setPlayer(SimpleExoPlayer player) {
         mPlayer = player;
         player.addListener(this);
+        if (mIsMainPlayer) {
+            player.addVideoListener(mFirstFrameListener);
+            player.addAnalyticsListener(PlaybackTelemetry.instance());
+        }
     }
 
     //@Override
@@ -446,6 +480,49 @@ public class ExoPlayerController implements Player.EventListener, PlayerControll
         mOnVideoLoaded = onVideoLoaded;
     }
 
+    @Override
+    public boolean setPositionMarkers(long[] positionsMs, OnPositionMarker callback) {
+        cancelPositionMarkers();
+
+        if (positionsMs == null || callback == null) {
+            return true;
+        }
+
+        if (mPlayer == null || mPlayer.getCurrentTimeline().isEmpty()) {
+            return false;
+        }
+
+        // Messages are position based, so the speed changes and seeks don't require rescheduling
+        Handler handler = new Handler(Looper.getMainLooper());
+
+        for (long positionMs : positionsMs) {
+            PlayerMessage message = mPlayer.createMessage((messageType, payload) -> callback.onPositionMarker(positionMs))
+                    .setPosition(positionMs)
+                    .setHandler(handler)
+                    .setDeleteAfterDelivery(false) // repeat after seeking back
+                    .send();
+            mPositionMarkers.add(message);
+        }
+
+        return true;
+    }
+
+    @Override
+    public void prefetchDash(InputStream dashManifest) {
+        // Current formats are the best guess of the tracks the player will choose for the next video
+        Format videoFormat = mPlayer != null ? mPlayer.getVideoFormat() : null;
+        Format audioFormat = mPlayer != null ? mPlayer.getAudioFormat() : null;
+        mMediaSourceFactory.prefetchDashManifest(dashManifest, videoFormat, audioFormat);
+    }
+
+    private void cancelPositionMarkers() {
+        for (PlayerMessage message : mPositionMarkers) {
+            message.cancel();
+        }
+
+        mPositionMarkers.clear();
+    }
+
     private void setQualityInfo(String qualityInfoStr) {
         if (mPlayerView != null && qualityInfoStr != null) {
             mPlayerView.setQualityInfo(qualityInfoStr);
@@ -490,7 +567,10 @@ public class ExoPlayerController implements Player.EventListener, PlayerControll
         }
 
         try {
+            cancelPositionMarkers();
             mPlayer.removeListener(this);
+            mPlayer.removeVideoListener(mFirstFrameListener);
+            mPlayer.removeAnalyticsListener(PlaybackTelemetry.instance());
             mPlayer.stop(true); // Cause input lags due to high cpu load?
             mPlayer.clearVideoSurface();
             mPlayer.release();
@@ -4,6 +4,7 @@ import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.listener.PlayerEventListener;
+import com.liskovsoft.smartyoutubetv2.common.app.models.playback.manager.PlayerEngine.OnPositionMarker;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.FormatItem;
 
 import java.io.InputStream;
@@ -44,4 +45,6 @@ public interface PlayerController {
     float getVolume();
     void resetPlayerState();
     void setOnVideoLoaded(Runnable onVideoLoaded);
+    boolean setPositionMarkers(long[] positionsMs, OnPositionMarker callback);
+    void prefetchDash(InputStream dashManifest);
 }
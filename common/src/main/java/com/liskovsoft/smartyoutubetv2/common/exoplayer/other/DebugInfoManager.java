@@ -31,9 +31,15 @@ import com.liskovsoft.sharedutils.helpers.FileHelpers;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.sharedutils.querystringparser.UrlQueryStringFactory;
 import com.liskovsoft.smartyoutubetv2.common.R;
+import com.liskovsoft.smartyoutubetv2.common.app.models.playback.PlayerEventBus;
+import com.liskovsoft.smartyoutubetv2.common.app.models.playback.ui.ChatReceiverImpl;
 import com.liskovsoft.smartyoutubetv2.common.autoframerate.internal.DisplayHolder.Mode;
 import com.liskovsoft.smartyoutubetv2.common.autoframerate.internal.UhdHelper;
+import com.liskovsoft.smartyoutubetv2.common.exoplayer.DataSourceBenchmark;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.versions.ExoUtils;
+import com.liskovsoft.smartyoutubetv2.common.misc.ContinuationPrefetcher;
+import com.liskovsoft.smartyoutubetv2.common.misc.ImageCacheManager;
+import com.liskovsoft.smartyoutubetv2.common.misc.VideoOpenSession;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs;
 import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
@@ -205,6 +211,13 @@ public final class DebugInfoManager implements Runnable, Player.EventListener {
         appendVersion();
         appendDeviceNameSDKCache();
         appendMemoryInfo();
+        appendImageCacheInfo();
+        appendChatInfo();
+        appendOpenSessionInfo();
+        appendTelemetryInfo();
+        appendEngineInfo();
+        appendEventBusInfo();
+        appendPrefetchInfo();
         appendWebViewInfo();
         appendVideoInfoType();
         appendVideoInfoVersion();
@@ -386,6 +399,48 @@ public final class DebugInfoManager implements Runnable, Player.EventListener {
         appendRow("Allocated Memory (MB)", (int)(allocatedMemory / (1024 * 1024)));
     }
 
+    private void appendImageCacheInfo() {
+        for (Pair<String, String> pair : ImageCacheManager.getStats()) {
+            appendRow(pair.first, pair.second);
+        }
+    }
+
+    private void appendChatInfo() {
+        for (Pair<String, String> pair : ChatReceiverImpl.getStats()) {
+            appendRow(pair.first, pair.second);
+        }
+    }
+
+    private void appendOpenSessionInfo() {
+        for (Pair<String, String> pair : VideoOpenSession.getStats()) {
+            appendRow(pair.first, pair.second);
+        }
+    }
+
+    private void appendTelemetryInfo() {
+        for (Pair<String, String> pair : PlaybackTelemetry.getStats()) {
+            appendRow(pair.first, pair.second);
+        }
+    }
+
+    private void appendEngineInfo() {
+        for (Pair<String, String> pair : DataSourceBenchmark.getStats()) {
+            appendRow(pair.first, pair.second);
+        }
+    }
+
+    private void appendEventBusInfo() {
+        for (Pair<String, String> pair : PlayerEventBus.getStats()) {
+            appendRow(pair.first, pair.second);
+        }
+    }
+
+    private void appendPrefetchInfo() {
+        for (Pair<String, String> pair : ContinuationPrefetcher.getStats()) {
+            appendRow(pair.first, pair.second);
+        }
+    }
+
     private void appendWebViewInfo() {
         appendRow("WebView supported", MediaServiceData.instance().supportsWebView());
     }
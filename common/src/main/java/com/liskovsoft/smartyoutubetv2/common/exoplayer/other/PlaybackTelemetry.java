@@ -0,0 +1,324 @@
+package com.liskovsoft.smartyoutubetv2.common.exoplayer.other;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Pair;
+import android.view.Surface;
+import androidx.annotation.Nullable;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.ExoPlaybackException;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.decoder.DecoderCounters;
+import com.google.android.exoplayer2.source.MediaSourceEventListener.MediaLoadData;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Always on playback quality recorder. One session per opened video, the last sessions are kept.<br/>
+ * Sessions and their event rings are preallocated arrays, so nothing is allocated while recording.<br/>
+ * The text report (device, data source, decoders, rebuffers, dropped frames, quality switches) is built on export only.
+ */
+public final class PlaybackTelemetry implements AnalyticsListener {
+    private static final String TAG = PlaybackTelemetry.class.getSimpleName();
+    private static final String REPORT_FILE = "playback_report.txt";
+    private static final int MAX_SESSIONS = 10;
+    private static final int MAX_EVENTS = 256;
+    private static final int EVENT_REBUFFER = 0;
+    private static final int EVENT_DROPPED_FRAMES = 1;
+    private static final int EVENT_VIDEO_FORMAT = 2;
+    private static final int EVENT_DECODER_INIT = 3;
+    private static final int EVENT_ERROR = 4;
+    private static final String[] EVENT_NAMES = {"rebuffer ms", "dropped frames/ms", "video bitrate/height", "decoder track/init ms", "error type"};
+    private static PlaybackTelemetry sInstance;
+    private final Session[] mSessions = new Session[MAX_SESSIONS];
+    private int mSessionCount;
+    private Session mSession;
+    private boolean mIsReady;
+    private boolean mIsSeeking;
+    private long mRebufferStartMs = C.TIME_UNSET;
+
+    private static final class Session {
+        private final long[] mEventTimeMs = new long[MAX_EVENTS];
+        private final int[] mEventType = new int[MAX_EVENTS];
+        private final long[] mEventValue1 = new long[MAX_EVENTS];
+        private final long[] mEventValue2 = new long[MAX_EVENTS];
+        private int mEventCount;
+        private String mVideoId;
+        private int mDataSource;
+        private long mStartMs;
+        private long mFirstFrameMs;
+        private int mRebufferCount;
+        private long mRebufferMs;
+        private int mDroppedFrames;
+        private int mFormatSwitches;
+        private int mBitrate;
+        private int mHeight;
+        private long mBandwidthEstimate;
+        private int mErrorCount;
+        private String mVideoDecoder;
+        private String mAudioDecoder;
+        private DecoderCounters mVideoCounters;
+
+        private void reset(String videoId, int dataSource, long startMs) {
+            mEventCount = 0;
+            mVideoId = videoId;
+            mDataSource = dataSource;
+            mStartMs = startMs;
+            mFirstFrameMs = C.TIME_UNSET;
+            mRebufferCount = 0;
+            mRebufferMs = 0;
+            mDroppedFrames = 0;
+            mFormatSwitches = 0;
+            mBitrate = Format.NO_VALUE;
+            mHeight = Format.NO_VALUE;
+            mBandwidthEstimate = 0;
+            mErrorCount = 0;
+            mVideoDecoder = null;
+            mAudioDecoder = null;
+            mVideoCounters = null;
+        }
+
+        private void addEvent(long timeMs, int type, long value1, long value2) {
+            // Oldest events are overwritten
+            int index = mEventCount % MAX_EVENTS;
+            mEventTimeMs[index] = timeMs - mStartMs;
+            mEventType[index] = type;
+            mEventValue1[index] = value1;
+            mEventValue2[index] = value2;
+            mEventCount++;
+        }
+    }
+
+    private PlaybackTelemetry() {
+        for (int i = 0; i < MAX_SESSIONS; i++) {
+            mSessions[i] = new Session();
+        }
+    }
+
+    public static PlaybackTelemetry instance() {
+        if (sInstance == null) {
+            sInstance = new PlaybackTelemetry();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Called before the media source is prepared
+     *
+     * @param dataSource one of the PlayerTweaksData.PLAYER_DATA_SOURCE_* constants
+     */
+    public void startSession(String videoId, int dataSource) {
+        mSession = mSessions[mSessionCount % MAX_SESSIONS];
+        // Same clock as the event times
+        mSession.reset(videoId, dataSource, SystemClock.elapsedRealtime());
+        mSessionCount++;
+        mIsReady = false;
+        mIsSeeking = false;
+        mRebufferStartMs = C.TIME_UNSET;
+    }
+
+    @Override
+    public void onPlayerStateChanged(EventTime eventTime, boolean playWhenReady, int playbackState) {
+        if (mSession == null) {
+            return;
+        }
+
+        if (playbackState == Player.STATE_READY) {
+            if (mRebufferStartMs != C.TIME_UNSET) {
+                long durationMs = eventTime.realtimeMs - mRebufferStartMs;
+                mSession.mRebufferCount++;
+                mSession.mRebufferMs += durationMs;
+                mSession.addEvent(eventTime.realtimeMs, EVENT_REBUFFER, durationMs, 0);
+            }
+
+            mIsReady = true;
+            mIsSeeking = false;
+            mRebufferStartMs = C.TIME_UNSET;
+        } else if (playbackState == Player.STATE_BUFFERING) {
+            // Initial loading and seeking aren't rebuffers
+            if (mIsReady && !mIsSeeking && playWhenReady && mRebufferStartMs == C.TIME_UNSET) {
+                mRebufferStartMs = eventTime.realtimeMs;
+            }
+        } else {
+            mRebufferStartMs = C.TIME_UNSET;
+        }
+    }
+
+    @Override
+    public void onSeekStarted(EventTime eventTime) {
+        mIsSeeking = true;
+        mRebufferStartMs = C.TIME_UNSET;
+    }
+
+    @Override
+    public void onRenderedFirstFrame(EventTime eventTime, @Nullable Surface surface) {
+        if (mSession != null && mSession.mFirstFrameMs == C.TIME_UNSET) {
+            mSession.mFirstFrameMs = eventTime.realtimeMs - mSession.mStartMs;
+        }
+    }
+
+    @Override
+    public void onDroppedVideoFrames(EventTime eventTime, int droppedFrames, long elapsedMs) {
+        if (mSession == null) {
+            return;
+        }
+
+        mSession.mDroppedFrames += droppedFrames;
+        mSession.addEvent(eventTime.realtimeMs, EVENT_DROPPED_FRAMES, droppedFrames, elapsedMs);
+    }
+
+    @Override
+    public void onDownstreamFormatChanged(EventTime eventTime, MediaLoadData mediaLoadData) {
+        Format format = mediaLoadData.trackFormat;
+
+        if (mSession == null || format == null || format.height == Format.NO_VALUE ||
+                (mediaLoadData.trackType != C.TRACK_TYPE_VIDEO && mediaLoadData.trackType != C.TRACK_TYPE_DEFAULT)) {
+            return;
+        }
+
+        if (format.bitrate == mSession.mBitrate && format.height == mSession.mHeight) {
+            return;
+        }
+
+        if (mSession.mHeight != Format.NO_VALUE) {
+            mSession.mFormatSwitches++;
+        }
+
+        mSession.mBitrate = format.bitrate;
+        mSession.mHeight = format.height;
+        mSession.addEvent(eventTime.realtimeMs, EVENT_VIDEO_FORMAT, format.bitrate, format.height);
+    }
+
+    @Override
+    public void onDecoderEnabled(EventTime eventTime, int trackType, DecoderCounters decoderCounters) {
+        if (mSession != null && trackType == C.TRACK_TYPE_VIDEO) {
+            mSession.mVideoCounters = decoderCounters;
+        }
+    }
+
+    @Override
+    public void onDecoderInitialized(EventTime eventTime, int trackType, String decoderName, long initializationDurationMs) {
+        if (mSession == null) {
+            return;
+        }
+
+        if (trackType == C.TRACK_TYPE_VIDEO) {
+            mSession.mVideoDecoder = decoderName;
+        } else if (trackType == C.TRACK_TYPE_AUDIO) {
+            mSession.mAudioDecoder = decoderName;
+        }
+
+        mSession.addEvent(eventTime.realtimeMs, EVENT_DECODER_INIT, trackType, initializationDurationMs);
+    }
+
+    @Override
+    public void onBandwidthEstimate(EventTime eventTime, int totalLoadTimeMs, long totalBytesLoaded, long bitrateEstimate) {
+        if (mSession != null) {
+            mSession.mBandwidthEstimate = bitrateEstimate;
+        }
+    }
+
+    @Override
+    public void onPlayerError(EventTime eventTime, ExoPlaybackException error) {
+        if (mSession == null) {
+            return;
+        }
+
+        mSession.mErrorCount++;
+        mSession.addEvent(eventTime.realtimeMs, EVENT_ERROR, error.type, 0);
+    }
+
+    /**
+     * Writes the report of the last sessions into the app's external dir (internal if not available).
+     *
+     * @return report file or null on error
+     */
+    public File exportReport(Context context) {
+        File dir = context.getExternalFilesDir(null);
+        File file = new File(dir != null ? dir : context.getFilesDir(), REPORT_FILE);
+
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(buildReport().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write the report: %s", e.getMessage());
+            return null;
+        }
+
+        return file;
+    }
+
+    public static List<Pair<String, String>> getStats() {
+        List<Pair<String, String>> result = new ArrayList<>();
+
+        if (sInstance == null || sInstance.mSession == null) {
+            return result;
+        }
+
+        Session session = sInstance.mSession;
+        result.add(new Pair<>("Session Rebuffers (count/ms)", String.format("%s/%s", session.mRebufferCount, session.mRebufferMs)));
+        result.add(new Pair<>("Session Dropped Frames", String.valueOf(session.mDroppedFrames)));
+        result.add(new Pair<>("Session Quality Switches", String.valueOf(session.mFormatSwitches)));
+
+        return result;
+    }
+
+    private String buildReport() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("device: %s %s (%s), api %s\n", Build.MANUFACTURER, Build.MODEL, Build.DEVICE, Build.VERSION.SDK_INT));
+
+        int first = Math.max(mSessionCount - MAX_SESSIONS, 0);
+
+        for (int i = first; i < mSessionCount; i++) {
+            appendSession(builder, mSessions[i % MAX_SESSIONS]);
+        }
+
+        return builder.toString();
+    }
+
+    private static void appendSession(StringBuilder builder, Session session) {
+        builder.append(String.format("\nvideo: %s, source: %s\n", session.mVideoId, getDataSourceName(session.mDataSource)));
+        builder.append(String.format("decoders: %s, %s\n", session.mVideoDecoder, session.mAudioDecoder));
+        builder.append(String.format("first frame ms: %s, bandwidth: %s, errors: %s\n",
+                session.mFirstFrameMs != C.TIME_UNSET ? session.mFirstFrameMs : "-", session.mBandwidthEstimate, session.mErrorCount));
+        builder.append(String.format("rebuffers: %s (%s ms), dropped frames: %s, quality switches: %s\n",
+                session.mRebufferCount, session.mRebufferMs, session.mDroppedFrames, session.mFormatSwitches));
+
+        if (session.mVideoCounters != null) {
+            DecoderCounters counters = session.mVideoCounters;
+            builder.append(String.format("rendered/dropped/skipped buffers: %s/%s/%s, max consecutive dropped: %s\n",
+                    counters.renderedOutputBufferCount, counters.droppedBufferCount, counters.skippedOutputBufferCount,
+                    counters.maxConsecutiveDroppedBufferCount));
+        }
+
+        int first = Math.max(session.mEventCount - MAX_EVENTS, 0);
+
+        for (int i = first; i < session.mEventCount; i++) {
+            int index = i % MAX_EVENTS;
+            builder.append(String.format("%8d %s: %s/%s\n", session.mEventTimeMs[index], EVENT_NAMES[session.mEventType[index]],
+                    session.mEventValue1[index], session.mEventValue2[index]));
+        }
+    }
+
+    private static String getDataSourceName(int dataSource) {
+        switch (dataSource) {
+            case PlayerTweaksData.PLAYER_DATA_SOURCE_CRONET:
+                return "cronet";
+            case PlayerTweaksData.PLAYER_DATA_SOURCE_OKHTTP:
+                return "okhttp";
+            default:
+                return "default";
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.liskovsoft.smartyoutubetv2.common.misc;
 
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
-import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
+
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.Observable;
 
 public interface BrowseProcessor {
-    interface OnItemReady {
-        void onItemReady(Video video);
+    interface OnItemsReady {
+        void onItemsReady(List<Video> videos);
     }
-    void process(VideoGroup videoGroup);
-    void dispose();
+    boolean isEnabled();
+    /**
+     * Fetches the data for the batch and applies it (on the main thread).<br/>
+     * Emits the changed videos.
+     * @param videos videoId to the videos with this id (the same video could be in the several rows)
+     */
+    Observable<Video> processObserve(Map<String, List<Video>> videos);
 }
@@ -2,30 +2,192 @@ package com.liskovsoft.smartyoutubetv2.common.misc;
 
 import android.content.Context;
 
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.sharedutils.rx.RxHelper;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
+import com.liskovsoft.smartyoutubetv2.common.misc.BrowseProcessor.OnItemsReady;
+import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
-public class BrowseProcessorManager implements BrowseProcessor {
+import io.reactivex.Observable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Collects the videos of the groups that arrive within a short window (e.g. Home rows) into one batch.<br/>
+ * The processors of the batch run concurrently. Updates are delivered in chunks, not one per video.
+ */
+public class BrowseProcessorManager {
+    private static final String TAG = BrowseProcessorManager.class.getSimpleName();
+    private static final long BATCH_WINDOW_MS = 150;
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final long EMIT_WINDOW_MS = 250;
+    private static final int MAX_EMIT_SIZE = 50;
     private final ArrayList<BrowseProcessor> mProcessors;
+    private final OnItemsReady mOnItemsReady;
+    private final Map<String, List<Video>> mPending = new LinkedHashMap<>();
+    /**
+     * Running batches. Disposed batch isn't processed, so its videos are enqueued again next time.
+     */
+    private final Map<Disposable, Map<String, List<Video>>> mActions = new LinkedHashMap<>();
+    private final Runnable mFlush = this::flush;
+    private int mBatchCount;
+    private int mVideoCount;
+    private int mMaxBatchSize;
+    private long mTotalLatencyMs;
 
-    public BrowseProcessorManager(Context context, OnItemReady onItemReady) {
+    public BrowseProcessorManager(Context context, OnItemsReady onItemsReady) {
+        mOnItemsReady = onItemsReady;
         mProcessors = new ArrayList<>();
-        mProcessors.add(new DeArrowProcessor(context, onItemReady));
-        mProcessors.add(new UnlocalizedTitleProcessor(context, onItemReady));
+        mProcessors.add(new DeArrowProcessor(context));
+        mProcessors.add(new UnlocalizedTitleProcessor(context));
     }
 
-    @Override
     public void process(VideoGroup videoGroup) {
-        for (BrowseProcessor processor : mProcessors) {
-            processor.process(videoGroup);
+        if (videoGroup == null || videoGroup.isEmpty() || !hasEnabledProcessors()) {
+            return;
+        }
+
+        for (Video video : videoGroup.getVideos()) {
+            if (video.deArrowProcessed || video.videoId == null) {
+                continue;
+            }
+            video.deArrowProcessed = true;
+
+            List<Video> videos = mPending.get(video.videoId);
+
+            if (videos == null) {
+                videos = new ArrayList<>(1);
+                mPending.put(video.videoId, videos);
+            }
+
+            videos.add(video);
+        }
+
+        if (mPending.isEmpty()) {
+            return;
+        }
+
+        Utils.removeCallbacks(mFlush);
+
+        if (mPending.size() >= MAX_BATCH_SIZE) {
+            flush();
+        } else {
+            Utils.postDelayed(mFlush, BATCH_WINDOW_MS);
         }
     }
 
-    @Override
     public void dispose() {
+        Utils.removeCallbacks(mFlush);
+        resetProcessed(mPending);
+        mPending.clear();
+
+        // Copy. Disposed action removes itself from the map.
+        for (Map.Entry<Disposable, Map<String, List<Video>>> entry : new ArrayList<>(mActions.entrySet())) {
+            resetProcessed(entry.getValue());
+            RxHelper.disposeActions(entry.getKey());
+        }
+
+        mActions.clear();
+    }
+
+    private void flush() {
+        if (mPending.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Video>> batch = new LinkedHashMap<>(mPending);
+        mPending.clear();
+
+        List<Observable<Video>> observables = new ArrayList<>();
+
+        for (BrowseProcessor processor : mProcessors) {
+            if (processor.isEnabled()) {
+                observables.add(processor.processObserve(batch)
+                        .onErrorResumeNext(error -> {
+                            Log.d(TAG, "%s cannot process the batch: %s", processor.getClass().getSimpleName(), error.getMessage());
+                            return Observable.empty();
+                        }));
+            }
+        }
+
+        if (observables.isEmpty()) {
+            return;
+        }
+
+        long startMs = System.currentTimeMillis();
+        Disposable[] action = new Disposable[1];
+
+        action[0] = Observable.merge(observables)
+                .buffer(EMIT_WINDOW_MS, TimeUnit.MILLISECONDS, MAX_EMIT_SIZE)
+                .filter(videos -> !videos.isEmpty())
+                .observeOn(AndroidSchedulers.mainThread())
+                .doFinally(() -> mActions.remove(action[0]))
+                .subscribe(
+                        this::onItemsReady,
+                        error -> Log.e(TAG, "Batch error: %s", error.getMessage()),
+                        () -> onBatchDone(batch.size(), System.currentTimeMillis() - startMs)
+                );
+
+        if (!action[0].isDisposed()) {
+            mActions.put(action[0], batch);
+        }
+    }
+
+    private static void resetProcessed(Map<String, List<Video>> videos) {
+        for (List<Video> list : videos.values()) {
+            for (Video video : list) {
+                video.deArrowProcessed = false;
+            }
+        }
+    }
+
+    /**
+     * The batch mixes the rows. The view syncs the items against the row of the group id, so one call per group.
+     */
+    private void onItemsReady(List<Video> videos) {
+        Map<Integer, List<Video>> groups = new LinkedHashMap<>();
+
+        for (Video video : videos) {
+            Integer groupId = video.getGroup() != null ? video.getGroup().getId() : null;
+            List<Video> groupVideos = groups.get(groupId);
+
+            if (groupVideos == null) {
+                groupVideos = new ArrayList<>();
+                groups.put(groupId, groupVideos);
+            }
+
+            groupVideos.add(video);
+        }
+
+        for (List<Video> groupVideos : groups.values()) {
+            mOnItemsReady.onItemsReady(groupVideos);
+        }
+    }
+
+    private void onBatchDone(int size, long latencyMs) {
+        mBatchCount++;
+        mVideoCount += size;
+        mMaxBatchSize = Math.max(mMaxBatchSize, size);
+        mTotalLatencyMs += latencyMs;
+
+        Log.d(TAG, "Batch of %s videos processed in %s ms. Batches: %s, avg size: %s, max size: %s, avg latency: %s ms",
+                size, latencyMs, mBatchCount, mVideoCount / mBatchCount, mMaxBatchSize, mTotalLatencyMs / mBatchCount);
+    }
+
+    private boolean hasEnabledProcessors() {
         for (BrowseProcessor processor : mProcessors) {
-            processor.dispose();
+            if (processor.isEnabled()) {
+                return true;
+            }
         }
+
+        return false;
     }
 }
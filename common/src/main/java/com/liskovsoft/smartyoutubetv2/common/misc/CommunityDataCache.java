@@ -0,0 +1,552 @@
+package com.liskovsoft.smartyoutubetv2.common.misc;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+
+import com.liskovsoft.mediaserviceinterfaces.MediaItemService;
+import com.liskovsoft.mediaserviceinterfaces.data.SponsorSegment;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.sharedutils.rx.RxHelper;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
+import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import io.reactivex.Observable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Memory + disk cache of the crowdsourced video data (SponsorBlock segments, DeArrow titles and thumbnails).<br/>
+ * Entries are keyed by videoId and expire after the TTL. Both levels are size bounded.
+ */
+public class CommunityDataCache {
+    private static final String TAG = CommunityDataCache.class.getSimpleName();
+    @SuppressLint("StaticFieldLeak")
+    private static CommunityDataCache sInstance;
+    private static final String CACHE_DIR = "community_data";
+    private static final String SEGMENTS_EXT = ".seg";
+    private static final String DEARROW_EXT = ".dea";
+    private static final String TMP_EXT = ".tmp";
+    private static final int VERSION = 1;
+    private static final long SEGMENTS_TTL_MS = 12 * 60 * 60 * 1_000L;
+    // Most of the videos don't have segments. But they could be added soon.
+    private static final long EMPTY_SEGMENTS_TTL_MS = 30 * 60 * 1_000L;
+    private static final long DEARROW_TTL_MS = 24 * 60 * 60 * 1_000L;
+    private static final int MAX_MEMORY_ENTRIES = 500;
+    private static final int MAX_DISK_ENTRIES = 3_000;
+    private static final int TRIM_CHECK_WRITES = 100;
+    private static final int PREFETCH_SEGMENTS_COUNT = 2;
+    private final File mCacheDir;
+    private final MediaItemService mItemService;
+    private final Map<String, SegmentsEntry> mSegments = createLRUMap(MAX_MEMORY_ENTRIES);
+    private final Map<String, DeArrowItem> mDeArrowItems = createLRUMap(MAX_MEMORY_ENTRIES);
+    private int mWriteCount;
+
+    public static class Segment {
+        private final long mStartMs;
+        private final long mEndMs;
+        private final String mCategory;
+
+        public Segment(long startMs, long endMs, String category) {
+            mStartMs = startMs;
+            mEndMs = endMs;
+            mCategory = category;
+        }
+
+        public static Segment from(SponsorSegment segment) {
+            return new Segment(segment.getStartMs(), segment.getEndMs(), segment.getCategory());
+        }
+
+        public long getStartMs() {
+            return mStartMs;
+        }
+
+        public long getEndMs() {
+            return mEndMs;
+        }
+
+        public String getCategory() {
+            return mCategory;
+        }
+    }
+
+    public static class DeArrowItem {
+        private final String mVideoId;
+        private final String mTitle;
+        private final String mThumbnailUrl;
+        private final long mTimestamp;
+
+        private DeArrowItem(String videoId, String title, String thumbnailUrl, long timestamp) {
+            mVideoId = videoId;
+            mTitle = title;
+            mThumbnailUrl = thumbnailUrl;
+            mTimestamp = timestamp;
+        }
+
+        public String getVideoId() {
+            return mVideoId;
+        }
+
+        public String getTitle() {
+            return mTitle;
+        }
+
+        public String getThumbnailUrl() {
+            return mThumbnailUrl;
+        }
+
+        /**
+         * Video doesn't have DeArrow data. Stored to not request it again.
+         */
+        private boolean isEmpty() {
+            return mTitle == null && mThumbnailUrl == null;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - mTimestamp > DEARROW_TTL_MS;
+        }
+    }
+
+    private static class SegmentsEntry {
+        private final List<Segment> mSegments;
+        private final int mCategoriesHash;
+        private final long mTimestamp;
+
+        private SegmentsEntry(List<Segment> segments, int categoriesHash, long timestamp) {
+            mSegments = segments;
+            mCategoriesHash = categoriesHash;
+            mTimestamp = timestamp;
+        }
+
+        private boolean isExpired() {
+            long ttlMs = mSegments.isEmpty() ? EMPTY_SEGMENTS_TTL_MS : SEGMENTS_TTL_MS;
+            return System.currentTimeMillis() - mTimestamp > ttlMs;
+        }
+    }
+
+    private CommunityDataCache(Context context) {
+        mCacheDir = new File(context.getCacheDir(), CACHE_DIR);
+        mItemService = YouTubeServiceManager.instance().getMediaItemService();
+    }
+
+    public static CommunityDataCache instance(Context context) {
+        if (sInstance == null) {
+            sInstance = new CommunityDataCache(context.getApplicationContext());
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Cached segments or network request.<br/>
+     * NOTE: changing the categories invalidates the entry.
+     */
+    public Observable<List<Segment>> getSegmentsObserve(String videoId, Set<String> categories) {
+        int categoriesHash = categories.hashCode();
+
+        return Observable.<List<Segment>>create(emitter -> {
+                    SegmentsEntry entry = getSegmentsEntry(videoId, categoriesHash);
+
+                    if (entry != null) {
+                        emitter.onNext(entry.mSegments);
+                    }
+
+                    emitter.onComplete();
+                })
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .switchIfEmpty(fetchSegments(videoId, categories, categoriesHash));
+    }
+
+    /**
+     * Emits cached items first, then fetches the rest.
+     */
+    public Observable<DeArrowItem> getDeArrowDataObserve(List<String> videoIds) {
+        return Observable.<List<DeArrowItem>>create(emitter -> {
+                    List<DeArrowItem> result = new ArrayList<>();
+
+                    for (String videoId : videoIds) {
+                        DeArrowItem item = getDeArrowItem(videoId);
+
+                        if (item != null) {
+                            result.add(item);
+                        }
+                    }
+
+                    emitter.onNext(result);
+                    emitter.onComplete();
+                })
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .flatMap(cached -> {
+                    List<String> missing = new ArrayList<>(videoIds);
+
+                    for (DeArrowItem item : cached) {
+                        missing.remove(item.getVideoId());
+                    }
+
+                    Observable<DeArrowItem> result = Observable.fromIterable(cached);
+
+                    if (!missing.isEmpty()) {
+                        result = result.concatWith(fetchDeArrowData(missing));
+                    }
+
+                    return result.filter(item -> !item.isEmpty());
+                });
+    }
+
+    /**
+     * Fetches segments of the first items of the group (probably the next videos to play)
+     */
+    public void prefetchSegments(VideoGroup group, Set<String> categories) {
+        if (group == null || group.isEmpty() || categories.isEmpty()) {
+            return;
+        }
+
+        int count = 0;
+
+        for (Video video : group.getVideos()) {
+            if (count == PREFETCH_SEGMENTS_COUNT) {
+                break;
+            }
+
+            if (video.videoId == null || video.isLive || video.isUpcoming) {
+                continue;
+            }
+
+            RxHelper.execute(getSegmentsObserve(video.videoId, categories));
+            count++;
+        }
+    }
+
+    public void clear() {
+        synchronized (mSegments) {
+            mSegments.clear();
+        }
+
+        synchronized (mDeArrowItems) {
+            mDeArrowItems.clear();
+        }
+
+        RxHelper.runAsync(() -> deleteFiles(mCacheDir.listFiles()));
+    }
+
+    private Observable<List<Segment>> fetchSegments(String videoId, Set<String> categories, int categoriesHash) {
+        return mItemService.getSponsorSegmentsObserve(videoId, categories)
+                .map(segments -> {
+                    List<Segment> result = new ArrayList<>(segments.size());
+
+                    for (SponsorSegment segment : segments) {
+                        result.add(Segment.from(segment));
+                    }
+
+                    putSegmentsEntry(videoId, new SegmentsEntry(result, categoriesHash, System.currentTimeMillis()));
+
+                    return result;
+                })
+                .doOnError(error -> {
+                    // Nothing to block in this video. Don't ask again for a while.
+                    // Other errors (network, timeout, server) aren't cached. The next open will retry.
+                    if (isNotFound(error)) {
+                        putSegmentsEntry(videoId, new SegmentsEntry(Collections.emptyList(), categoriesHash, System.currentTimeMillis()));
+                    }
+                });
+    }
+
+    /**
+     * SponsorBlock responds with 404 when the video has no segments.
+     */
+    private static boolean isNotFound(Throwable error) {
+        if (error instanceof NoSuchElementException) {
+            return true;
+        }
+
+        String message = error.getMessage();
+
+        return message != null && (message.contains("404") || message.toLowerCase().contains("not found"));
+    }
+
+    private Observable<DeArrowItem> fetchDeArrowData(List<String> videoIds) {
+        Set<String> received = new HashSet<>();
+
+        return mItemService.getDeArrowDataObserve(videoIds)
+                .map(data -> {
+                    DeArrowItem item = new DeArrowItem(data.getVideoId(), data.getTitle(), data.getThumbnailUrl(), System.currentTimeMillis());
+                    received.add(item.getVideoId());
+                    putDeArrowItem(item);
+                    return item;
+                })
+                .doOnComplete(() -> {
+                    // Remember the videos without the data
+                    for (String videoId : videoIds) {
+                        if (!received.contains(videoId)) {
+                            putDeArrowItem(new DeArrowItem(videoId, null, null, System.currentTimeMillis()));
+                        }
+                    }
+                });
+    }
+
+    private SegmentsEntry getSegmentsEntry(String videoId, int categoriesHash) {
+        SegmentsEntry entry;
+
+        synchronized (mSegments) {
+            entry = mSegments.get(videoId);
+        }
+
+        if (entry == null) {
+            entry = readSegmentsEntry(videoId);
+
+            if (entry != null) {
+                synchronized (mSegments) {
+                    mSegments.put(videoId, entry);
+                }
+            }
+        }
+
+        return entry != null && entry.mCategoriesHash == categoriesHash && !entry.isExpired() ? entry : null;
+    }
+
+    private void putSegmentsEntry(String videoId, SegmentsEntry entry) {
+        synchronized (mSegments) {
+            mSegments.put(videoId, entry);
+        }
+
+        RxHelper.runAsync(() -> writeSegmentsEntry(videoId, entry));
+    }
+
+    private DeArrowItem getDeArrowItem(String videoId) {
+        DeArrowItem item;
+
+        synchronized (mDeArrowItems) {
+            item = mDeArrowItems.get(videoId);
+        }
+
+        if (item == null) {
+            item = readDeArrowItem(videoId);
+
+            if (item != null) {
+                synchronized (mDeArrowItems) {
+                    mDeArrowItems.put(videoId, item);
+                }
+            }
+        }
+
+        return item != null && !item.isExpired() ? item : null;
+    }
+
+    private void putDeArrowItem(DeArrowItem item) {
+        if (item.getVideoId() == null) {
+            return;
+        }
+
+        synchronized (mDeArrowItems) {
+            mDeArrowItems.put(item.getVideoId(), item);
+        }
+
+        RxHelper.runAsync(() -> writeDeArrowItem(item));
+    }
+
+    private SegmentsEntry readSegmentsEntry(String videoId) {
+        File file = getFile(videoId, SEGMENTS_EXT);
+
+        if (file == null || !file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+
+            long timestamp = in.readLong();
+            int categoriesHash = in.readInt();
+            int size = in.readInt();
+            List<Segment> segments = new ArrayList<>(size);
+
+            for (int i = 0; i < size; i++) {
+                segments.add(new Segment(in.readLong(), in.readLong(), readStr(in)));
+            }
+
+            return new SegmentsEntry(segments, categoriesHash, timestamp);
+        } catch (IOException e) {
+            Log.e(TAG, "Can't read segments: %s", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSegmentsEntry(String videoId, SegmentsEntry entry) {
+        File file = getFile(videoId, SEGMENTS_EXT);
+
+        if (file == null) {
+            return;
+        }
+
+        File tmpFile = getTmpFile(file);
+
+        try (DataOutputStream out = openOutput(tmpFile)) {
+            out.writeInt(VERSION);
+            out.writeLong(entry.mTimestamp);
+            out.writeInt(entry.mCategoriesHash);
+            out.writeInt(entry.mSegments.size());
+
+            for (Segment segment : entry.mSegments) {
+                out.writeLong(segment.getStartMs());
+                out.writeLong(segment.getEndMs());
+                writeStr(out, segment.getCategory());
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write segments: %s", e.getMessage());
+            deleteFiles(new File[] {tmpFile});
+            return;
+        }
+
+        replaceFile(tmpFile, file);
+        trimDiskIfNeeded();
+    }
+
+    private DeArrowItem readDeArrowItem(String videoId) {
+        File file = getFile(videoId, DEARROW_EXT);
+
+        if (file == null || !file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+
+            long timestamp = in.readLong();
+
+            return new DeArrowItem(videoId, readStr(in), readStr(in), timestamp);
+        } catch (IOException e) {
+            Log.e(TAG, "Can't read DeArrow data: %s", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeDeArrowItem(DeArrowItem item) {
+        File file = getFile(item.getVideoId(), DEARROW_EXT);
+
+        if (file == null) {
+            return;
+        }
+
+        File tmpFile = getTmpFile(file);
+
+        try (DataOutputStream out = openOutput(tmpFile)) {
+            out.writeInt(VERSION);
+            out.writeLong(item.mTimestamp);
+            writeStr(out, item.getTitle());
+            writeStr(out, item.getThumbnailUrl());
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write DeArrow data: %s", e.getMessage());
+            deleteFiles(new File[] {tmpFile});
+            return;
+        }
+
+        replaceFile(tmpFile, file);
+        trimDiskIfNeeded();
+    }
+
+    private File getFile(String videoId, String ext) {
+        // Malformed id. Don't leave the cache dir.
+        if (videoId == null || videoId.contains("/") || videoId.contains("..")) {
+            return null;
+        }
+
+        return new File(mCacheDir, videoId + ext);
+    }
+
+    /**
+     * Entry is written to the tmp file first. Killed process doesn't leave the truncated entry.
+     */
+    private static File getTmpFile(File file) {
+        return new File(file.getPath() + TMP_EXT);
+    }
+
+    private static void replaceFile(File tmpFile, File file) {
+        if (!tmpFile.renameTo(file)) {
+            Log.e(TAG, "Can't rename cache file: %s", tmpFile);
+            deleteFiles(new File[] {tmpFile});
+        }
+    }
+
+    private DataOutputStream openOutput(File file) throws IOException {
+        if (!mCacheDir.exists() && !mCacheDir.mkdirs()) {
+            throw new IOException("Can't create cache dir: " + mCacheDir);
+        }
+
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    }
+
+    /**
+     * Removes the oldest files. Checked once per N writes.
+     */
+    private synchronized void trimDiskIfNeeded() {
+        if (++mWriteCount % TRIM_CHECK_WRITES != 0) {
+            return;
+        }
+
+        File[] files = mCacheDir.listFiles();
+
+        if (files == null || files.length <= MAX_DISK_ENTRIES) {
+            return;
+        }
+
+        Arrays.sort(files, (o1, o2) -> Long.compare(o1.lastModified(), o2.lastModified()));
+
+        deleteFiles(Arrays.copyOf(files, files.length - MAX_DISK_ENTRIES * 3 / 4));
+    }
+
+    private static void deleteFiles(File[] files) {
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (!file.delete()) {
+                Log.e(TAG, "Can't delete cache file: %s", file);
+            }
+        }
+    }
+
+    private static void writeStr(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readStr(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static <V> Map<String, V> createLRUMap(int maxSize) {
+        return new LinkedHashMap<String, V>(maxSize + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+}
@@ -0,0 +1,269 @@
+package com.liskovsoft.smartyoutubetv2.common.misc;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Pair;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.BrowseSection;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
+import com.liskovsoft.smartyoutubetv2.common.prefs.GeneralData;
+import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Requests the next page of the group before the user reaches the end.<br/>
+ * The distance depends on the scroll speed and on the load time of the previous pages.
+ * One request per group at a time. The page that arrived early is held till the user comes close to the end
+ * (the adapter isn't touched while the user looks at the other items). Only the pages of the scroll requests are held.<br/>
+ * Counts how often the user focuses the last item before the next page is there.
+ */
+public final class ContinuationPrefetcher {
+    private static final String TAG = ContinuationPrefetcher.class.getSimpleName();
+    /**
+     * The request isn't started by the scroll (or shouldn't be started at all)
+     */
+    public static final int NO_TOKEN = 0;
+    private static final int MAX_GROUPS = 20;
+    private static final int MAX_DISTANCE = 100;
+    private static final long DEFAULT_LOAD_MS = 1_500;
+    /**
+     * Stuck request doesn't block the group forever
+     */
+    private static final long IN_FLIGHT_TIMEOUT_MS = 30_000;
+    /**
+     * Weight of the new sample in the running averages
+     */
+    private static final float SMOOTHING = 0.3f;
+    @SuppressLint("StaticFieldLeak")
+    private static ContinuationPrefetcher sInstance;
+    private final Context mContext;
+    private final Map<VideoGroup, State> mStates = new LinkedHashMap<VideoGroup, State>(MAX_GROUPS + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<VideoGroup, State> eldest) {
+            return size() > MAX_GROUPS;
+        }
+    };
+    private float mLoadMs = DEFAULT_LOAD_MS;
+    private int mLastToken;
+    private int mRequestedCount;
+    private int mHeldCount;
+    private int mEndHitCount;
+
+    private static final class State {
+        private int mIndex = -1;
+        private int mSize;
+        private int mMinDistance;
+        private long mFocusMs;
+        /**
+         * Items per second
+         */
+        private float mVelocity;
+        private long mRequestMs;
+        private int mToken = NO_TOKEN;
+        private Runnable mHeldPage;
+        private int mEndHitSize = -1;
+
+        private boolean isInFlight(long nowMs) {
+            return mRequestMs != 0 && nowMs - mRequestMs < IN_FLIGHT_TIMEOUT_MS;
+        }
+    }
+
+    private ContinuationPrefetcher(Context context) {
+        mContext = context;
+    }
+
+    public static ContinuationPrefetcher instance(Context context) {
+        if (sInstance == null) {
+            sInstance = new ContinuationPrefetcher(context.getApplicationContext());
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Called by the UI on every focused item. Applies the held page when the user comes close to the end.
+     *
+     * @param minDistance the next page is needed when the user is closer to the end (items)
+     * @return the next page should be requested now
+     */
+    public boolean onItemFocused(Video item, int index, int size, int minDistance) {
+        VideoGroup group = item != null ? item.getGroup() : null;
+
+        if (group == null || index == -1) {
+            return index > size - minDistance;
+        }
+
+        long nowMs = SystemClock.uptimeMillis();
+        State state = getState(group);
+        updateVelocity(state, index, nowMs);
+        state.mIndex = index;
+        state.mSize = size;
+        state.mMinDistance = minDistance;
+
+        int distance = size - index;
+
+        if (state.mHeldPage != null) {
+            if (distance < minDistance) {
+                applyHeldPage(state);
+            }
+
+            return false;
+        }
+
+        if (index == size - 1 && state.mEndHitSize != size) {
+            state.mEndHitSize = size;
+            mEndHitCount++;
+            Log.d(TAG, "Last item focused before the next page. Group: %s, size: %s, in flight: %s. Total hits: %s, requests: %s",
+                    group.getTitle(), size, state.isInFlight(nowMs), mEndHitCount, mRequestedCount);
+        }
+
+        return !state.isInFlight(nowMs) && distance < getPrefetchDistance(state);
+    }
+
+    /**
+     * Called by the presenter before the scroll request of the next page. The held page is applied instead of the request.
+     *
+     * @return token of the request or {@link #NO_TOKEN} if the group already has the request in flight or the page is held
+     */
+    public int startContinuation(VideoGroup group) {
+        if (group == null) {
+            return NO_TOKEN;
+        }
+
+        long nowMs = SystemClock.uptimeMillis();
+        State state = getState(group);
+
+        if (state.mHeldPage != null) {
+            applyHeldPage(state);
+            return NO_TOKEN;
+        }
+
+        if (state.isInFlight(nowMs)) {
+            return NO_TOKEN;
+        }
+
+        state.mRequestMs = nowMs;
+        state.mToken = ++mLastToken;
+        mRequestedCount++;
+
+        return state.mToken;
+    }
+
+    /**
+     * The page is applied now or held till the user comes close to the end.<br/>
+     * Pages of the other requests (callbacks, autoplay, restore position) are applied immediately.
+     *
+     * @param token the one from {@link #startContinuation(VideoGroup)} or {@link #NO_TOKEN}
+     */
+    public void onPageLoaded(VideoGroup group, int token, Runnable applyPage) {
+        State state = group != null && token != NO_TOKEN ? mStates.get(group) : null;
+
+        if (state == null || state.mToken != token) {
+            applyPage.run();
+            return;
+        }
+
+        mLoadMs += (SystemClock.uptimeMillis() - state.mRequestMs - mLoadMs) * SMOOTHING;
+        state.mRequestMs = 0;
+        state.mToken = NO_TOKEN;
+
+        if (!isEnabled() || state.mIndex == -1 || state.mSize - state.mIndex < state.mMinDistance) {
+            applyPage.run();
+        } else {
+            state.mHeldPage = applyPage;
+            mHeldCount++;
+        }
+    }
+
+    public void onPageFailed(VideoGroup group, int token) {
+        State state = group != null && token != NO_TOKEN ? mStates.get(group) : null;
+
+        if (state != null && state.mToken == token) {
+            state.mRequestMs = 0;
+            state.mToken = NO_TOKEN;
+        }
+    }
+
+    /**
+     * Forgets the groups of the refreshed (or cleared) section. The held pages aren't applied.<br/>
+     * Null section means the groups without the section (search, suggestions).
+     */
+    public void clear(BrowseSection section) {
+        Iterator<VideoGroup> iterator = mStates.keySet().iterator();
+
+        while (iterator.hasNext()) {
+            BrowseSection groupSection = iterator.next().getSection();
+
+            if (section == null ? groupSection == null : groupSection != null && groupSection.getId() == section.getId()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public static List<Pair<String, String>> getStats() {
+        List<Pair<String, String>> result = new ArrayList<>();
+
+        if (sInstance == null) {
+            return result;
+        }
+
+        result.add(new Pair<>("Page Prefetch Requests/Held/End Hits", String.format("%s/%s/%s (%s)",
+                sInstance.mRequestedCount, sInstance.mHeldCount, sInstance.mEndHitCount, sInstance.isEnabled() ? "on" : "off")));
+        result.add(new Pair<>("Page Load Avg (ms)", String.valueOf((int) sInstance.mLoadMs)));
+
+        return result;
+    }
+
+    /**
+     * Items that the user passes while the page is loading plus the usual distance
+     */
+    private int getPrefetchDistance(State state) {
+        if (!isEnabled()) {
+            return state.mMinDistance;
+        }
+
+        int distance = state.mMinDistance + (int) Math.ceil(state.mVelocity * mLoadMs / 1_000);
+
+        return Math.min(distance, Math.max(MAX_DISTANCE, state.mMinDistance));
+    }
+
+    private static void applyHeldPage(State state) {
+        Runnable page = state.mHeldPage;
+        state.mHeldPage = null;
+        // Don't change the adapter inside the selection callback
+        Utils.postDelayed(page, 0);
+    }
+
+    private static void updateVelocity(State state, int index, long nowMs) {
+        if (state.mIndex == -1 || index < state.mIndex) {
+            state.mVelocity = 0;
+        } else if (index > state.mIndex) {
+            float velocity = (index - state.mIndex) * 1_000f / Math.max(nowMs - state.mFocusMs, 1);
+            state.mVelocity += (velocity - state.mVelocity) * SMOOTHING;
+        }
+
+        state.mFocusMs = nowMs;
+    }
+
+    private State getState(VideoGroup group) {
+        State state = mStates.get(group);
+
+        if (state == null) {
+            state = new State();
+            mStates.put(group, state);
+        }
+
+        return state;
+    }
+
+    private boolean isEnabled() {
+        return GeneralData.instance(mContext).isPagePrefetchEnabled();
+    }
+}
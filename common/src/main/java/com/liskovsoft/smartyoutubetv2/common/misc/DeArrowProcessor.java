@@ -2,34 +2,24 @@ package com.liskovsoft.smartyoutubetv2.common.misc;
 
 import android.content.Context;
 
-import com.liskovsoft.mediaserviceinterfaces.ServiceManager;
-import com.liskovsoft.mediaserviceinterfaces.MediaItemService;
-import com.liskovsoft.sharedutils.mylogger.Log;
-import com.liskovsoft.sharedutils.rx.RxHelper;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
-import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
 import com.liskovsoft.smartyoutubetv2.common.prefs.DeArrowData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.common.DataChangeBase.OnDataChange;
-import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
-import io.reactivex.disposables.Disposable;
+import io.reactivex.Observable;
 
 public class DeArrowProcessor implements OnDataChange, BrowseProcessor {
-    private static final String TAG = DeArrowProcessor.class.getSimpleName();
-    private final OnItemReady mOnItemReady;
-    private final MediaItemService mItemService;
+    private final CommunityDataCache mCache;
     private final DeArrowData mDeArrowData;
     private boolean mIsReplaceTitlesEnabled;
     private boolean mIsReplaceThumbnailsEnabled;
-    private Disposable mResult;
 
-    public DeArrowProcessor(Context context, OnItemReady onItemReady) {
-        mOnItemReady = onItemReady;
-        ServiceManager service = YouTubeServiceManager.instance();
-        mItemService = service.getMediaItemService();
+    public DeArrowProcessor(Context context) {
+        mCache = CommunityDataCache.instance(context);
         mDeArrowData = DeArrowData.instance(context);
         mDeArrowData.setOnChange(this);
         initData();
@@ -46,44 +36,31 @@ public class DeArrowProcessor implements OnDataChange, BrowseProcessor {
     }
 
     @Override
-    public void process(VideoGroup videoGroup) {
-        if ((!mIsReplaceTitlesEnabled && !mIsReplaceThumbnailsEnabled) || videoGroup == null || videoGroup.isEmpty()) {
-            return;
-        }
-
-        List<String> videoIds = getVideoIds(videoGroup);
-        mResult = mItemService.getDeArrowDataObserve(videoIds)
-                .subscribe(deArrowData -> {
-                    Video video = videoGroup.findVideoById(deArrowData.getVideoId());
-                    if (mIsReplaceTitlesEnabled) {
-                        video.deArrowTitle = deArrowData.getTitle();
-                    }
-                    if (mIsReplaceThumbnailsEnabled) {
-                        video.altCardImageUrl = deArrowData.getThumbnailUrl();
-                    }
-                    mOnItemReady.onItemReady(video);
-                },
-                error -> {
-                    Log.d(TAG, "DeArrow cannot process the video");
-                });
+    public boolean isEnabled() {
+        return mIsReplaceTitlesEnabled || mIsReplaceThumbnailsEnabled;
     }
 
     @Override
-    public void dispose() {
-        RxHelper.disposeActions(mResult);
-    }
+    public Observable<Video> processObserve(Map<String, List<Video>> videos) {
+        // One request for the whole batch. The cache emits on the main thread.
+        return mCache.getDeArrowDataObserve(new ArrayList<>(videos.keySet()))
+                .flatMapIterable(deArrowData -> {
+                    List<Video> result = videos.get(deArrowData.getVideoId());
 
-    private List<String> getVideoIds(VideoGroup videoGroup) {
-        List<String> result = new ArrayList<>();
+                    if (result == null) {
+                        return new ArrayList<>();
+                    }
 
-        for (Video video : videoGroup.getVideos()) {
-            if (video.deArrowProcessed) {
-                continue;
-            }
-            video.deArrowProcessed = true;
-            result.add(video.videoId);
-        }
+                    for (Video video : result) {
+                        if (mIsReplaceTitlesEnabled) {
+                            video.deArrowTitle = deArrowData.getTitle();
+                        }
+                        if (mIsReplaceThumbnailsEnabled) {
+                            video.altCardImageUrl = deArrowData.getThumbnailUrl();
+                        }
+                    }
 
-        return result;
+                    return result;
+                });
     }
 }
@@ -0,0 +1,172 @@
+package com.liskovsoft.smartyoutubetv2.common.misc;
+
+import android.content.Context;
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.request.RequestOptions;
+import com.liskovsoft.sharedutils.helpers.Helpers;
+import com.liskovsoft.sharedutils.mylogger.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Glide cache sizes derived from the device RAM and the free storage.<br/>
+ * Storyboard images are stored in the separate disk partition so they don't evict card thumbnails.<br/>
+ * Hit/miss/eviction counters are shown in the player debug overlay.
+ */
+public class ImageCacheManager {
+    private static final String TAG = ImageCacheManager.class.getSimpleName();
+    private static final long MB = 1024 * 1024;
+    private static final long LOW_RAM_BYTES = 1_500_000_000L;
+    private static final long HIGH_RAM_BYTES = 3_000_000_000L;
+    private static final String CARDS_DIR = DiskCache.Factory.DEFAULT_DISK_CACHE_DIR;
+    private static final String STORYBOARDS_DIR = "storyboard_disk_cache";
+    /**
+     * Part of the storyboard url: https://i.ytimg.com/sb/videoId/storyboard3_L2/M0.jpg
+     */
+    private static final String STORYBOARD_URL_MARKER = "/sb/";
+    private static final AtomicLong sMemoryHits = new AtomicLong();
+    private static final AtomicLong sMemoryMisses = new AtomicLong();
+    private static final AtomicLong sMemoryEvictions = new AtomicLong();
+    private static final AtomicLong sDiskHits = new AtomicLong();
+    private static final AtomicLong sDiskMisses = new AtomicLong();
+    private static long sMemoryCacheBytes;
+    private static long sBitmapPoolBytes;
+    private static long sCardsDiskBytes;
+    private static long sStoryboardsDiskBytes;
+    private static boolean sIsLowRam;
+
+    public static void applyOptions(Context context, GlideBuilder builder) {
+        long deviceRam = Helpers.getDeviceRam(context);
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        // NOTE: DeviceRam returns negative value on devices with huge RAM
+        sIsLowRam = deviceRam > 0 && deviceRam < LOW_RAM_BYTES;
+        boolean isHighRam = deviceRam <= 0 || deviceRam >= HIGH_RAM_BYTES;
+
+        if (sIsLowRam) {
+            sMemoryCacheBytes = maxHeap / 10;
+            sBitmapPoolBytes = maxHeap / 20;
+        } else if (isHighRam) {
+            sMemoryCacheBytes = maxHeap / 5;
+            sBitmapPoolBytes = maxHeap / 8;
+        } else {
+            sMemoryCacheBytes = maxHeap / 6;
+            sBitmapPoolBytes = maxHeap / 10;
+        }
+
+        File cacheDir = context.getCacheDir();
+        long usableSpace = cacheDir != null ? cacheDir.getUsableSpace() : 0;
+        sCardsDiskBytes = clamp(usableSpace / 50, 20 * MB, sIsLowRam ? 50 * MB : 150 * MB);
+        sStoryboardsDiskBytes = clamp(usableSpace / 100, 10 * MB, sIsLowRam ? 20 * MB : 50 * MB);
+
+        Log.d(TAG, "Image cache. Memory: %s MB, pool: %s MB, cards disk: %s MB, storyboards disk: %s MB",
+                sMemoryCacheBytes / MB, sBitmapPoolBytes / MB, sCardsDiskBytes / MB, sStoryboardsDiskBytes / MB);
+
+        builder.setMemoryCache(new CountingMemoryCache(sMemoryCacheBytes));
+        builder.setBitmapPool(new LruBitmapPool(sBitmapPoolBytes));
+        builder.setDiskCache(() -> new PartitionedDiskCache(
+                DiskLruCacheWrapper.create(new File(cacheDir, CARDS_DIR), sCardsDiskBytes),
+                DiskLruCacheWrapper.create(new File(cacheDir, STORYBOARDS_DIR), sStoryboardsDiskBytes)
+        ));
+
+        if (sIsLowRam) {
+            // Half of the memory per card. Images with alpha are still decoded as ARGB_8888.
+            builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+        }
+    }
+
+    public static List<Pair<String, String>> getStats() {
+        List<Pair<String, String>> result = new ArrayList<>();
+
+        result.add(new Pair<>("Image Memory/Pool (MB)", String.format("%s/%s%s",
+                sMemoryCacheBytes / MB, sBitmapPoolBytes / MB, sIsLowRam ? " (RGB_565)" : "")));
+        result.add(new Pair<>("Image Memory Hits/Misses/Evictions", String.format("%s/%s/%s",
+                sMemoryHits.get(), sMemoryMisses.get(), sMemoryEvictions.get())));
+        result.add(new Pair<>("Image Disk Cards/Storyboards (MB)", String.format("%s/%s",
+                sCardsDiskBytes / MB, sStoryboardsDiskBytes / MB)));
+        result.add(new Pair<>("Image Disk Hits/Misses", String.format("%s/%s",
+                sDiskHits.get(), sDiskMisses.get())));
+
+        return result;
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(value, max));
+    }
+
+    private static class CountingMemoryCache extends LruResourceCache {
+        public CountingMemoryCache(long size) {
+            super(size);
+        }
+
+        /**
+         * Glide takes the resource out of the memory cache when it's used
+         */
+        @Nullable
+        @Override
+        public synchronized Resource<?> remove(@NonNull Key key) {
+            Resource<?> result = super.remove(key);
+            (result != null ? sMemoryHits : sMemoryMisses).incrementAndGet();
+            return result;
+        }
+
+        @Override
+        protected void onItemEvicted(@NonNull Key key, @Nullable Resource<?> item) {
+            sMemoryEvictions.incrementAndGet();
+            super.onItemEvicted(key, item);
+        }
+    }
+
+    private static class PartitionedDiskCache implements DiskCache {
+        private final DiskCache mCards;
+        private final DiskCache mStoryboards;
+
+        public PartitionedDiskCache(DiskCache cards, DiskCache storyboards) {
+            mCards = cards;
+            mStoryboards = storyboards;
+        }
+
+        @Nullable
+        @Override
+        public File get(Key key) {
+            File result = getPartition(key).get(key);
+            (result != null ? sDiskHits : sDiskMisses).incrementAndGet();
+            return result;
+        }
+
+        @Override
+        public void put(Key key, Writer writer) {
+            getPartition(key).put(key, writer);
+        }
+
+        @Override
+        public void delete(Key key) {
+            getPartition(key).delete(key);
+        }
+
+        @Override
+        public void clear() {
+            mCards.clear();
+            mStoryboards.clear();
+        }
+
+        private DiskCache getPartition(Key key) {
+            // Data and resource keys contain the source url
+            return key.toString().contains(STORYBOARD_URL_MARKER) ? mStoryboards : mCards;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.liskovsoft.smartyoutubetv2.common.misc;
+
+import android.content.Context;
+import com.liskovsoft.mediaserviceinterfaces.data.MediaGroup;
+import com.liskovsoft.sharedutils.helpers.Helpers;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.sharedutils.rx.RxHelper;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.BrowseSection;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shares the feeds loaded by Browse sections with the launcher channels.<br/>
+ * The files are read by leanbackassistant's PlaylistCache. A fresh file means the channels updater
+ * doesn't download the same feed again. Keep the format in sync.<br/>
+ * NOTE: can't use the class directly. ATV module is disabled for some flavors.
+ */
+public class LauncherFeedCache {
+    private static final String TAG = LauncherFeedCache.class.getSimpleName();
+    private static final String PLAYLIST_CACHE_CLASS_NAME = "com.liskovsoft.leanbackassistant.media.PlaylistCache";
+    private static final String CACHE_DIR = "launcher_playlists";
+    private static final String FEED_SUBSCRIPTIONS = "subscriptions";
+    private static final String FEED_HISTORY = "history";
+    /**
+     * The launcher playlist loads the same amount
+     */
+    private static final int MAX_ITEMS = 40;
+    private static Boolean sIsSupported;
+    private static final List<Video> sSubscriptions = new ArrayList<>();
+    private static final List<Video> sHistory = new ArrayList<>();
+
+    /**
+     * @param isFirstPage the group replaces the previous pages
+     */
+    public static void update(Context context, VideoGroup group, boolean isFirstPage) {
+        if (context == null || group == null || group.isEmpty() || group.getSection() == null || !isSupported(context)) {
+            return;
+        }
+
+        BrowseSection section = group.getSection();
+
+        if (section.getId() == MediaGroup.TYPE_SUBSCRIPTIONS) {
+            update(context, FEED_SUBSCRIPTIONS, sSubscriptions, group, isFirstPage);
+        } else if (section.getId() == MediaGroup.TYPE_HISTORY) {
+            update(context, FEED_HISTORY, sHistory, group, isFirstPage);
+        }
+    }
+
+    private static void update(Context context, String feed, List<Video> feedItems, VideoGroup group, boolean isFirstPage) {
+        if (isFirstPage) {
+            feedItems.clear();
+        } else if (feedItems.isEmpty() || feedItems.size() >= MAX_ITEMS) {
+            // The first page is missing or the feed is full already
+            return;
+        }
+
+        for (Video video : group.getVideos()) {
+            if (feedItems.size() >= MAX_ITEMS) {
+                break;
+            }
+
+            if (video.hasVideo() && !feedItems.contains(video)) {
+                feedItems.add(video);
+            }
+        }
+
+        String content;
+
+        try {
+            content = toJson(feedItems).toString();
+        } catch (JSONException e) {
+            Log.e(TAG, "Can't serialize the feed %s: %s", feed, e.getMessage());
+            return;
+        }
+
+        File file = new File(new File(context.getCacheDir(), CACHE_DIR), feed);
+
+        RxHelper.runAsync(() -> save(file, content));
+    }
+
+    private static synchronized void save(File file, String content) {
+        File tmpFile = new File(file.getPath() + ".tmp");
+        file.getParentFile().mkdirs();
+
+        try (OutputStream out = new FileOutputStream(tmpFile)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write the feed %s: %s", file.getName(), e.getMessage());
+            tmpFile.delete();
+            return;
+        }
+
+        if (!tmpFile.renameTo(file)) {
+            tmpFile.delete();
+        }
+    }
+
+    private static JSONObject toJson(List<Video> videos) throws JSONException {
+        JSONArray items = new JSONArray();
+
+        for (Video video : videos) {
+            JSONObject item = new JSONObject();
+            item.put("id", String.valueOf(video.id));
+            item.put("title", video.getTitle());
+            item.put("description", Helpers.toString(video.getSecondTitle()));
+            item.put("durationMs", video.getDurationMs());
+            item.put("bgImageUrl", video.bgImageUrl);
+            item.put("cardImageUrl", video.cardImageUrl);
+            item.put("videoUrl", video.videoUrl);
+            item.put("isLive", video.isLive);
+            items.put(item);
+        }
+
+        return new JSONObject().put("items", items);
+    }
+
+    private static boolean isSupported(Context context) {
+        if (sIsSupported == null) {
+            boolean hasModule;
+
+            try {
+                Class.forName(PLAYLIST_CACHE_CLASS_NAME);
+                hasModule = true;
+            } catch (ClassNotFoundException e) {
+                hasModule = false;
+            }
+
+            sIsSupported = hasModule && (Helpers.isATVChannelsSupported(context) || Helpers.isATVRecommendationsSupported(context));
+        }
+
+        return sIsSupported;
+    }
+}
@@ -27,6 +27,7 @@ import com.liskovsoft.smartyoutubetv2.common.prefs.AccountsData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs;
 import com.liskovsoft.smartyoutubetv2.common.prefs.MainUIData;
 import com.liskovsoft.smartyoutubetv2.common.utils.LoadingManager;
+import com.liskovsoft.smartyoutubetv2.common.utils.StartupTrace;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
 
@@ -105,7 +106,9 @@ public class MediaServiceManager implements OnAccountChange {
 
     public static MediaServiceManager instance() {
         if (sInstance == null) {
+            long beginMs = StartupTrace.begin();
             sInstance = new MediaServiceManager();
+            StartupTrace.end("MediaServiceManager", beginMs);
         }
 
         return sInstance;
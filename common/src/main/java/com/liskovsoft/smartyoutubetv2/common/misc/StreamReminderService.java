@@ -16,6 +16,7 @@ import com.liskovsoft.smartyoutubetv2.common.misc.TickleManager.TickleListener;
 import com.liskovsoft.smartyoutubetv2.common.prefs.GeneralData;
 import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
 import io.reactivex.Observable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 
 import java.util.ArrayList;
@@ -64,10 +65,10 @@ public class StreamReminderService implements TickleListener {
 
     public void start() {
         if (mGeneralData.getPendingStreams().isEmpty()) {
-            TickleManager.instance().removeListener(this);
+            TickleManager.instance(mContext).removeListener(this);
             sInstance = null;
         } else {
-            TickleManager.instance().addListener(this);
+            TickleManager.instance(mContext).addListener(this, TickleManager.SCHEDULE_REMINDER);
         }
     }
 
@@ -83,6 +84,7 @@ public class StreamReminderService implements TickleListener {
         List<Observable<MediaItemFormatInfo>> observables = toObservables();
 
         mReminderAction = Observable.mergeDelayError(observables)
+                .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
                         this::processMetadata,
                         error -> Log.e(TAG, "loadMetadata error: %s", error.getMessage())
@@ -1,21 +1,99 @@
 package com.liskovsoft.smartyoutubetv2.common.misc;
 
+import android.annotation.SuppressLint;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.sharedutils.rx.RxHelper;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
-import com.liskovsoft.sharedutils.misc.WeakHashSet;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Calls the listeners periodically. Every listener has its own period and deadline (max delay of the call).<br/>
+ * Calls with overlapping windows share one wake up. Main thread calls of the same wake up are spread between the frames.<br/>
+ * Nothing runs while the screen is off or the paused player is in background (except the always on schedules).
+ */
 public class TickleManager {
     private static final String TAG = TickleManager.class.getSimpleName();
+    private static final long MINUTE_MS = 60_000;
+    /**
+     * Longer than a frame
+     */
+    private static final long STAGGER_MS = 20;
+    /**
+     * Clock widgets. At the start of every clock minute.
+     */
+    public static final Schedule SCHEDULE_CLOCK = new Schedule(MINUTE_MS, 0, true, false, false);
+    /**
+     * Player housekeeping (sleep timer, history, live description). Usually shares the wake up with the clock.
+     */
+    public static final Schedule SCHEDULE_PLAYER = new Schedule(MINUTE_MS, 30_000, false, false, false);
+    /**
+     * Polling of the stream reminders. Main thread: the service state is shared with the UI (the requests are async anyway).<br/>
+     * Not suspended: the reminder turns the screen on.
+     */
+    public static final Schedule SCHEDULE_REMINDER = new Schedule(MINUTE_MS, 30_000, false, false, true);
+    @SuppressLint("StaticFieldLeak")
     private static TickleManager sInstance;
     private final Runnable mUpdateHandler = this::updateTickle;
     // Usually listener is a view. So use weak refs to not hold it forever.
-    private final WeakHashSet<TickleListener> mListeners = new WeakHashSet<>();
+    private final List<Entry> mEntries = new ArrayList<>();
+    private final BroadcastReceiver mScreenReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            setScreenOff(Intent.ACTION_SCREEN_OFF.equals(intent.getAction()));
+        }
+    };
+    private Context mContext;
+    private boolean mIsReceiverRegistered;
     private boolean mIsEnabled = true;
+    private boolean mIsScreenOff;
+    private long mUpdateMs;
 
     public interface TickleListener {
         void onTickle();
     }
 
+    public static final class Schedule {
+        private final long mPeriodMs;
+        private final long mDeadlineMs;
+        private final boolean mIsClockAligned;
+        private final boolean mIsBackground;
+        private final boolean mIsAlwaysOn;
+
+        /**
+         * @param periodMs interval between the calls
+         * @param deadlineMs how late the call could be (to share the wake up with other listeners)
+         * @param isClockAligned calls at the start of the period by the wall clock (e.g. minutes of the clock)
+         * @param isBackground calls on a worker thread
+         * @param isAlwaysOn calls even when the screen is off
+         */
+        public Schedule(long periodMs, long deadlineMs, boolean isClockAligned, boolean isBackground, boolean isAlwaysOn) {
+            mPeriodMs = periodMs;
+            mDeadlineMs = deadlineMs;
+            mIsClockAligned = isClockAligned;
+            mIsBackground = isBackground;
+            mIsAlwaysOn = isAlwaysOn;
+        }
+    }
+
+    private static final class Entry {
+        private final WeakReference<TickleListener> mListener;
+        private final Schedule mSchedule;
+        private long mDueMs;
+
+        private Entry(TickleListener listener, Schedule schedule) {
+            mListener = new WeakReference<>(listener);
+            mSchedule = schedule;
+        }
+    }
+
     private TickleManager() {
     }
 
@@ -27,32 +105,79 @@ public class TickleManager {
         return sInstance;
     }
 
+    /**
+     * The context is used to track the screen state.
+     */
+    public static TickleManager instance(Context context) {
+        TickleManager instance = instance();
+
+        if (instance.mContext == null && context != null) {
+            instance.mContext = context.getApplicationContext();
+        }
+
+        return instance;
+    }
+
+    /**
+     * Calls at the start of every clock minute.
+     */
     public void addListener(TickleListener listener) {
-        if (mListeners.add(listener)) {
-            if (mListeners.size() == 1) { // periodic callback not started yet
-                updateTickle();
-            } else if (isEnabled()) {
-                listener.onTickle(); // first run
+        addListener(listener, SCHEDULE_CLOCK);
+    }
+
+    public void addListener(TickleListener listener, Schedule schedule) {
+        if (listener == null || schedule == null) {
+            return;
+        }
+
+        synchronized (mEntries) {
+            if (findEntry(listener) != null) {
+                return;
             }
+
+            Entry entry = new Entry(listener, schedule);
+            entry.mDueMs = getNextDueMs(schedule, System.currentTimeMillis());
+            mEntries.add(entry);
+            scheduleUpdate();
+        }
+
+        if (isActive(schedule)) {
+            call(listener, schedule); // first run
         }
     }
 
     public void removeListener(TickleListener listener) {
-        mListeners.remove(listener);
+        synchronized (mEntries) {
+            Entry entry = findEntry(listener);
+
+            if (entry != null) {
+                mEntries.remove(entry);
+                scheduleUpdate();
+            }
+        }
     }
 
     public void setEnabled(boolean enabled) {
-        mIsEnabled = enabled;
-        updateTickle();
+        synchronized (mEntries) {
+            if (mIsEnabled == enabled) {
+                return;
+            }
+
+            Log.d(TAG, "Tickle enabled: %s", enabled);
+            mIsEnabled = enabled;
+            scheduleUpdate();
+        }
     }
 
     public boolean isEnabled() {
-        return mIsEnabled;
+        return mIsEnabled && !mIsScreenOff;
     }
 
     public void clear() {
-        mListeners.clear();
-        updateTickle();
+        synchronized (mEntries) {
+            mEntries.clear();
+            scheduleUpdate();
+        }
     }
 
     public void runTask(Runnable task, long delayMs) {
@@ -60,17 +185,149 @@ public class TickleManager {
         Utils.postDelayed(task, delayMs);
     }
 
+    private void setScreenOff(boolean screenOff) {
+        synchronized (mEntries) {
+            if (mIsScreenOff == screenOff) {
+                return;
+            }
+
+            Log.d(TAG, "Screen off: %s", screenOff);
+            mIsScreenOff = screenOff;
+            scheduleUpdate();
+        }
+    }
+
     private void updateTickle() {
-        Utils.removeCallbacks(mUpdateHandler);
+        long nowMs = System.currentTimeMillis();
+        List<Entry> dueEntries = new ArrayList<>();
+
+        synchronized (mEntries) {
+            mUpdateMs = 0;
+
+            Iterator<Entry> iterator = mEntries.iterator();
+
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+
+                if (entry.mListener.get() == null) {
+                    iterator.remove();
+                } else if (isActive(entry.mSchedule) && entry.mDueMs <= nowMs) {
+                    dueEntries.add(entry);
+                    // Count the period from the actual call. The entry that runs on its own deadline drifts
+                    // towards the other wake-ups and stays on the shared one once it's caught. Skip the missed calls.
+                    entry.mDueMs = entry.mSchedule.mIsClockAligned ? getNextDueMs(entry.mSchedule, nowMs) :
+                            nowMs + entry.mSchedule.mPeriodMs;
+                }
+            }
+
+            scheduleUpdate();
+        }
 
-        if (isEnabled() && !mListeners.isEmpty()) {
-            mListeners.forEach(TickleListener::onTickle);
+        long delayMs = 0;
 
-            // Align tickle by clock minutes
-            long timeMillis = System.currentTimeMillis();
-            long delayMs = 60_000 - timeMillis % 60_000;
+        for (Entry entry : dueEntries) {
+            TickleListener listener = entry.mListener.get();
+
+            if (listener == null) {
+                continue;
+            }
+
+            if (entry.mSchedule.mIsBackground || delayMs == 0) {
+                call(listener, entry.mSchedule);
+            } else {
+                // The listener could be removed in the meantime
+                Utils.postDelayed(() -> {
+                    if (isRegistered(entry)) {
+                        listener.onTickle();
+                    }
+                }, delayMs);
+            }
+
+            if (!entry.mSchedule.mIsBackground) {
+                delayMs += STAGGER_MS;
+            }
+        }
+    }
+
+    /**
+     * Single wake up at the earliest deadline. Other due listeners are called with it.
+     */
+    private void scheduleUpdate() {
+        updateScreenReceiver();
+
+        long updateMs = Long.MAX_VALUE;
+
+        for (Entry entry : mEntries) {
+            if (isActive(entry.mSchedule)) {
+                updateMs = Math.min(updateMs, entry.mDueMs + entry.mSchedule.mDeadlineMs);
+            }
+        }
+
+        if (updateMs == Long.MAX_VALUE) {
+            updateMs = 0;
+        }
+
+        if (updateMs == mUpdateMs) {
+            return;
+        }
+
+        Utils.removeCallbacks(mUpdateHandler);
+        mUpdateMs = updateMs;
+
+        if (updateMs != 0) {
+            long delayMs = Math.max(updateMs - System.currentTimeMillis(), 0);
             Log.d(TAG, "Updating tickle in %s ms...", delayMs);
             Utils.postDelayed(mUpdateHandler, delayMs);
         }
     }
+
+    private void updateScreenReceiver() {
+        if (mContext == null || mIsReceiverRegistered == !mEntries.isEmpty()) {
+            return;
+        }
+
+        mIsReceiverRegistered = !mIsReceiverRegistered;
+
+        if (mIsReceiverRegistered) {
+            IntentFilter filter = new IntentFilter(Intent.ACTION_SCREEN_OFF);
+            filter.addAction(Intent.ACTION_SCREEN_ON);
+            mContext.registerReceiver(mScreenReceiver, filter);
+            mIsScreenOff = Utils.isHardScreenOff(mContext);
+        } else {
+            mContext.unregisterReceiver(mScreenReceiver);
+            mIsScreenOff = false;
+        }
+    }
+
+    private boolean isActive(Schedule schedule) {
+        return schedule.mIsAlwaysOn || isEnabled();
+    }
+
+    private boolean isRegistered(Entry entry) {
+        synchronized (mEntries) {
+            return mEntries.contains(entry);
+        }
+    }
+
+    private Entry findEntry(TickleListener listener) {
+        for (Entry entry : mEntries) {
+            if (entry.mListener.get() == listener) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    private static void call(TickleListener listener, Schedule schedule) {
+        if (schedule.mIsBackground) {
+            RxHelper.runAsync(listener::onTickle);
+        } else {
+            listener.onTickle();
+        }
+    }
+
+    private static long getNextDueMs(Schedule schedule, long nowMs) {
+        return schedule.mIsClockAligned ? nowMs - nowMs % schedule.mPeriodMs + schedule.mPeriodMs : nowMs + schedule.mPeriodMs;
+    }
 }
@@ -6,30 +6,28 @@ import android.util.Pair;
 import com.liskovsoft.mediaserviceinterfaces.MediaItemService;
 import com.liskovsoft.mediaserviceinterfaces.ServiceManager;
 import com.liskovsoft.sharedutils.helpers.Helpers;
-import com.liskovsoft.sharedutils.mylogger.Log;
-import com.liskovsoft.sharedutils.rx.RxHelper;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
-import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
 import com.liskovsoft.smartyoutubetv2.common.prefs.MainUIData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.common.DataChangeBase.OnDataChange;
 import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import io.reactivex.Observable;
-import io.reactivex.disposables.Disposable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
 
 public class UnlocalizedTitleProcessor implements OnDataChange, BrowseProcessor {
-    private static final String TAG = UnlocalizedTitleProcessor.class.getSimpleName();
-    private final OnItemReady mOnItemReady;
+    /**
+     * One request per video. Don't flood the network when the whole Home arrives.
+     */
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
     private final MediaItemService mItemService;
     private final MainUIData mMainUIData;
     private boolean mIsUnlocalizedTitlesEnabled;
-    private Disposable mResult;
 
-    public UnlocalizedTitleProcessor(Context context, OnItemReady onItemReady) {
-        mOnItemReady = onItemReady;
+    public UnlocalizedTitleProcessor(Context context) {
         ServiceManager service = YouTubeServiceManager.instance();
         mItemService = service.getMediaItemService();
         mMainUIData = MainUIData.instance(context);
@@ -47,44 +45,35 @@ public class UnlocalizedTitleProcessor implements OnDataChange, BrowseProcessor
     }
 
     @Override
-    public void process(VideoGroup videoGroup) {
-        if (!mIsUnlocalizedTitlesEnabled || videoGroup == null || videoGroup.isEmpty()) {
-            return;
-        }
-
-        List<String> videoIds = getVideoIds(videoGroup);
-        mResult = Observable.fromIterable(videoIds)
-                .flatMap(videoId -> mItemService.getUnlocalizedTitleObserve(videoId)
-                        .map(newTitle -> new Pair<>(videoId, newTitle)))
-                .subscribe(title -> {
-                    Video video = videoGroup.findVideoById(title.first);
-                    if (video == null || Helpers.equals(video.title, title.second)) {
-                        return;
-                    }
-                    video.deArrowTitle = title.second;
-                    mOnItemReady.onItemReady(video);
-                },
-                error -> {
-                    Log.d(TAG, "Unlocalized title: Cannot process the video");
-                });
+    public boolean isEnabled() {
+        return mIsUnlocalizedTitlesEnabled;
     }
 
     @Override
-    public void dispose() {
-        RxHelper.disposeActions(mResult);
-    }
+    public Observable<Video> processObserve(Map<String, List<Video>> videos) {
+        return Observable.fromIterable(new ArrayList<>(videos.keySet()))
+                .flatMap(videoId -> mItemService.getUnlocalizedTitleObserve(videoId)
+                        .map(newTitle -> new Pair<>(videoId, newTitle))
+                        // Skip the failed video. Keep the rest of the batch.
+                        .onErrorResumeNext(Observable.empty()), MAX_CONCURRENT_REQUESTS)
+                .observeOn(AndroidSchedulers.mainThread())
+                .flatMapIterable(title -> {
+                    List<Video> result = new ArrayList<>();
+                    List<Video> items = videos.get(title.first);
 
-    private List<String> getVideoIds(VideoGroup videoGroup) {
-        List<String> result = new ArrayList<>();
+                    if (items == null) {
+                        return result;
+                    }
 
-        for (Video video : videoGroup.getVideos()) {
-            if (video.deArrowProcessed) {
-                continue;
-            }
-            video.deArrowProcessed = true;
-            result.add(video.videoId);
-        }
+                    for (Video video : items) {
+                        if (Helpers.equals(video.title, title.second)) {
+                            continue;
+                        }
+                        video.deArrowTitle = title.second;
+                        result.add(video);
+                    }
 
-        return result;
+                    return result;
+                });
     }
 }
@@ -0,0 +1,218 @@
+package com.liskovsoft.smartyoutubetv2.common.misc;
+
+import android.os.SystemClock;
+import android.util.Pair;
+import com.liskovsoft.mediaserviceinterfaces.MediaItemService;
+import com.liskovsoft.mediaserviceinterfaces.data.MediaItemFormatInfo;
+import com.liskovsoft.mediaserviceinterfaces.data.MediaItemMetadata;
+import com.liskovsoft.mediaserviceinterfaces.data.MediaItemStoryboard;
+import com.liskovsoft.sharedutils.helpers.Helpers;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.sharedutils.rx.RxHelper;
+import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
+import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Network requests of the opened video. Started when the video is opened and cancelled together on the next one.<br/>
+ * Format info goes first. Metadata (suggestions) starts when the format info is received. Storyboard after the first frame.<br/>
+ * Controllers take the prefetched results instead of repeating the requests. Every result is taken once.
+ * Next calls (reload, live updates) do the fresh requests.
+ */
+public class VideoOpenSession {
+    private static final String TAG = VideoOpenSession.class.getSimpleName();
+    private static final long UNSET = -1;
+    private static VideoOpenSession sInstance;
+    private final MediaItemService mItemService;
+    private final List<Disposable> mActions = new ArrayList<>();
+    private Video mVideo;
+    private Observable<MediaItemFormatInfo> mFormatInfo;
+    private Observable<MediaItemMetadata> mMetadata;
+    private Observable<MediaItemStoryboard> mStoryboard;
+    private boolean mStoryboardTaken;
+    private boolean mIsEmbed;
+    private long mStartMs = UNSET;
+    private long mFormatMs = UNSET;
+    private long mFirstFrameMs = UNSET;
+    private long mSuggestionsMs = UNSET;
+    private long mFirstFrameTotalMs;
+    private int mFirstFrameCount;
+
+    private VideoOpenSession() {
+        mItemService = YouTubeServiceManager.instance().getMediaItemService();
+    }
+
+    public static VideoOpenSession instance() {
+        if (sInstance == null) {
+            sInstance = new VideoOpenSession();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Cancels the requests of the previous video<br/>
+     * Embed player (card preview) doesn't show suggestions. So metadata isn't prefetched.
+     */
+    public void start(Video video, boolean isEmbed) {
+        cancel();
+
+        if (video == null || video.videoId == null) {
+            return;
+        }
+
+        mVideo = video;
+        mStartMs = SystemClock.uptimeMillis();
+        mFormatMs = UNSET;
+        mFirstFrameMs = UNSET;
+        mSuggestionsMs = UNSET;
+        mStoryboardTaken = false;
+        mIsEmbed = isEmbed;
+
+        mFormatInfo = share(mItemService.getFormatInfoObserve(video.videoId));
+        mActions.add(mFormatInfo.subscribe(
+                formatInfo -> prefetchMetadata(),
+                error -> Log.e(TAG, "Prefetch format info error: %s", error.getMessage())
+        ));
+    }
+
+    public void cancel() {
+        RxHelper.disposeActions(mActions);
+        mActions.clear();
+        mFormatInfo = null;
+        mMetadata = null;
+        mStoryboard = null;
+    }
+
+    public Observable<MediaItemFormatInfo> takeFormatInfo(Video video) {
+        Observable<MediaItemFormatInfo> result = isCurrent(video) ? mFormatInfo : null;
+        mFormatInfo = null;
+
+        if (result == null) {
+            result = mItemService.getFormatInfoObserve(video.videoId);
+        }
+
+        return isCurrent(video) ? result.doOnNext(formatInfo -> onFormatInfo()) : result;
+    }
+
+    public Observable<MediaItemMetadata> takeMetadata(Video video) {
+        Observable<MediaItemMetadata> result = isCurrent(video) ? mMetadata : null;
+        mMetadata = null;
+
+        if (result == null) {
+            result = getMetadataObserve(video);
+        }
+
+        return isCurrent(video) ? result.doOnNext(metadata -> onSuggestions()) : result;
+    }
+
+    public Observable<MediaItemStoryboard> takeStoryboard(Video video) {
+        Observable<MediaItemStoryboard> result = isCurrent(video) ? mStoryboard : null;
+        mStoryboard = null;
+
+        if (isCurrent(video)) {
+            // The caller does its own request. Don't repeat it after the first frame.
+            mStoryboardTaken = true;
+        }
+
+        return result != null ? result : getStoryboardObserve(video);
+    }
+
+    /**
+     * The first frame of the video is rendered
+     */
+    public void onFirstFrame() {
+        if (mVideo == null || mFirstFrameMs != UNSET) {
+            return;
+        }
+
+        mFirstFrameMs = SystemClock.uptimeMillis() - mStartMs;
+        mFirstFrameTotalMs += mFirstFrameMs;
+        mFirstFrameCount++;
+        Log.d(TAG, "Time to first frame: %s ms, video: %s", mFirstFrameMs, mVideo.videoId);
+
+        prefetchStoryboard();
+    }
+
+    public static List<Pair<String, String>> getStats() {
+        List<Pair<String, String>> result = new ArrayList<>();
+
+        if (sInstance == null) {
+            return result;
+        }
+
+        result.add(new Pair<>("Open Format/First Frame/Suggestions (ms)", String.format("%s/%s/%s",
+                toString(sInstance.mFormatMs), toString(sInstance.mFirstFrameMs), toString(sInstance.mSuggestionsMs))));
+        result.add(new Pair<>("Open Avg First Frame (ms)", String.format("%s (%s videos)",
+                sInstance.mFirstFrameCount > 0 ? sInstance.mFirstFrameTotalMs / sInstance.mFirstFrameCount : "-", sInstance.mFirstFrameCount)));
+
+        return result;
+    }
+
+    private void onFormatInfo() {
+        if (mFormatMs == UNSET) {
+            mFormatMs = SystemClock.uptimeMillis() - mStartMs;
+        }
+    }
+
+    private void onSuggestions() {
+        if (mSuggestionsMs == UNSET) {
+            mSuggestionsMs = SystemClock.uptimeMillis() - mStartMs;
+        }
+    }
+
+    private void prefetchMetadata() {
+        if (mVideo == null || mMetadata != null || mIsEmbed) {
+            return;
+        }
+
+        mMetadata = share(getMetadataObserve(mVideo));
+        mActions.add(mMetadata.subscribe(
+                metadata -> {},
+                error -> Log.e(TAG, "Prefetch metadata error: %s", error.getMessage())
+        ));
+    }
+
+    private void prefetchStoryboard() {
+        if (mVideo == null || mStoryboard != null || mStoryboardTaken || mVideo.isUpcoming) {
+            return;
+        }
+
+        mStoryboard = share(getStoryboardObserve(mVideo));
+        mActions.add(mStoryboard.subscribe(
+                storyboard -> {},
+                error -> Log.e(TAG, "Prefetch storyboard error: %s", error.getMessage())
+        ));
+    }
+
+    private Observable<MediaItemMetadata> getMetadataObserve(Video video) {
+        // NOTE: Load suggestions from mediaItem isn't robust. Because playlistId may be initialized from RemoteControlManager.
+        // Video might be loaded from Channels section (has playlistParams)
+        return mItemService.getMetadataObserve(video.videoId, video.getPlaylistId(), video.playlistIndex, video.playlistParams);
+    }
+
+    private Observable<MediaItemStoryboard> getStoryboardObserve(Video video) {
+        return video.mediaItem != null ? mItemService.getStoryboardObserve(video.mediaItem) : mItemService.getStoryboardObserve(video.videoId);
+    }
+
+    /**
+     * Single request for all subscribers. Cancelled with the session.
+     */
+    private <T> Observable<T> share(Observable<T> observable) {
+        return observable
+                .replay(1)
+                .autoConnect(1, mActions::add);
+    }
+
+    private boolean isCurrent(Video video) {
+        return mVideo != null && video != null && Helpers.equals(mVideo.videoId, video.videoId);
+    }
+
+    private static String toString(long timeMs) {
+        return timeMs != UNSET ? String.valueOf(timeMs) : "-";
+    }
+}
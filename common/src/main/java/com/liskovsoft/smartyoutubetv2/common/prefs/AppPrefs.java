@@ -4,12 +4,14 @@ import android.annotation.SuppressLint;
 import android.content.Context;
 import android.text.TextUtils;
 import com.liskovsoft.mediaserviceinterfaces.data.Account;
+import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.sharedutils.misc.WeakHashSet;
 import com.liskovsoft.sharedutils.prefs.SharedPreferencesBase;
 import com.liskovsoft.smartyoutubetv2.common.R;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.service.SidebarService;
 import com.liskovsoft.smartyoutubetv2.common.misc.MediaServiceManager;
 import com.liskovsoft.smartyoutubetv2.common.misc.MediaServiceManager.AccountChangeListener;
+import com.liskovsoft.smartyoutubetv2.common.utils.StartupTrace;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -17,7 +19,7 @@ import java.util.Map;
 public class AppPrefs extends SharedPreferencesBase implements AccountChangeListener {
     private static final String TAG = AppPrefs.class.getSimpleName();
     @SuppressLint("StaticFieldLeak")
-    private static AppPrefs sInstance;
+    private static volatile AppPrefs sInstance;
     private static final String ANONYMOUS_PROFILE_NAME = "anonymous";
     private static final String MULTI_PROFILES = "multi_profiles";
     private static final String STATE_UPDATER_DATA = "state_updater_data";
@@ -27,6 +29,8 @@ public class AppPrefs extends SharedPreferencesBase implements AccountChangeList
     private static final String WEB_PROXY_URI = "web_proxy_uri";
     private static final String WEB_PROXY_ENABLED = "web_proxy_enabled";
     private static final String LAST_PROFILE_NAME = "last_profile_name";
+    private static final String BANDWIDTH_ESTIMATE_KBPS = "bandwidth_estimate_kbps";
+    private static final String DATA_SOURCE_STATS = "data_source_stats";
     private String mBootResolution;
     private final Map<String, Integer> mDataHashes = new HashMap<>();
     private final WeakHashSet<ProfileChangeListener> mListeners = new WeakHashSet<>();
@@ -53,7 +57,14 @@ public class AppPrefs extends SharedPreferencesBase implements AccountChangeList
 
     public static AppPrefs instance(Context context) {
         if (sInstance == null) {
-            sInstance = new AppPrefs(context.getApplicationContext());
+            // Could be created by the background initializer
+            synchronized (AppPrefs.class) {
+                if (sInstance == null) {
+                    long beginMs = StartupTrace.begin();
+                    sInstance = new AppPrefs(context.getApplicationContext());
+                    StartupTrace.end("AppPrefs", beginMs);
+                }
+            }
         }
 
         return sInstance;
@@ -81,6 +92,17 @@ public class AppPrefs extends SharedPreferencesBase implements AccountChangeList
         return mBootResolution;
     }
 
+    /**
+     * Name of the binary history file of the current profile
+     */
+    public String getStateUpdaterName() {
+        // Always use multiple profiles for the history
+        return getProfileKey(STATE_UPDATER_DATA, true);
+    }
+
+    /**
+     * Legacy history storage. Used for migration only.
+     */
     public String getStateUpdaterData() {
         // Always use multiple profiles for the history
         return getData(getProfileKey(STATE_UPDATER_DATA, true));
@@ -151,6 +173,28 @@ public class AppPrefs extends SharedPreferencesBase implements AccountChangeList
         putBoolean(WEB_PROXY_ENABLED, enabled);
     }
 
+    /**
+     * Last known player bandwidth estimate (bits per second)
+     */
+    public long getBandwidthEstimate() {
+        return Helpers.parseInt(getString(BANDWIDTH_ESTIMATE_KBPS, "0")) * 1_000L;
+    }
+
+    public void setBandwidthEstimate(long bitrateEstimate) {
+        putString(BANDWIDTH_ESTIMATE_KBPS, String.valueOf(bitrateEstimate / 1_000));
+    }
+
+    /**
+     * Measurements of the network engine on the network (wifi, ethernet...)
+     */
+    public String getDataSourceStats(String network, int dataSource) {
+        return getString(String.format("%s_%s_%s", DATA_SOURCE_STATS, network, dataSource), null);
+    }
+
+    public void setDataSourceStats(String network, int dataSource, String stats) {
+        putString(String.format("%s_%s_%s", DATA_SOURCE_STATS, network, dataSource), stats);
+    }
+
     private void setProfileName(String profileName) {
         putString(LAST_PROFILE_NAME, profileName);
     }
@@ -166,10 +210,27 @@ public class AppPrefs extends SharedPreferencesBase implements AccountChangeList
     }
 
     private void onProfileChanged() {
-        mListeners.forEach(ProfileChangeListener::onProfileChanged);
+        synchronized (mListeners) {
+            mListeners.forEach(ProfileChangeListener::onProfileChanged);
+        }
     }
 
+    /**
+     * NOTE: data classes could be created by the background initializer
+     */
     public void addListener(ProfileChangeListener listener) {
+        synchronized (mListeners) {
+            addListenerInt(listener);
+        }
+    }
+
+    public void removeListener(ProfileChangeListener listener) {
+        synchronized (mListeners) {
+            mListeners.remove(listener);
+        }
+    }
+
+    private void addListenerInt(ProfileChangeListener listener) {
         if (!mListeners.contains(listener)) {
             if (listener instanceof GeneralData) {
                 mListeners.add(0, listener); // data classes should be called before regular listeners
@@ -181,10 +242,6 @@ public class AppPrefs extends SharedPreferencesBase implements AccountChangeList
         }
     }
 
-    public void removeListener(ProfileChangeListener listener) {
-        mListeners.remove(listener);
-    }
-
     /**
      * Check that the data has been modified.
      */
@@ -7,6 +7,7 @@ import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.sharedutils.prefs.GlobalPreferences;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs.ProfileChangeListener;
+import com.liskovsoft.smartyoutubetv2.common.utils.StartupTrace;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 
 import java.util.Collections;
@@ -51,6 +52,7 @@ public class GeneralData implements ProfileChangeListener {
     private boolean mIsRemapChannelUpToVolumeEnabled;
     private boolean mIsRemapPageUpToSpeedEnabled;
     private boolean mIsRemapPageDownToSpeedEnabled;
+    private boolean mIsPagePrefetchEnabled;
     private boolean mIsRemapChannelUpToSpeedEnabled;
     private boolean mIsRemapFastForwardToSpeedEnabled;
     private boolean mIsRemapNextToFastForwardEnabled;
@@ -98,7 +100,9 @@ public class GeneralData implements ProfileChangeListener {
 
     public static GeneralData instance(Context context) {
         if (sInstance == null) {
+            long beginMs = StartupTrace.begin();
             sInstance = new GeneralData(context.getApplicationContext());
+            StartupTrace.end("GeneralData", beginMs);
         }
 
         return sInstance;
@@ -679,6 +683,15 @@ public class GeneralData implements ProfileChangeListener {
         return mIsAutoBackupEnabled;
     }
 
+    public void enablePagePrefetch(boolean enable) {
+        mIsPagePrefetchEnabled = enable;
+        persistState();
+    }
+
+    public boolean isPagePrefetchEnabled() {
+        return mIsPagePrefetchEnabled;
+    }
+
     /**
      * Fixed ConcurrentModificationException after onProfileChanged()<br/>
      * Happened inside cleanupPinnedItems()
@@ -760,6 +773,7 @@ public class GeneralData implements ProfileChangeListener {
         mIsAutoBackupEnabled = Helpers.parseBoolean(split, 66, false);
         mIsRemapPageDownToSpeedEnabled = Helpers.parseBoolean(split, 67, false);
         mSearchExitShortcut = Helpers.parseInt(split, 68, EXIT_SINGLE_BACK);
+        mIsPagePrefetchEnabled = Helpers.parseBoolean(split, 69, true);
     }
 
     private void persistState() {
@@ -782,7 +796,7 @@ public class GeneralData implements ProfileChangeListener {
                 mIsRemapDpadUpToVolumeEnabled, mIsRemapDpadLeftToVolumeEnabled, mIsRemapNextToFastForwardEnabled, mIsHideWatchedFromNotificationsEnabled,
                 mChangelog, mPlayerExitShortcut, null, mIsFullscreenModeEnabled, null,
                 mRememberPinnedPosition, mSelectedItems, mIsFirstUseTooltipEnabled, mIsDeviceSpecificBackupEnabled, mIsAutoBackupEnabled,
-                mIsRemapPageDownToSpeedEnabled, mSearchExitShortcut));
+                mIsRemapPageDownToSpeedEnabled, mSearchExitShortcut, mIsPagePrefetchEnabled));
     }
 
     @Override
@@ -12,6 +12,7 @@ import com.liskovsoft.smartyoutubetv2.common.app.presenters.dialogs.menu.provide
 import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs.ProfileChangeListener;
 import com.liskovsoft.smartyoutubetv2.common.prefs.common.DataChangeBase;
 import com.liskovsoft.smartyoutubetv2.common.utils.ClickbaitRemover;
+import com.liskovsoft.smartyoutubetv2.common.utils.StartupTrace;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 
 import java.util.ArrayList;
@@ -123,7 +124,9 @@ public class MainUIData extends DataChangeBase implements ProfileChangeListener
 
     public static MainUIData instance(Context context) {
         if (sInstance == null) {
+            long beginMs = StartupTrace.begin();
             sInstance = new MainUIData(context.getApplicationContext());
+            StartupTrace.end("MainUIData", beginMs);
         }
 
         return sInstance;
@@ -20,6 +20,7 @@ import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.FormatItem;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.track.MediaTrack;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs.ProfileChangeListener;
 import com.liskovsoft.smartyoutubetv2.common.prefs.common.DataChangeBase;
+import com.liskovsoft.smartyoutubetv2.common.utils.StartupTrace;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 import com.liskovsoft.youtubeapi.service.internal.MediaServiceData;
 
@@ -39,7 +40,7 @@ public class PlayerData extends DataChangeBase implements PlayerConstants, Profi
     public static final int SEEK_PREVIEW_CAROUSEL_SLOW = 2;
     public static final int SEEK_PREVIEW_CAROUSEL_FAST = 3;
     @SuppressLint("StaticFieldLeak")
-    private static PlayerData sInstance;
+    private static volatile PlayerData sInstance;
     private final AppPrefs mPrefs;
     private int mOKButtonBehavior;
     private int mUiHideTimeoutSec;
@@ -137,7 +138,14 @@ public class PlayerData extends DataChangeBase implements PlayerConstants, Profi
 
     public static PlayerData instance(Context context) {
         if (sInstance == null) {
-            sInstance = new PlayerData(context.getApplicationContext());
+            // Could be created by the background initializer
+            synchronized (PlayerData.class) {
+                if (sInstance == null) {
+                    long beginMs = StartupTrace.begin();
+                    sInstance = new PlayerData(context.getApplicationContext());
+                    StartupTrace.end("PlayerData", beginMs);
+                }
+            }
         }
 
         return sInstance;
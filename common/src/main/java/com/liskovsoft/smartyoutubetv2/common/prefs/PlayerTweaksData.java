@@ -6,6 +6,7 @@ import android.content.Context;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.sharedutils.prefs.GlobalPreferences;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs.ProfileChangeListener;
+import com.liskovsoft.smartyoutubetv2.common.utils.StartupTrace;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 import com.liskovsoft.youtubeapi.service.internal.MediaServiceData;
 
@@ -82,6 +83,7 @@ public class PlayerTweaksData implements ProfileChangeListener {
     private int mPlayerDataSource;
     private boolean mUnlockAllFormats;
     private boolean mIsBufferOnStreamsDisabled;
+    private boolean mIsSegmentDiskCacheEnabled;
     private boolean mIsSectionPlaylistEnabled;
     private boolean mIsScreenOffTimeoutEnabled;
     private boolean mIsBootScreenOffEnabled;
@@ -110,7 +112,9 @@ public class PlayerTweaksData implements ProfileChangeListener {
 
     public static PlayerTweaksData instance(Context context) {
         if (sInstance == null) {
+            long beginMs = StartupTrace.begin();
             sInstance = new PlayerTweaksData(context.getApplicationContext());
+            StartupTrace.end("PlayerTweaksData", beginMs);
         }
 
         return sInstance;
@@ -602,6 +606,15 @@ public class PlayerTweaksData implements ProfileChangeListener {
         return mIsNetworkErrorFixingDisabled;
     }
 
+    public void enableSegmentDiskCache(boolean enable) {
+        mIsSegmentDiskCacheEnabled = enable;
+        persistData();
+    }
+
+    public boolean isSegmentDiskCacheEnabled() {
+        return mIsSegmentDiskCacheEnabled;
+    }
+
     private void restoreData() {
         String data = mPrefs.getProfileData(VIDEO_PLAYER_TWEAKS_DATA);
 
@@ -667,6 +680,7 @@ public class PlayerTweaksData implements ProfileChangeListener {
         mIsCommentsPlacedLeft = Helpers.parseBoolean(split, 52, false);
         //mIsPersistentAntiBotFixEnabled = Helpers.parseBoolean(split, 53, false);
         mIsAudioFocusEnabled = Helpers.parseBoolean(split, 54, true);
+        mIsSegmentDiskCacheEnabled = Helpers.parseBoolean(split, 55, false);
 
         updateDefaultValues();
     }
@@ -689,7 +703,7 @@ public class PlayerTweaksData implements ProfileChangeListener {
                 mScreenOffDimmingPercents, mIsBootScreenOffEnabled, mIsPlayerUiOnNextEnabled, mIsPlayerAutoVolumeEnabled, mIsSimplePlayerNavigationEnabled,
                 mIsUnsafeAudioFormatsEnabled, null, mIsLoopShortsEnabled, mIsQuickSkipShortsEnabled, mIsRememberPositionOfLiveVideosEnabled,
                 mIsOculusQuestFixEnabled, null, mIsExtraLongSpeedListEnabled, mIsQuickSkipVideosEnabled, mIsNetworkErrorFixingDisabled, mIsCommentsPlacedLeft,
-                null, mIsAudioFocusEnabled
+                null, mIsAudioFocusEnabled, mIsSegmentDiskCacheEnabled
                 ));
     }
 
@@ -4,15 +4,28 @@ import android.content.Context;
 
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.smartyoutubetv2.common.prefs.AppPrefs;
+import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Index based settings storage.<br/>
+ * Values are kept typed in memory. Changes are written behind: coalesced and persisted with a delay
+ * or immediately on {@link #persistAll()}.
+ */
 public abstract class DataSaverBase extends DataChangeBase {
+    private static final long PERSIST_DELAY_MS = 3_000;
+    private static final Set<DataSaverBase> sDirtySavers = new LinkedHashSet<>();
+    private static final Runnable sPersistAll = DataSaverBase::persistAll;
     private final AppPrefs mAppPrefs;
     private final String mDataKey;
-    private final List<String> mValues;
+    /**
+     * Raw strings just after the restore. Replaced with typed values on the first access.
+     */
+    private final List<Object> mValues;
 
     public DataSaverBase(Context context) {
         mAppPrefs = AppPrefs.instance(context.getApplicationContext());
@@ -21,32 +34,79 @@ public abstract class DataSaverBase extends DataChangeBase {
         restoreState();
     }
 
+    /**
+     * Writes all pending changes. Call when the app might be killed soon (e.g. view paused).
+     */
+    public static void persistAll() {
+        Utils.removeCallbacks(sPersistAll);
+
+        List<DataSaverBase> savers;
+
+        synchronized (sDirtySavers) {
+            if (sDirtySavers.isEmpty()) {
+                return;
+            }
+
+            savers = new ArrayList<>(sDirtySavers);
+            sDirtySavers.clear();
+        }
+
+        for (DataSaverBase saver : savers) {
+            saver.persistStateInt();
+        }
+    }
+
     protected void setBoolean(int index, boolean value) {
-        checkCapacity(index);
-        mValues.set(index, Helpers.toString(value));
-        persistState();
+        setValue(index, value);
     }
 
     protected boolean getBoolean(int index, boolean defaultValue) {
-        if (index >= mValues.size() || mValues.get(index) == null) {
-            return defaultValue;
+        Object value = getValue(index);
+
+        if (value instanceof String) {
+            value = Helpers.parseBoolean((String) value);
+            mValues.set(index, value);
         }
 
-        return Helpers.parseBoolean(mValues.get(index));
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
     }
 
     protected void setInt(int index, int value) {
-        checkCapacity(index);
-        mValues.set(index, Helpers.toString((Integer) value));
-        persistState();
+        setValue(index, value);
     }
 
     protected int getInt(int index, int defaultValue) {
-        if (index >= mValues.size() || mValues.get(index) == null) {
-            return defaultValue;
+        Object value = getValue(index);
+
+        if (value instanceof String) {
+            value = Helpers.parseInt((String) value);
+            mValues.set(index, value);
+        }
+
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    private Object getValue(int index) {
+        return index < mValues.size() ? mValues.get(index) : null;
+    }
+
+    private void setValue(int index, Object value) {
+        checkCapacity(index);
+
+        Object current = mValues.get(index);
+
+        if (current instanceof String && current.equals(String.valueOf(value))) {
+            // Restored raw string. Same value in the persisted form.
+            current = value;
+            mValues.set(index, value);
+        }
+
+        if (value.equals(current)) {
+            return;
         }
 
-        return Helpers.parseInt(mValues.get(index));
+        mValues.set(index, value);
+        persistState();
     }
 
     private void checkCapacity(int index) {
@@ -64,14 +124,24 @@ public abstract class DataSaverBase extends DataChangeBase {
         String[] split = Helpers.splitData(data);
 
         if (split != null) {
-            mValues.addAll(Arrays.asList(split));
+            for (String value : split) {
+                mValues.add(value);
+            }
         }
     }
 
     private void persistState() {
+        synchronized (sDirtySavers) {
+            sDirtySavers.add(this);
+        }
+
+        onDataChange();
+        Utils.postDelayed(sPersistAll, PERSIST_DELAY_MS);
+    }
+
+    private void persistStateInt() {
         mAppPrefs.setData(mDataKey, Helpers.mergeData(
                 mValues.toArray()
         ));
-        onDataChange();
     }
 }
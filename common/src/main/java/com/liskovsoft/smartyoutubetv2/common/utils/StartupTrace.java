@@ -0,0 +1,113 @@
+package com.liskovsoft.smartyoutubetv2.common.utils;
+
+import android.content.Context;
+import android.os.Build.VERSION;
+import android.os.Process;
+import android.os.SystemClock;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import com.liskovsoft.sharedutils.rx.RxHelper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cold start timeline: construction of the singletons and the milestones till the first Browse row.<br/>
+ * Every record has the time from the process start, the duration and the thread.
+ * The timeline is written to the log and to the cache dir (startup_trace.txt). Nothing is recorded after that.
+ */
+public final class StartupTrace {
+    private static final String TAG = StartupTrace.class.getSimpleName();
+    private static final String DUMP_FILE = "startup_trace.txt";
+    private static final int MAX_RECORDS = 200;
+    /**
+     * The class is loaded by the Application on older devices
+     */
+    private static final long sStartMs = VERSION.SDK_INT >= 24 ? Process.getStartUptimeMillis() : SystemClock.uptimeMillis();
+    private static final List<String> sRecords = new ArrayList<>();
+    private static volatile boolean sIsFinished;
+
+    private StartupTrace() {
+    }
+
+    /**
+     * @return start time for {@link #end(String, long)}
+     */
+    public static long begin() {
+        return sIsFinished ? 0 : SystemClock.uptimeMillis();
+    }
+
+    public static void end(String name, long beginMs) {
+        if (sIsFinished || beginMs == 0) {
+            return;
+        }
+
+        add(name, beginMs, SystemClock.uptimeMillis() - beginMs);
+    }
+
+    public static void mark(String name) {
+        if (sIsFinished) {
+            return;
+        }
+
+        add(name, SystemClock.uptimeMillis(), 0);
+    }
+
+    /**
+     * Adds the last milestone and dumps the timeline. Only the first call counts.
+     */
+    public static void finish(Context context, String name) {
+        if (sIsFinished) {
+            return;
+        }
+
+        mark(name);
+
+        String dump;
+
+        synchronized (sRecords) {
+            if (sIsFinished) {
+                return;
+            }
+
+            sIsFinished = true;
+            StringBuilder builder = new StringBuilder("start ms | duration ms | name [thread]\n");
+
+            for (String record : sRecords) {
+                builder.append(record).append('\n');
+            }
+
+            sRecords.clear();
+            dump = builder.toString();
+        }
+
+        Log.d(TAG, dump);
+
+        if (context != null) {
+            File file = new File(context.getCacheDir(), DUMP_FILE);
+            RxHelper.runAsync(() -> save(file, dump));
+        }
+    }
+
+    private static void add(String name, long beginMs, long durationMs) {
+        String record = String.format("%8d | %8d | %s [%s]", beginMs - sStartMs, durationMs, name, Thread.currentThread().getName());
+
+        synchronized (sRecords) {
+            if (!sIsFinished && sRecords.size() < MAX_RECORDS) {
+                sRecords.add(record);
+            }
+        }
+    }
+
+    private static void save(File file, String dump) {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(dump.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write the trace: %s", e.getMessage());
+        }
+    }
+}
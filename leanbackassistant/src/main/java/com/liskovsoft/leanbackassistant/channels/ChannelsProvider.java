@@ -2,14 +2,18 @@ package com.liskovsoft.leanbackassistant.channels;
 
 import android.annotation.TargetApi;
 import android.content.ComponentName;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.media.tv.TvContract;
 import android.net.Uri;
+import android.os.RemoteException;
 import android.provider.BaseColumns;
 import androidx.annotation.DrawableRes;
 import androidx.annotation.WorkerThread;
@@ -31,7 +35,11 @@ import com.liskovsoft.sharedutils.mylogger.Log;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -61,7 +69,8 @@ public class ChannelsProvider {
             TvContractCompat.Channels.COLUMN_DISPLAY_NAME,
             TvContractCompat.Channels.COLUMN_BROWSABLE,
             TvContractCompat.Channels.COLUMN_SYSTEM_CHANNEL_KEY,
-            TvContractCompat.Channels.COLUMN_INTERNAL_PROVIDER_ID
+            TvContractCompat.Channels.COLUMN_INTERNAL_PROVIDER_ID,
+            TvContractCompat.Channels.COLUMN_INTERNAL_PROVIDER_DATA
     };
 
     private ChannelsProvider() {
@@ -225,23 +234,35 @@ public class ChannelsProvider {
     @WorkerThread
     public static void createOrUpdateChannel(Context context, Playlist playlist) {
         long publishedId = playlist.getPublishedId();
+        String syncHash = createSyncHash(playlist);
 
         if (publishedId != -1) {
+            if (syncHash != null && TextUtils.equals(syncHash, getSyncHash(findChannel(context, publishedId)))) {
+                Log.d(TAG, "Channel content not changed. Skipping sync... " + playlist.getName());
+                return;
+            }
+
             Log.d(TAG, "Oops: channel already published. Doing update instead... publishedId: " + publishedId);
             updateChannel(context, playlist);
             //addClipsToChannel(context, publishedId, Helpers.isGoogleTVLauncher(context) || channel.isBrowsable() ? playlist.getClips() : Collections.emptyList());
-            addClipsToChannel(context, publishedId, playlist.getClips());
+            addClipsToChannel(context, publishedId, playlist.getClips(), syncHash);
             return;
         }
 
         Channel channel = findChannelByProviderId(context, playlist.getPlaylistId());
 
         if (channel != null) {
-            Log.d(TAG, "Oops: channel already published but not memorized by the app. Doing update instead... foundId: " + channel.getId());
             playlist.setPublishedId(channel.getId());
+
+            if (syncHash != null && TextUtils.equals(syncHash, getSyncHash(channel))) {
+                Log.d(TAG, "Channel content not changed. Skipping sync... " + playlist.getName());
+                return;
+            }
+
+            Log.d(TAG, "Oops: channel already published but not memorized by the app. Doing update instead... foundId: " + channel.getId());
             updateChannel(context, playlist);
             //addClipsToChannel(context, channel.getId(), Helpers.isGoogleTVLauncher(context) || channel.isBrowsable() ? playlist.getClips() : Collections.emptyList());
-            addClipsToChannel(context, channel.getId(), playlist.getClips());
+            addClipsToChannel(context, channel.getId(), playlist.getClips(), syncHash);
             return;
         }
 
@@ -251,7 +272,7 @@ public class ChannelsProvider {
 
         // The channels are disabled by default (don't populate to save resources)
         //addClipsToChannel(context, channelId, Collections.emptyList());
-        addClipsToChannel(context, channelId, playlist.getClips());
+        addClipsToChannel(context, channelId, playlist.getClips(), syncHash);
     }
 
     private static long createChannel(Context context, Playlist playlist) {
@@ -287,30 +308,185 @@ public class ChannelsProvider {
         return channelId;
     }
 
+    /**
+     * Applies the difference between the existing programs and the clips (keyed by video id) in one batch.<br/>
+     * The programs that aren't changed stay untouched, so the launcher row doesn't flicker.
+     */
     @WorkerThread
-    private static void addClipsToChannel(Context context, long channelId, List<Clip> clips) {
+    private static void addClipsToChannel(Context context, long channelId, List<Clip> clips, String syncHash) {
         if (channelId == -1) {
             Log.d(TAG, "Cant add clips: channelId == -1");
             return;
         }
 
-        if (clips.size() == 0) {
+        if (clips == null || clips.size() == 0) {
             Log.d(TAG, "Cant add clips: clips.size() == 0");
             return;
         }
 
-        cleanupChannel(context, channelId);
+        Map<String, PreviewProgram> existingPrograms = findPrograms(context, channelId);
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+        Map<Integer, Clip> insertedClips = new HashMap<>();
+        Set<String> keys = new HashSet<>();
+        int updated = 0;
+        int moved = 0;
 
         int weight = clips.size();
         for (int i = 0; i < clips.size(); ++i, --weight) {
             Clip clip = clips.get(i);
+            String key = getProgramKey(clip);
+
+            if (clip.getVideoUrl() == null || !keys.add(key)) {
+                // Seems like this is an ads or duplicate
+                continue;
+            }
+
+            PreviewProgram program = createProgramBuilder(context, clip)
+                    .setWeight(weight)
+                    .setChannelId(channelId)
+                    .build();
+            PreviewProgram existingProgram = existingPrograms.remove(key);
+
+            if (existingProgram == null) {
+                insertedClips.put(operations.size(), clip);
+                operations.add(ContentProviderOperation.newInsert(PREVIEW_PROGRAMS_CONTENT_URI)
+                        .withValues(program.toContentValues())
+                        .build());
+            } else {
+                clip.setProgramId(existingProgram.getId());
+
+                if (!isSameProgram(existingProgram, program)) {
+                    updated++;
+                    operations.add(ContentProviderOperation.newUpdate(TvContractCompat.buildPreviewProgramUri(existingProgram.getId()))
+                            .withValues(program.toContentValues())
+                            .build());
+                } else if (existingProgram.getWeight() != weight) {
+                    // Inserted clip shifts the positions. Only the weight is written, the rest of the program stays untouched.
+                    moved++;
+                    operations.add(ContentProviderOperation.newUpdate(TvContractCompat.buildPreviewProgramUri(existingProgram.getId()))
+                            .withValue(TvContractCompat.PreviewPrograms.COLUMN_WEIGHT, weight)
+                            .build());
+                }
+            }
+        }
+
+        for (PreviewProgram program : existingPrograms.values()) {
+            operations.add(ContentProviderOperation.newDelete(TvContractCompat.buildPreviewProgramUri(program.getId())).build());
+        }
+
+        Log.d(TAG, "Syncing channel %s: inserts: %s, updates: %s, moves: %s, deletes: %s", channelId, insertedClips.size(), updated, moved, existingPrograms.size());
+
+        if (!operations.isEmpty()) {
+            ContentProviderResult[] results;
+
+            try {
+                results = context.getContentResolver().applyBatch(TvContractCompat.AUTHORITY, operations);
+            } catch (OperationApplicationException | RemoteException | SecurityException e) {
+                Log.e(TAG, "Sync programs failed: " + e.getMessage());
+                return;
+            }
+
+            for (Map.Entry<Integer, Clip> entry : insertedClips.entrySet()) {
+                ContentProviderResult result = results.length > entry.getKey() ? results[entry.getKey()] : null;
+
+                if (result != null && result.uri != null) {
+                    entry.getValue().setProgramId(ContentUris.parseId(result.uri));
+                }
+            }
+        }
+
+        updateSyncHash(context, channelId, syncHash);
+    }
+
+    private static Map<String, PreviewProgram> findPrograms(Context context, long channelId) {
+        Map<String, PreviewProgram> result = new HashMap<>();
+
+        try (Cursor cursor = context.getContentResolver().query(
+                TvContractCompat.buildPreviewProgramsUriForChannel(channelId), PreviewProgram.PROJECTION, null, null, null)) {
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    PreviewProgram program = PreviewProgram.fromCursor(cursor);
+                    PreviewProgram duplicate = result.put(program.getInternalProviderId(), program);
+
+                    if (duplicate != null) {
+                        deleteProgram(context, duplicate.getId());
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Video id is the same between the syncs. Unlike the clip id.
+     */
+    private static String getProgramKey(Clip clip) {
+        String videoUrl = clip.getVideoUrl();
+
+        if (videoUrl == null) {
+            return clip.getClipId();
+        }
+
+        String videoId = Uri.parse(videoUrl).getQueryParameter("v");
+
+        return videoId != null ? videoId : videoUrl;
+    }
+
+    /**
+     * Weight (position) isn't compared. It's updated separately.
+     */
+    private static boolean isSameProgram(PreviewProgram program1, PreviewProgram program2) {
+        return TextUtils.equals(program1.getTitle(), program2.getTitle()) &&
+                TextUtils.equals(program1.getDescription(), program2.getDescription()) &&
+                TextUtils.equals(String.valueOf(program1.getPosterArtUri()), String.valueOf(program2.getPosterArtUri())) &&
+                program1.getDurationMillis() == program2.getDurationMillis() &&
+                program1.isLive() == program2.isLive();
+    }
+
+    /**
+     * Content of the playlist. Stored inside the channel row.
+     */
+    private static String createSyncHash(Playlist playlist) {
+        List<Clip> clips = playlist.getClips();
+
+        if (clips == null) {
+            return null;
+        }
+
+        StringBuilder content = new StringBuilder(playlist.getName());
+
+        for (Clip clip : clips) {
+            content.append(getProgramKey(clip))
+                    .append(clip.getTitle())
+                    .append(clip.getDescription())
+                    .append(clip.getCardImageUrl())
+                    .append(clip.getDurationMs())
+                    .append(clip.isLive());
+        }
+
+        return String.valueOf(content.toString().hashCode());
+    }
 
-            publishProgram(context, clip, channelId, weight);
+    private static String getSyncHash(Channel channel) {
+        if (channel == null) {
+            return null;
         }
+
+        byte[] data = channel.getInternalProviderDataByteArray();
+
+        return data != null ? new String(data) : null;
     }
 
-    private static void cleanupChannel(Context context, long channelId) {
-        context.getContentResolver().delete(TvContractCompat.buildPreviewProgramsUriForChannel(channelId), null, null);
+    private static void updateSyncHash(Context context, long channelId, String syncHash) {
+        if (syncHash == null) {
+            return;
+        }
+
+        ContentValues values = new ContentValues();
+        values.put(TvContractCompat.Channels.COLUMN_INTERNAL_PROVIDER_DATA, syncHash.getBytes());
+
+        context.getContentResolver().update(TvContractCompat.buildChannelUri(channelId), values, null, null);
     }
 
     @WorkerThread
@@ -372,40 +548,6 @@ public class ChannelsProvider {
         }
     }
 
-    private static void publishProgram(Context context, Clip clip, long channelId, int weight) {
-        if (clip.getProgramId() != -1) {
-            Log.e(TAG, "Clip already published. Skipping...");
-            return;
-        }
-
-        if (clip.getVideoUrl() == null) {
-            // Seems like this is an ads
-            Log.e(TAG, "Clip doesn't contain url. Skipping...");
-            return;
-        }
-
-        PreviewProgram.Builder builder =
-                createProgramBuilder(context, clip)
-                        .setWeight(weight)
-                        .setChannelId(channelId);
-
-        Uri programUri = null;
-
-        try {
-            programUri = context.getContentResolver().insert(PREVIEW_PROGRAMS_CONTENT_URI, builder.build().toContentValues());
-        } catch (Exception e) {
-            Log.e(TAG, e.getMessage());
-            e.printStackTrace();
-        }
-
-        if (programUri == null || programUri.equals(Uri.EMPTY)) {
-            Log.e(TAG, "Insert program failed");
-            return;
-        }
-
-        clip.setProgramId(ContentUris.parseId(programUri));
-    }
-
     static String decodeVideoId(Uri uri) {
         List<String> paths = uri.getPathSegments();
         if (paths.size() == 2 && TextUtils.equals(paths.get(0), PLAY_VIDEO_ACTION_PATH)) {
@@ -453,7 +595,7 @@ public class ChannelsProvider {
             .setPosterArtUri(cardUri)
             .setIntent(AppUtil.getInstance(context).createAppIntent(clip.getVideoUrl()))
             .setPreviewVideoUri(previewUri)
-            .setInternalProviderId(clip.getClipId())
+            .setInternalProviderId(getProgramKey(clip))
             .setContentId(clip.getContentId())
             .setThumbnailAspectRatio(clip.getAspectRatio())
             .setPosterArtAspectRatio(clip.getAspectRatio())
@@ -498,6 +640,19 @@ public class ChannelsProvider {
         return channelId.get();
     }
 
+    private static Channel findChannel(Context context, long channelId) {
+        try (Cursor cursor = context.getContentResolver().query(
+                TvContractCompat.buildChannelUri(channelId), CHANNEL_COLUMNS, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                return Channel.fromCursor(cursor);
+            }
+        } catch (SecurityException e) {
+            Log.e(TAG, "Can't find channel: " + e.getMessage());
+        }
+
+        return null;
+    }
+
     private static Channel findChannelByProviderId(Context context, String providerId) {
         final AtomicReference<Channel> myChannel = new AtomicReference<>(null);
 
@@ -4,26 +4,34 @@ import android.content.Context;
 
 import androidx.annotation.RequiresApi;
 
-import com.liskovsoft.leanbackassistant.media.ClipService;
+import com.liskovsoft.leanbackassistant.media.ClipServiceCached;
 import com.liskovsoft.leanbackassistant.media.Playlist;
 import com.liskovsoft.leanbackassistant.recommendations.RecommendationsProvider;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.sharedutils.mylogger.Log;
 import com.liskovsoft.sharedutils.prefs.GlobalPreferences;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 @RequiresApi(21)
 public class UpdateChannelsTask {
     private static final String TAG = UpdateChannelsTask.class.getSimpleName();
+    private static final long FETCH_TIMEOUT_MS = 60_000;
     private final Context mContext;
     private final GlobalPreferences mPrefs;
-    private final ClipService mService;
+    private final ClipServiceCached mService;
 
     public UpdateChannelsTask(Context context) {
         mContext = context;
 
         Log.d(TAG, "Creating GlobalPreferences...");
         mPrefs = GlobalPreferences.instance(context);
-        mService = ClipService.instance(context);
+        mService = ClipServiceCached.instance(context);
     }
 
     public void run() {
@@ -33,15 +41,61 @@ public class UpdateChannelsTask {
 
     private void updateChannels() {
         if (Helpers.isATVChannelsSupported(mContext)) {
+            Playlist[] playlists = {
+                    mService.getSubscriptionsPlaylist(),
+                    mService.getRecommendedPlaylist(),
+                    mService.getHistoryPlaylist()
+            };
+
+            // Persisted clips first. The launcher doesn't wait for the network.
+            for (Playlist playlist : playlists) {
+                if (playlist.hasClips()) {
+                    syncChannel(playlist);
+                }
+            }
+
+            for (Playlist playlist : revalidatePlaylists(playlists)) {
+                syncChannel(playlist);
+            }
+        }
+    }
+
+    private void syncChannel(Playlist playlist) {
+        try {
+            updateOrPublishChannel(playlist);
+        } catch (Exception e) {
+            Log.e(TAG, e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Load all playlists at once.
+     * @return changed playlists only
+     */
+    private List<Playlist> revalidatePlaylists(Playlist... playlists) {
+        ExecutorService executor = Executors.newFixedThreadPool(playlists.length);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        for (Playlist playlist : playlists) {
+            futures.add(executor.submit(() -> mService.revalidate(playlist)));
+        }
+
+        List<Playlist> result = new ArrayList<>();
+
+        for (int i = 0; i < playlists.length; i++) {
             try {
-                updateOrPublishChannel(mService.getSubscriptionsPlaylist());
-                updateOrPublishChannel(mService.getRecommendedPlaylist());
-                updateOrPublishChannel(mService.getHistoryPlaylist());
-            } catch (Exception e) {
-                Log.e(TAG, e.getMessage());
-                e.printStackTrace();
+                if (futures.get(i).get(FETCH_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    result.add(playlists[i]);
+                }
+            } catch (Exception e) { // ExecutionException, InterruptedException, TimeoutException
+                Log.e(TAG, "Can't fetch playlist %s: %s", playlists[i].getName(), e.getMessage());
             }
         }
+
+        executor.shutdownNow();
+
+        return result;
     }
 
     private void updateRecommendations() {
@@ -75,6 +129,7 @@ public class UpdateChannelsTask {
 
     private void updateOrPublishRecommendations(Playlist playlist) {
         Log.d(TAG, "Syncing recommended: " + playlist.getName());
+        mService.revalidate(playlist);
         RecommendationsProvider.createOrUpdateRecommendations(mContext, playlist);
     }
 
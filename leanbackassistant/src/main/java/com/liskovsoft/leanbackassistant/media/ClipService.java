@@ -44,6 +44,7 @@ public class ClipService {
                 SUBS_PROGRAMS_IDS,
                 SUBSCRIPTIONS_URL,
                 R.drawable.generic_channels,
+                PlaylistCache.FEED_SUBSCRIPTIONS,
                 ContentService::getSubscriptions,
                 false
         );
@@ -57,6 +58,7 @@ public class ClipService {
                 HISTORY_PROGRAMS_IDS,
                 HISTORY_URL,
                 R.drawable.generic_channels,
+                PlaylistCache.FEED_HISTORY,
                 ContentService::getHistory,
                 false);
     }
@@ -69,13 +71,14 @@ public class ClipService {
                 RECOMMENDED_PROGRAMS_IDS,
                 RECOMMENDED_URL,
                 R.drawable.generic_channels,
+                PlaylistCache.FEED_RECOMMENDED,
                 ContentService::getRecommended,
                 true);
     }
 
     private Playlist createPlaylist(
             int titleResId, int id, String channelId, String programId,
-            String recommendedUrl, int logoResId, GroupCallback callback, boolean isDefault) {
+            String recommendedUrl, int logoResId, String cacheKey, GroupCallback callback, boolean isDefault) {
         Playlist playlist = new Playlist(
                 mContext.getResources().getString(titleResId),
                 Integer.toString(id),
@@ -85,6 +88,7 @@ public class ClipService {
         playlist.setProgramsKey(programId);
         playlist.setPlaylistUrl(recommendedUrl);
         playlist.setLogoResId(logoResId);
+        playlist.setCacheKey(cacheKey);
 
         return playlist;
     }
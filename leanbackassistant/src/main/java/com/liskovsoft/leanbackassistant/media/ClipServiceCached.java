@@ -1,98 +1,87 @@
 package com.liskovsoft.leanbackassistant.media;
 
+import android.annotation.SuppressLint;
 import android.content.Context;
+import com.liskovsoft.sharedutils.mylogger.Log;
 
+import java.util.List;
+
+/**
+ * Stale-while-revalidate playlists.<br/>
+ * The persisted clips are served at once. {@link #revalidate(Playlist)} loads the fresh ones from the network.
+ */
 public class ClipServiceCached extends ClipService {
-    private static ClipServiceCached mInstance;
-    private Playlist mSubscriptions;
-    private long mSubscriptionsTime;
-    private Playlist mHistory;
-    private long mHistoryTime;
-    private Playlist mRecommended;
-    private long mRecommendedTime;
+    private static final String TAG = ClipServiceCached.class.getSimpleName();
     private static final long CACHE_UPDATE_TIME = 15 * 60 * 1000;
+    @SuppressLint("StaticFieldLeak")
+    private static ClipServiceCached mInstance;
+    private final Context mContext;
 
     public ClipServiceCached(Context context) {
         super(context);
+        mContext = context;
     }
 
-    public static ClipService instance(Context context) {
+    public static ClipServiceCached instance(Context context) {
         if (mInstance == null) {
-            mInstance = new ClipServiceCached(context);
+            mInstance = new ClipServiceCached(context.getApplicationContext());
         }
 
         return mInstance;
     }
 
+    @Override
     public Playlist getSubscriptionsPlaylist() {
-        Playlist cache = getSubscriptionsPlaylistCache();
-
-        if (cache == null) {
-            cache = super.getSubscriptionsPlaylist();
-            setSubscriptionsPlaylistCache(cache);
-        }
-
-        return cache;
+        return restore(super.getSubscriptionsPlaylist());
     }
 
-    private Playlist getSubscriptionsPlaylistCache() {
-        if ((System.currentTimeMillis() - mSubscriptionsTime) < CACHE_UPDATE_TIME) {
-            return mSubscriptions;
-        }
-
-        return null;
+    @Override
+    public Playlist getHistoryPlaylist() {
+        return restore(super.getHistoryPlaylist());
     }
 
-    private void setSubscriptionsPlaylistCache(Playlist cache) {
-        mSubscriptionsTime = System.currentTimeMillis();
-        mSubscriptions = cache;
+    @Override
+    public Playlist getRecommendedPlaylist() {
+        return restore(super.getRecommendedPlaylist());
     }
 
-    public Playlist getHistoryPlaylist() {
-        Playlist cache = getHistoryPlaylistCache();
-
-        if (cache == null) {
-            cache = super.getHistoryPlaylist();
-            setHistoryPlaylistCache(cache);
+    /**
+     * Loads the fresh clips unless the persisted ones are younger than {@link #CACHE_UPDATE_TIME}
+     * (e.g. the main app has just loaded the same feed). Blocking call.
+     * @return true if the clips of the playlist have changed
+     */
+    public boolean revalidate(Playlist playlist) {
+        String feed = playlist.getCacheKey();
+
+        if (System.currentTimeMillis() - PlaylistCache.getUpdatedMs(mContext, feed) < CACHE_UPDATE_TIME) {
+            Log.d(TAG, "Feed %s is fresh", feed);
+            return false;
         }
 
-        return cache;
-    }
+        List<Clip> clips = playlist.fetchClips();
 
-    private Playlist getHistoryPlaylistCache() {
-        if ((System.currentTimeMillis() - mHistoryTime) < CACHE_UPDATE_TIME) {
-            return mHistory;
+        if (clips == null) {
+            // Keep the stale clips
+            return false;
         }
 
-        return null;
-    }
-
-    private void setHistoryPlaylistCache(Playlist cache) {
-        mHistoryTime = System.currentTimeMillis();
-        mHistory = cache;
-    }
+        PlaylistCache.save(mContext, feed, clips);
 
-    public Playlist getRecommendedPlaylist() {
-        Playlist cache = getRecommendedPlaylistCache();
+        boolean isChanged = !PlaylistCache.isSameContent(playlist.hasClips() ? playlist.getClips() : null, clips);
+        playlist.setClips(clips);
 
-        if (cache == null) {
-            cache = super.getRecommendedPlaylist();
-            setRecommendedPlaylistCache(cache);
-        }
+        Log.d(TAG, "Feed %s revalidated. Changed: %s", feed, isChanged);
 
-        return cache;
+        return isChanged;
     }
 
-    private Playlist getRecommendedPlaylistCache() {
-        if ((System.currentTimeMillis() - mRecommendedTime) < CACHE_UPDATE_TIME) {
-            return mRecommended;
-        }
+    private Playlist restore(Playlist playlist) {
+        List<Clip> clips = PlaylistCache.load(mContext, playlist.getCacheKey());
 
-        return null;
-    }
+        if (clips != null) {
+            playlist.setClips(clips);
+        }
 
-    private void setRecommendedPlaylistCache(Playlist cache) {
-        mRecommendedTime = System.currentTimeMillis();
-        mRecommended = cache;
+        return playlist;
     }
 }
@@ -43,6 +43,7 @@ public final class Playlist {
     private String mProgramsKey;
     private String mPlaylistUrl;
     private int mLogoResId = -1;
+    private String mCacheKey;
     private final GroupCallback mCallback;
     private final boolean mIsDefault;
     private static final int MIN_PLAYLIST_SIZE = 40;
@@ -79,6 +80,21 @@ public final class Playlist {
         return mClips;
     }
 
+    public boolean hasClips() {
+        return mClips != null && !mClips.isEmpty();
+    }
+
+    public void setClips(List<Clip> clips) {
+        mClips = clips;
+    }
+
+    /**
+     * Loads the clips from the network. The current clips are left untouched.
+     */
+    public List<Clip> fetchClips() {
+        return createClips();
+    }
+
     public String getDescription() {
         return mDescription;
     }
@@ -267,4 +283,15 @@ public final class Playlist {
     public void setLogoResId(int resId) {
         mLogoResId = resId;
     }
+
+    /**
+     * Name of the feed inside {@link PlaylistCache}
+     */
+    public String getCacheKey() {
+        return mCacheKey;
+    }
+
+    public void setCacheKey(String key) {
+        mCacheKey = key;
+    }
 }
@@ -0,0 +1,181 @@
+package com.liskovsoft.leanbackassistant.media;
+
+import android.content.Context;
+import androidx.annotation.Nullable;
+import androidx.tvprovider.media.tv.TvContractCompat;
+import com.liskovsoft.sharedutils.helpers.Helpers;
+import com.liskovsoft.sharedutils.mylogger.Log;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Last loaded launcher playlists persisted between the runs.<br/>
+ * One json file per feed inside the app cache dir. The file time is the time of the last network load.<br/>
+ * NOTE: the main app writes the same files when it loads Browse sections (common's LauncherFeedCache).
+ * Keep the format in sync.
+ */
+public final class PlaylistCache {
+    private static final String TAG = PlaylistCache.class.getSimpleName();
+    public static final String FEED_SUBSCRIPTIONS = "subscriptions";
+    public static final String FEED_HISTORY = "history";
+    public static final String FEED_RECOMMENDED = "recommended";
+    private static final String CACHE_DIR = "launcher_playlists";
+    private static final String KEY_ITEMS = "items";
+    private static final String KEY_ID = "id";
+    private static final String KEY_TITLE = "title";
+    private static final String KEY_DESCRIPTION = "description";
+    private static final String KEY_DURATION_MS = "durationMs";
+    private static final String KEY_BG_IMAGE_URL = "bgImageUrl";
+    private static final String KEY_CARD_IMAGE_URL = "cardImageUrl";
+    private static final String KEY_VIDEO_URL = "videoUrl";
+    private static final String KEY_IS_LIVE = "isLive";
+
+    private PlaylistCache() {
+    }
+
+    /**
+     * @return persisted clips or null if the feed hasn't been loaded yet
+     */
+    @Nullable
+    public static synchronized List<Clip> load(Context context, String feed) {
+        File file = getFile(context, feed);
+
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (InputStream in = new FileInputStream(file)) {
+            return fromJson(new JSONObject(readFully(in)));
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Can't read the feed %s: %s", feed, e.getMessage());
+            return null;
+        }
+    }
+
+    public static synchronized void save(Context context, String feed, List<Clip> clips) {
+        File file = getFile(context, feed);
+        File tmpFile = new File(file.getPath() + ".tmp");
+        file.getParentFile().mkdirs();
+
+        // Write then rename. The reader never sees a half-written file.
+        try (OutputStream out = new FileOutputStream(tmpFile)) {
+            out.write(toJson(clips).toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Can't write the feed %s: %s", feed, e.getMessage());
+            tmpFile.delete();
+            return;
+        }
+
+        if (!tmpFile.renameTo(file)) {
+            Log.e(TAG, "Can't replace the feed %s", feed);
+            tmpFile.delete();
+        }
+    }
+
+    /**
+     * @return time of the last network load or 0 if the feed hasn't been loaded yet
+     */
+    public static long getUpdatedMs(Context context, String feed) {
+        return getFile(context, feed).lastModified();
+    }
+
+    /**
+     * The launcher shows the same cards in the same order.
+     */
+    public static boolean isSameContent(@Nullable List<Clip> clips1, @Nullable List<Clip> clips2) {
+        if (clips1 == null || clips2 == null) {
+            return clips1 == clips2;
+        }
+
+        if (clips1.size() != clips2.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < clips1.size(); i++) {
+            Clip clip1 = clips1.get(i);
+            Clip clip2 = clips2.get(i);
+
+            if (!Helpers.equals(clip1.getVideoUrl(), clip2.getVideoUrl()) ||
+                    !Helpers.equals(clip1.getTitle(), clip2.getTitle()) ||
+                    !Helpers.equals(clip1.getCardImageUrl(), clip2.getCardImageUrl()) ||
+                    clip1.isLive() != clip2.isLive()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static File getFile(Context context, String feed) {
+        return new File(new File(context.getCacheDir(), CACHE_DIR), feed);
+    }
+
+    private static JSONObject toJson(List<Clip> clips) throws JSONException {
+        JSONArray items = new JSONArray();
+
+        for (Clip clip : clips) {
+            JSONObject item = new JSONObject();
+            item.put(KEY_ID, clip.getClipId());
+            item.put(KEY_TITLE, clip.getTitle());
+            item.put(KEY_DESCRIPTION, clip.getDescription());
+            item.put(KEY_DURATION_MS, clip.getDurationMs());
+            item.put(KEY_BG_IMAGE_URL, clip.getBackgroundImageUrl());
+            item.put(KEY_CARD_IMAGE_URL, clip.getCardImageUrl());
+            item.put(KEY_VIDEO_URL, clip.getVideoUrl());
+            item.put(KEY_IS_LIVE, clip.isLive());
+            items.put(item);
+        }
+
+        return new JSONObject().put(KEY_ITEMS, items);
+    }
+
+    @SuppressWarnings("RestrictedApi")
+    private static List<Clip> fromJson(JSONObject json) throws JSONException {
+        JSONArray items = json.getJSONArray(KEY_ITEMS);
+        List<Clip> clips = new ArrayList<>();
+
+        for (int i = 0; i < items.length(); i++) {
+            JSONObject item = items.getJSONObject(i);
+            clips.add(new Clip(
+                    item.optString(KEY_TITLE, null),
+                    item.optString(KEY_DESCRIPTION, null),
+                    item.optLong(KEY_DURATION_MS),
+                    item.optString(KEY_BG_IMAGE_URL, null),
+                    item.optString(KEY_CARD_IMAGE_URL, null),
+                    item.optString(KEY_VIDEO_URL, null),
+                    null,
+                    false,
+                    item.optBoolean(KEY_IS_LIVE),
+                    null,
+                    item.optString(KEY_ID, null),
+                    null,
+                    TvContractCompat.PreviewProgramColumns.ASPECT_RATIO_16_9));
+        }
+
+        return clips;
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8 * 1024];
+        int read;
+
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -11,7 +11,11 @@ import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class VideoGroupObjectAdapter extends ObjectAdapter {
     private static final String TAG = VideoGroupObjectAdapter.class.getSimpleName();
@@ -26,16 +30,26 @@ public class VideoGroupObjectAdapter extends ObjectAdapter {
             int size = size();
             if (size > 0) {
                 if (size < CHECK_MAX_SIZE)
-                    Helpers.removeIf(c, this::contains);
+                    Helpers.removeIf(c, getVideoSet()::contains);
             } else {
                 Helpers.removeDuplicates(c);
             }
 
-            return super.addAll(c);
+            boolean result = super.addAll(c);
+            onItemsAppended(size);
+            return result;
         }
     };
     private final List<VideoGroup> mVideoGroups = new ArrayList<>(); // keep groups from being garbage collected
     private static final int CHECK_MAX_SIZE = 200;
+    /**
+     * Items by equality. Finds the duplicates without the scan. Null means rebuild.
+     */
+    private Set<Video> mVideoSet;
+    /**
+     * Positions by reference (the first occurrence). Null means rebuild.
+     */
+    private Map<Video, Integer> mPositions;
 
     public VideoGroupObjectAdapter(VideoGroup videoGroup, Presenter presenter) {
         super(presenter);
@@ -107,6 +121,8 @@ public class VideoGroupObjectAdapter extends ObjectAdapter {
 
     private void prepend(VideoGroup group) {
         int begin = mVideoItems.size();
+        // Positions are shifted
+        invalidateIndex();
 
         if (mVideoGroups.contains(group)) {
             mVideoItems.addAll(0, group.getVideos().subList(begin, group.getVideos().size()));
@@ -143,16 +159,9 @@ public class VideoGroupObjectAdapter extends ObjectAdapter {
      */
     public int indexOf(Video item) {
         // Compare by reference. Because there may be multiple same videos.
-        int index = -1;
-
-        for (Video video : mVideoItems) {
-            index++;
-            if (video == item) {
-                return index;
-            }
-        }
+        Integer index = getPositions().get(item);
 
-        return -1;
+        return index != null ? index : -1;
     }
 
     /**
@@ -180,24 +189,44 @@ public class VideoGroupObjectAdapter extends ObjectAdapter {
         int itemCount = mVideoItems.size();
         mVideoItems.clear();
         mVideoGroups.clear();
+        invalidateIndex();
         if (itemCount != 0) {
             // NOTE: Crashes RecycleView IndexOutOfBoundsException when doing add immediately after clear
             notifyItemRangeRemoved(0, itemCount);
         }
     }
 
+    /**
+     * Removes all occurrences of the same elements (if present).<br/>
+     * Adjacent items are notified as one range. Ranges go from the end, so the positions of the rest stay valid.
+     */
     public void remove(VideoGroup group) {
-        for (Video video : group.getVideos()) {
-            while (true) { // remove all occurrences of the same element (if present)
-                int index = mVideoItems.indexOf(video);
-                if (index != -1) {
-                    mVideoItems.remove(video);
-                    notifyItemRangeRemoved(index, 1);
-                    removeFromGroup(video);
-                } else {
-                    break;
-                }
+        Set<Video> removed = new HashSet<>(group.getVideos());
+        int rangeStart = -1;
+        int rangeSize = 0;
+
+        for (int i = mVideoItems.size() - 1; i >= 0; i--) {
+            Video video = mVideoItems.get(i);
+
+            if (!removed.contains(video)) {
+                continue;
             }
+
+            mVideoItems.remove(i);
+            removeFromGroup(video);
+
+            if (rangeSize > 0 && rangeStart != i + 1) {
+                notifyItemRangeRemoved(rangeStart, rangeSize);
+                rangeSize = 0;
+            }
+
+            rangeStart = i;
+            rangeSize++;
+        }
+
+        if (rangeSize > 0) {
+            invalidateIndex();
+            notifyItemRangeRemoved(rangeStart, rangeSize);
         }
     }
 
@@ -226,6 +255,45 @@ public class VideoGroupObjectAdapter extends ObjectAdapter {
         return mVideoItems.isEmpty();
     }
 
+    private Set<Video> getVideoSet() {
+        if (mVideoSet == null) {
+            mVideoSet = new HashSet<>(mVideoItems);
+        }
+
+        return mVideoSet;
+    }
+
+    private Map<Video, Integer> getPositions() {
+        if (mPositions == null) {
+            mPositions = new IdentityHashMap<>();
+            onItemsAppended(0);
+        }
+
+        return mPositions;
+    }
+
+    /**
+     * Appended items are added to the indexes. Other changes make them stale.
+     */
+    private void onItemsAppended(int begin) {
+        for (int i = begin; i < mVideoItems.size(); i++) {
+            Video video = mVideoItems.get(i);
+
+            if (mVideoSet != null) {
+                mVideoSet.add(video);
+            }
+
+            if (mPositions != null && !mPositions.containsKey(video)) {
+                mPositions.put(video, i);
+            }
+        }
+    }
+
+    private void invalidateIndex() {
+        mVideoSet = null;
+        mPositions = null;
+    }
+
     private void removeFromGroup(Video video) {
         if (video != null && video.getGroup() != null) {
             video.getGroup().remove(video);
@@ -18,6 +18,7 @@ import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.BrowsePresenter;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.interfaces.VideoGroupPresenter;
+import com.liskovsoft.smartyoutubetv2.common.misc.ContinuationPrefetcher;
 import com.liskovsoft.smartyoutubetv2.common.misc.TickleManager;
 import com.liskovsoft.smartyoutubetv2.common.prefs.MainUIData;
 import com.liskovsoft.smartyoutubetv2.tv.R;
@@ -447,7 +448,7 @@ public class MultiVideoGridFragment extends MultiGridFragment implements VideoSe
             int size = adapter.size();
             int index = adapter.indexOf(item);
 
-            if (index > (size - ViewUtil.GRID_SCROLL_CONTINUE_NUM)) {
+            if (ContinuationPrefetcher.instance(getContext()).onItemFocused(item, index, size, ViewUtil.GRID_SCROLL_CONTINUE_NUM)) {
                 mMainPresenter.onScrollEnd((Video) adapter.get(size - 1));
             }
         }
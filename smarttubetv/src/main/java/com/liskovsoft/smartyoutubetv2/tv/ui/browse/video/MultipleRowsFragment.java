@@ -21,6 +21,7 @@ import com.liskovsoft.sharedutils.mylogger.Log;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.interfaces.VideoGroupPresenter;
+import com.liskovsoft.smartyoutubetv2.common.misc.ContinuationPrefetcher;
 import com.liskovsoft.smartyoutubetv2.tv.adapter.VideoGroupObjectAdapter;
 import com.liskovsoft.smartyoutubetv2.tv.presenter.ChannelHeaderPresenter;
 import com.liskovsoft.smartyoutubetv2.tv.presenter.ChannelHeaderPresenter.ChannelHeaderCallback;
@@ -372,7 +373,7 @@ public abstract class MultipleRowsFragment extends RowsSupportFragment implement
 
                 if (index != -1) {
                     int size = adapter.size();
-                    if (index > (size - ViewUtil.ROW_SCROLL_CONTINUE_NUM)) {
+                    if (ContinuationPrefetcher.instance(getContext()).onItemFocused(item, index, size, ViewUtil.ROW_SCROLL_CONTINUE_NUM)) {
                         mMainPresenter.onScrollEnd((Video) adapter.get(size - 1));
                     }
                     break;
@@ -123,7 +123,7 @@ public class UriBackgroundManager {
         int width = mMetrics.widthPixels;
         int height = mMetrics.heightPixels;
 
-        RequestOptions options = ViewUtil.glideOptions()
+        RequestOptions options = ViewUtil.staticImageOptions(width, height)
                 .centerCrop()
                 .error(mDefaultBackground);
 
@@ -8,17 +8,19 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.Nullable;
 import androidx.preference.DialogPreference;
-import com.bumptech.glide.Glide;
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.ui.ChatReceiver;
 import com.liskovsoft.smartyoutubetv2.tv.R;
 import com.liskovsoft.smartyoutubetv2.tv.ui.mod.leanback.preference.LeanbackPreferenceDialogFragment;
+import com.liskovsoft.smartyoutubetv2.tv.ui.widgets.chat.ChatAvatarLoader;
 import com.liskovsoft.smartyoutubetv2.tv.ui.widgets.chat.ChatItemMessage;
+import com.liskovsoft.smartyoutubetv2.tv.ui.widgets.chat.LiveChatView;
 import com.liskovsoft.smartyoutubetv2.tv.util.ViewUtil;
 import com.stfalcon.chatkit.messages.MessagesList;
 import com.stfalcon.chatkit.messages.MessagesListAdapter;
 
 public class ChatPreferenceDialogFragment extends LeanbackPreferenceDialogFragment {
     private static final String SENDER_ID = ChatPreferenceDialogFragment.class.getSimpleName();
+    private static final int AVATAR_SIZE_DP = 30; // see chat_preference_fragment.xml
     private boolean mIsTransparent;
     private ChatReceiver mChatReceiver;
     private CharSequence mDialogTitle;
@@ -58,16 +60,11 @@ public class ChatPreferenceDialogFragment extends LeanbackPreferenceDialogFragme
         }
 
         MessagesList messagesList = (MessagesList) view.findViewById(R.id.messagesList);
-        MessagesListAdapter<ChatItemMessage> adapter = new MessagesListAdapter<>(SENDER_ID, (imageView, url, payload) ->
-                Glide.with(view.getContext())
-                    .load(url)
-                    .apply(ViewUtil.glideOptions())
-                    .circleCrop() // resize image
-                    .into(imageView));
+        MessagesListAdapter<ChatItemMessage> adapter = new MessagesListAdapter<>(SENDER_ID, new ChatAvatarLoader(view.getContext(), AVATAR_SIZE_DP));
         messagesList.setAdapter(adapter);
 
         if (mChatReceiver != null) {
-            mChatReceiver.setCallback(chatItem -> adapter.addToStart(ChatItemMessage.from(chatItem), true));
+            mChatReceiver.setCallback(chatItems -> adapter.addToStart(LiveChatView.toMessages(chatItems), true));
         }
 
         if (mIsTransparent) {
@@ -59,6 +59,7 @@ import com.liskovsoft.smartyoutubetv2.common.exoplayer.other.SubtitleManager;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.selector.FormatItem;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.versions.renderer.CustomOverridesRenderersFactory;
 import com.liskovsoft.smartyoutubetv2.common.exoplayer.versions.selector.RestoreTrackSelector;
+import com.liskovsoft.smartyoutubetv2.common.misc.ContinuationPrefetcher;
 import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerData;
 import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
@@ -131,7 +132,7 @@ public class PlaybackFragment extends SeekModePlaybackFragment implements Playba
 
         mPlaybackPresenter = PlaybackPresenter.instance(getContext());
         mPlaybackPresenter.setView(this);
-        mExoPlayerController = new ExoPlayerController(getContext(), mPlaybackPresenter);
+        mExoPlayerController = new ExoPlayerController(getContext(), mPlaybackPresenter, true);
 
         // Fix open previous video
         if (mPlaybackPresenter.getVideo() != null) {
@@ -669,7 +670,7 @@ public class PlaybackFragment extends SeekModePlaybackFragment implements Playba
 
                 if (index != -1) {
                     int size = adapter.size();
-                    if (index > (size - 4)) {
+                    if (ContinuationPrefetcher.instance(getContext()).onItemFocused(item, index, size, 4)) {
                         mPlaybackPresenter.onScrollEnd(item);
                     }
                     break;
@@ -1117,6 +1118,24 @@ public class PlaybackFragment extends SeekModePlaybackFragment implements Playba
         setGravity(gravity);
     }
 
+    @Override
+    public boolean setPositionMarkers(long[] positionsMs, OnPositionMarker callback) {
+        if (mExoPlayerController == null) {
+            return false;
+        }
+
+        return mExoPlayerController.setPositionMarkers(positionsMs, callback);
+    }
+
+    @Override
+    public void prefetchDash(InputStream dashManifest) {
+        if (mExoPlayerController == null) {
+            return;
+        }
+
+        mExoPlayerController.prefetchDash(dashManifest);
+    }
+
     // End Engine Events
 
     @Override
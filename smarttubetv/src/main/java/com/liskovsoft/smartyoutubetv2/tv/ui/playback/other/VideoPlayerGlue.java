@@ -353,7 +353,7 @@ public class VideoPlayerGlue extends MaxControlsVideoPlayerGlue<PlayerAdapter> i
         Drawable originIcon = channelAction.getIcon();
         Glide.with(getContext())
                 .load(iconUrl)
-                .apply(ViewUtil.glideOptions())
+                .apply(ViewUtil.staticImageOptions(originIcon.getIntrinsicWidth(), originIcon.getIntrinsicHeight()))
                 .circleCrop() // resize image
                 .into(new SimpleTarget<Drawable>(originIcon.getIntrinsicWidth(), originIcon.getIntrinsicHeight()) {
                     @Override
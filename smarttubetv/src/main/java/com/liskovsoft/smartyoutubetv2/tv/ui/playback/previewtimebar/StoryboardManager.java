@@ -2,52 +2,72 @@ package com.liskovsoft.smartyoutubetv2.tv.ui.playback.previewtimebar;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.drawable.Drawable;
-import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
+import android.graphics.BitmapFactory;
+import android.os.SystemClock;
 import androidx.collection.ArraySet;
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.request.target.CustomTarget;
-import com.bumptech.glide.request.target.Target;
-import com.bumptech.glide.request.transition.Transition;
-import com.liskovsoft.mediaserviceinterfaces.MediaItemService;
-import com.liskovsoft.mediaserviceinterfaces.ServiceManager;
 import com.liskovsoft.mediaserviceinterfaces.data.MediaItemStoryboard;
 import com.liskovsoft.mediaserviceinterfaces.data.MediaItemStoryboard.Size;
 import com.liskovsoft.sharedutils.mylogger.Log;
 import com.liskovsoft.sharedutils.rx.RxHelper;
+import com.liskovsoft.smartyoutubetv2.common.BuildConfig;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
-import com.liskovsoft.smartyoutubetv2.tv.util.ViewUtil;
-import com.liskovsoft.youtubeapi.service.YouTubeServiceManager;
+import com.liskovsoft.smartyoutubetv2.common.misc.VideoOpenSession;
 import io.reactivex.Observable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class StoryboardManager {
     private static final String TAG = StoryboardManager.class.getSimpleName();
     private static final long FRAME_DURATION_MS = 10_000;
-    private static final int MAX_PRELOADED_IMAGES = 3;
+    private static final int MAX_PRELOADED_IMAGES = 6;
+    /**
+     * Preloaded images should cover this much of the seek time
+     */
+    private static final long PRELOAD_AHEAD_MS = 3_000;
+    /**
+     * Thumbnails around the current one are requested at the same time. Ignore such samples.
+     */
+    private static final long MIN_VELOCITY_SAMPLE_MS = 80;
+    private static final float VELOCITY_SMOOTHING = 0.3f;
     private static final int DIRECTION_RIGHT = 0;
     private static final int DIRECTION_LEFT = 1;
-    private final MediaItemService mMediaItemService;
     private final Context mContext;
+    private final StoryboardTileCache mTileCache;
     private long mLengthMs;
     private MediaItemStoryboard mStoryboard;
     private Disposable mFormatAction;
     private long[] mSeekPositions;
     private int mCurrentImgNum = -1;
     private final Set<Integer> mCachedImageNums = new ArraySet<>();
+    private final Map<Integer, List<Runnable>> mPendingImages = new HashMap<>();
+    /**
+     * Running loads by the image number. Finished ones are removed.
+     */
+    private final Map<Integer, Disposable> mImageActions = new HashMap<>();
     private int mSeekDirection = DIRECTION_RIGHT;
+    private int mLastIndex = -1;
+    private long mLastIndexTimeMs;
+    /**
+     * Thumbnails per second. Positive when seeking right.
+     */
+    private float mSeekVelocity;
 
     public interface Callback {
         void onBitmapLoaded(Bitmap bitmap);
     }
 
     public StoryboardManager(Context context) {
-        mContext = context;
-        ServiceManager service = YouTubeServiceManager.instance();
-        mMediaItemService = service.getMediaItemService();
+        mContext = context.getApplicationContext();
+        mTileCache = new StoryboardTileCache(context);
     }
 
     public void init(Video video, long lengthMs) {
@@ -55,25 +75,35 @@ public class StoryboardManager {
         mSeekPositions = null;
         mStoryboard = null;
         mCachedImageNums.clear();
+        mPendingImages.clear();
+        mCurrentImgNum = -1;
+        mLastIndex = -1;
+        mSeekVelocity = 0;
+
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, mTileCache.toString());
+        }
+
+        mTileCache.clear();
 
         RxHelper.disposeActions(mFormatAction);
+        for (Disposable action : mImageActions.values()) {
+            RxHelper.disposeActions(action);
+        }
+        mImageActions.clear();
 
         if (video == null || video.isUpcoming) {
             return;
         }
 
-        Observable<MediaItemStoryboard> storyboardObserve;
-
-        if (video.mediaItem != null) {
-            storyboardObserve = mMediaItemService.getStoryboardObserve(video.mediaItem);
-        } else {
-            storyboardObserve = mMediaItemService.getStoryboardObserve(video.videoId);
-        }
+        // Usually prefetched after the first frame
+        Observable<MediaItemStoryboard> storyboardObserve = VideoOpenSession.instance().takeStoryboard(video);
 
         mFormatAction = storyboardObserve
                 .subscribe(
                         storyboard -> {
                             mStoryboard = storyboard;
+                            mTileCache.init(storyboard.getGroupSize());
                             initSeekPositions();
                         },
                         error -> Log.e(TAG, "Error obtaining format info: %s", error.getMessage())
@@ -126,6 +156,7 @@ public class StoryboardManager {
             return;
         }
 
+        updateSeekVelocity(index);
         loadPreview(mSeekPositions[index], callback);
     }
 
@@ -137,32 +168,30 @@ public class StoryboardManager {
         int groupNum = (int) currentPosition / mStoryboard.getGroupDurationMS();
         long realPosMS = currentPosition % mStoryboard.getGroupDurationMS();
         Size size = mStoryboard.getGroupSize();
-        GlideThumbnailTransformation transformation =
-                new GlideThumbnailTransformation(realPosMS, size.getWidth(), size.getHeight(), size.getRowCount(), size.getColCount(), size.getDurationEachMS());
+        int tileNum = (int) (realPosMS / size.getDurationEachMS());
 
         //Log.d(TAG, "Loading preview. Position: %s, groupNum: %s, groupDurationMS: %s, groupSize", currentPosition, groupNum, mStoryboard.getGroupDurationMS(), size);
 
-        Glide.with(mContext)
-                .asBitmap()
-                .load(mStoryboard.getGroupUrl(groupNum))
-                .apply(ViewUtil.glideOptions())
-                .override(Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL)
-                .transform(transformation)
-                .into(new CustomTarget<Bitmap>() {
-                    @Override
-                    public void onResourceReady(@NonNull Bitmap resource, @Nullable Transition<? super Bitmap> transition) {
-                        //Log.d(TAG, "onPreviewLoaded: image hashCode: %s", resource.hashCode());
-                        callback.onBitmapLoaded(resource);
-                    }
-
-                    @Override
-                    public void onLoadCleared(@Nullable Drawable placeholder) {
-                        // NOP
-                    }
-                });
+        Bitmap tile = mTileCache.getTile(groupNum, tileNum);
+
+        if (tile != null) {
+            callback.onBitmapLoaded(tile);
+        } else {
+            loadImage(groupNum, () -> {
+                Bitmap loadedTile = mTileCache.getTile(groupNum, tileNum);
+
+                if (loadedTile != null) {
+                    callback.onBitmapLoaded(loadedTile);
+                }
+            });
+        }
 
         if (mCurrentImgNum != groupNum) {
-            mSeekDirection = mCurrentImgNum < groupNum ? DIRECTION_RIGHT : DIRECTION_LEFT;
+            if (mSeekVelocity != 0) {
+                mSeekDirection = mSeekVelocity > 0 ? DIRECTION_RIGHT : DIRECTION_LEFT;
+            } else {
+                mSeekDirection = mCurrentImgNum < groupNum ? DIRECTION_RIGHT : DIRECTION_LEFT;
+            }
             mCachedImageNums.add(groupNum);
             mCurrentImgNum = groupNum;
 
@@ -170,15 +199,133 @@ public class StoryboardManager {
         }
     }
 
+    /**
+     * Smoothed speed of the thumbnail changes
+     */
+    private void updateSeekVelocity(int index) {
+        long nowMs = SystemClock.uptimeMillis();
+
+        if (mLastIndex == -1) {
+            mLastIndex = index;
+            mLastIndexTimeMs = nowMs;
+            return;
+        }
+
+        long elapsedMs = nowMs - mLastIndexTimeMs;
+
+        if (elapsedMs < MIN_VELOCITY_SAMPLE_MS) {
+            return;
+        }
+
+        float velocity = (index - mLastIndex) * 1_000f / elapsedMs;
+        mSeekVelocity += VELOCITY_SMOOTHING * (velocity - mSeekVelocity);
+        mLastIndex = index;
+        mLastIndexTimeMs = nowMs;
+    }
+
+    /**
+     * The faster the seek, the more images are loaded ahead.<br/>
+     * The next image is decoded, the rest are only downloaded into the disk cache.
+     */
     private void preloadNextImage() {
         if (mStoryboard == null) {
             return;
         }
 
-        for (int i = 1; i <= MAX_PRELOADED_IMAGES; i++) {
+        float tilesAhead = Math.abs(mSeekVelocity) * PRELOAD_AHEAD_MS / 1_000f;
+        int imagesAhead = (int) Math.ceil(tilesAhead / mTileCache.getTileCount());
+        imagesAhead = Math.max(1, Math.min(imagesAhead, MAX_PRELOADED_IMAGES));
+        int lastImgNum = mLengthMs > 0 ? (int) ((mLengthMs - 1) / mStoryboard.getGroupDurationMS()) : Integer.MAX_VALUE;
+
+        for (int i = 1; i <= imagesAhead; i++) {
             int imgNum = mSeekDirection == DIRECTION_RIGHT ? mCurrentImgNum + i : mCurrentImgNum - i; // get next image
-            preloadImage(imgNum);
+
+            if (imgNum < 0 || imgNum > lastImgNum) {
+                break;
+            }
+
+            if (i == 1) {
+                loadImage(imgNum, null);
+            } else {
+                preloadImage(imgNum);
+            }
+        }
+    }
+
+    /**
+     * Downloads (or takes from the disk cache) and decodes the whole image once
+     */
+    private void loadImage(int imgNum, Runnable onLoaded) {
+        if (mTileCache.hasSheet(imgNum)) {
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+            return;
+        }
+
+        List<Runnable> pending = mPendingImages.get(imgNum);
+
+        if (pending != null) {
+            if (onLoaded != null) {
+                pending.add(onLoaded);
+            }
+            return;
+        }
+
+        pending = new ArrayList<>();
+
+        if (onLoaded != null) {
+            pending.add(onLoaded);
+        }
+
+        mPendingImages.put(imgNum, pending);
+        mCachedImageNums.add(imgNum);
+
+        String link = mStoryboard.getGroupUrl(imgNum);
+
+        Disposable action = Observable.fromCallable(() -> decodeImage(link))
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(
+                        sheet -> {
+                            mImageActions.remove(imgNum);
+                            mTileCache.putSheet(imgNum, sheet);
+                            List<Runnable> callbacks = mPendingImages.remove(imgNum);
+
+                            if (callbacks != null) {
+                                for (Runnable callback : callbacks) {
+                                    callback.run();
+                                }
+                            }
+                        },
+                        error -> {
+                            Log.e(TAG, "Can't load storyboard image #%s: %s", imgNum, error.getMessage());
+                            mImageActions.remove(imgNum);
+                            mPendingImages.remove(imgNum);
+                            mCachedImageNums.remove(imgNum);
+                        }
+                );
+
+        mImageActions.put(imgNum, action);
+    }
+
+    private Bitmap decodeImage(String link) throws Exception {
+        File file = Glide.with(mContext)
+                .downloadOnly()
+                .load(link)
+                .submit()
+                .get();
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        // Jpeg without alpha. Half of the memory.
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        Bitmap sheet = BitmapFactory.decodeFile(file.getPath(), options);
+
+        if (sheet == null) {
+            throw new IllegalStateException("Can't decode " + file);
         }
+
+        return sheet;
     }
 
     private void preloadImage(int imgNum) {
@@ -193,6 +340,7 @@ public class StoryboardManager {
         String link = mStoryboard.getGroupUrl(imgNum);
 
         Glide.with(mContext)
+                .downloadOnly()
                 .load(link)
                 .preload();
     }
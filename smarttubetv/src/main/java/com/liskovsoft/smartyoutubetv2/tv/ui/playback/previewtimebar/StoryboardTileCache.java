@@ -0,0 +1,115 @@
+package com.liskovsoft.smartyoutubetv2.tv.ui.playback.previewtimebar;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+import com.liskovsoft.mediaserviceinterfaces.data.MediaItemStoryboard.Size;
+
+/**
+ * Decoded storyboard images (sprite sheets) and the tiles cut from them.<br/>
+ * Both caches are LRU sized to the app memory class. Each tile is cut once and then handed out as is.
+ */
+final class StoryboardTileCache {
+    private static final int MB = 1024 * 1024;
+    private static final int MIN_SHEETS_BYTES = 4 * MB;
+    private static final int MAX_SHEETS_BYTES = 32 * MB;
+    private final LruCache<Integer, Bitmap> mSheets;
+    private final LruCache<Long, Bitmap> mTiles;
+    private int mTileWidth;
+    private int mTileHeight;
+    private int mRowCount = 1;
+    private int mColCount = 1;
+    private int mHitCount;
+    private int mCutCount;
+
+    StoryboardTileCache(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = activityManager != null ? activityManager.getMemoryClass() : 64;
+        int sheetsBytes = Math.max(MIN_SHEETS_BYTES, Math.min(memoryClassMb * MB / 16, MAX_SHEETS_BYTES));
+
+        mSheets = new LruCache<Integer, Bitmap>(sheetsBytes) {
+            @Override
+            protected int sizeOf(Integer key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+        mTiles = new LruCache<Long, Bitmap>(sheetsBytes / 2) {
+            @Override
+            protected int sizeOf(Long key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    public void init(Size size) {
+        clear();
+
+        if (size == null) {
+            return;
+        }
+
+        mTileWidth = size.getWidth();
+        mTileHeight = size.getHeight();
+        mRowCount = Math.max(size.getRowCount(), 1);
+        mColCount = Math.max(size.getColCount(), 1);
+    }
+
+    public int getTileCount() {
+        return mRowCount * mColCount;
+    }
+
+    public boolean hasSheet(int sheetNum) {
+        return mSheets.get(sheetNum) != null;
+    }
+
+    public void putSheet(int sheetNum, Bitmap sheet) {
+        mSheets.put(sheetNum, sheet);
+    }
+
+    /**
+     * @return cached tile or null if the sheet isn't loaded yet
+     */
+    public Bitmap getTile(int sheetNum, int tileNum) {
+        long key = ((long) sheetNum << 32) | tileNum;
+        Bitmap tile = mTiles.get(key);
+
+        if (tile != null) {
+            mHitCount++;
+            return tile;
+        }
+
+        Bitmap sheet = mSheets.get(sheetNum);
+
+        if (sheet == null) {
+            return null;
+        }
+
+        int width = mTileWidth == 0 ? sheet.getWidth() / mColCount : mTileWidth;
+        int height = mTileHeight == 0 ? sheet.getHeight() / mRowCount : mTileHeight;
+        int x = (tileNum % mColCount) * width;
+        int y = (tileNum / mColCount) * height;
+
+        // The last sheet could be shorter
+        if (width <= 0 || height <= 0 || x + width > sheet.getWidth() || y + height > sheet.getHeight()) {
+            return null;
+        }
+
+        tile = Bitmap.createBitmap(sheet, x, y, width, height);
+        mTiles.put(key, tile);
+        mCutCount++;
+
+        return tile;
+    }
+
+    public void clear() {
+        mSheets.evictAll();
+        mTiles.evictAll();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Tiles: hits: %s, cut: %s, sheets: %s KB of %s KB, tiles: %s KB of %s KB", mHitCount, mCutCount,
+                mSheets.size() / 1024, mSheets.maxSize() / 1024, mTiles.size() / 1024, mTiles.maxSize() / 1024);
+    }
+}
@@ -17,6 +17,7 @@ import com.liskovsoft.smartyoutubetv2.common.app.models.data.VideoGroup;
 import com.liskovsoft.smartyoutubetv2.common.app.models.search.MediaServiceSearchTagProvider;
 import com.liskovsoft.smartyoutubetv2.common.app.models.search.vineyard.Tag;
 import com.liskovsoft.smartyoutubetv2.common.app.presenters.SearchPresenter;
+import com.liskovsoft.smartyoutubetv2.common.misc.ContinuationPrefetcher;
 import com.liskovsoft.smartyoutubetv2.common.prefs.SearchData;
 import com.liskovsoft.smartyoutubetv2.tv.adapter.VideoGroupObjectAdapter;
 import com.liskovsoft.smartyoutubetv2.tv.presenter.ShortsCardPresenter;
@@ -248,7 +249,7 @@ public class SearchTagsFragment extends SearchTagsFragmentBase {
         int size = resultsAdapter.size();
         int index = resultsAdapter.indexOf(item);
 
-        if (index > (size - ViewUtil.ROW_SCROLL_CONTINUE_NUM)) {
+        if (ContinuationPrefetcher.instance(getContext()).onItemFocused(item, index, size, ViewUtil.ROW_SCROLL_CONTINUE_NUM)) {
             mSearchPresenter.onScrollEnd((Video) resultsAdapter.get(size - 1));
         }
     }
@@ -68,7 +68,7 @@ public class SignInFragment extends GuidedStepSupportFragment implements SignInV
         Glide.with(getContext())
                 .load(Utils.toQrCodeLink(mFullSignInUrl))
                 .placeholder(R.drawable.activate_account_qrcode)
-                .apply(ViewUtil.glideOptions())
+                .apply(ViewUtil.uncachedImageOptions())
                 .error(R.drawable.activate_account_qrcode)
                 .listener(mErrorListener)
                 .into(getGuidanceStylist().getIconView());
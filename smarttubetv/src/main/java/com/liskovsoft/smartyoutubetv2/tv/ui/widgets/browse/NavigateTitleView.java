@@ -15,7 +15,6 @@ import androidx.leanback.widget.SearchOrbView;
 import androidx.leanback.widget.SearchOrbView.Colors;
 import androidx.leanback.widget.TitleView;
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.bumptech.glide.request.target.SimpleTarget;
 import com.bumptech.glide.request.transition.Transition;
 import com.liskovsoft.mediaserviceinterfaces.data.Account;
@@ -345,8 +344,7 @@ public class NavigateTitleView extends TitleView implements OnDataChange, Accoun
     private static void loadIcon(Context context, SearchOrbView view, String url, int iconWidth, int iconHeight, boolean useCache) {
         Glide.with(context)
                 .load(url)
-                .apply(ViewUtil.glideOptions())
-                .diskCacheStrategy(useCache ? DiskCacheStrategy.ALL : DiskCacheStrategy.NONE)
+                .apply(useCache ? ViewUtil.staticImageOptions(iconWidth, iconHeight) : ViewUtil.uncachedImageOptions())
                 .circleCrop() // resize image
                 .into(new SimpleTarget<Drawable>(iconWidth, iconHeight) {
                     @Override
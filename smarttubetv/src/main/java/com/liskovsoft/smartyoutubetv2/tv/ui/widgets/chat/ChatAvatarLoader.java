@@ -0,0 +1,76 @@
+package com.liskovsoft.smartyoutubetv2.tv.ui.widgets.chat;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+import android.widget.ImageView;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
+import com.liskovsoft.smartyoutubetv2.tv.ui.common.DisplayUtils;
+import com.stfalcon.chatkit.commons.ImageLoader;
+
+/**
+ * The same authors write again and again. Their avatars are kept as small circular bitmaps of the final size.<br/>
+ * Only the misses are loaded and cropped by Glide.
+ */
+public class ChatAvatarLoader implements ImageLoader {
+    private static final int MAX_AVATARS = 100;
+    private static final LruCache<String, Bitmap> sAvatars = new LruCache<>(MAX_AVATARS);
+    private final Context mContext;
+    private final int mSizePx;
+    private final RequestOptions mOptions;
+
+    public ChatAvatarLoader(Context context, int sizeDp) {
+        mContext = context;
+        mSizePx = DisplayUtils.convertDpToPixel(context, sizeDp);
+        mOptions = new RequestOptions()
+                .diskCacheStrategy(DiskCacheStrategy.RESOURCE) // small cropped file
+                .skipMemoryCache(true) // the bitmaps are cached here
+                .override(mSizePx)
+                .circleCrop();
+    }
+
+    @Override
+    public void loadImage(ImageView imageView, @Nullable String url, @Nullable Object payload) {
+        // The view could be recycled with the pending load
+        Glide.with(mContext).clear(imageView);
+
+        if (url == null) {
+            imageView.setImageDrawable(null);
+            return;
+        }
+
+        String key = mSizePx + url;
+        Bitmap avatar = sAvatars.get(key);
+
+        if (avatar != null) {
+            imageView.setImageBitmap(avatar);
+            return;
+        }
+
+        Glide.with(mContext)
+                .asBitmap()
+                .load(url)
+                .apply(mOptions)
+                .listener(new RequestListener<Bitmap>() {
+                    @Override
+                    public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Bitmap> target, boolean isFirstResource) {
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onResourceReady(Bitmap resource, Object model, Target<Bitmap> target, DataSource dataSource, boolean isFirstResource) {
+                        // Glide reuses its bitmaps after the view is cleared
+                        sAvatars.put(key, resource.copy(resource.getConfig() != null ? resource.getConfig() : Bitmap.Config.ARGB_8888, false));
+                        return false;
+                    }
+                })
+                .into(imageView);
+    }
+}
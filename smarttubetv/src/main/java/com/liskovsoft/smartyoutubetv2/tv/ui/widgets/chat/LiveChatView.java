@@ -7,14 +7,17 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
 import androidx.annotation.Nullable;
-import com.bumptech.glide.Glide;
+import com.liskovsoft.mediaserviceinterfaces.data.ChatItem;
 import com.liskovsoft.smartyoutubetv2.common.app.models.playback.ui.ChatReceiver;
 import com.liskovsoft.smartyoutubetv2.common.prefs.PlayerTweaksData;
-import com.liskovsoft.smartyoutubetv2.tv.util.ViewUtil;
 import com.stfalcon.chatkit.messages.MessagesListAdapter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class LiveChatView extends com.stfalcon.chatkit.messages.MessagesList {
     private static final String SENDER_ID = LiveChatView.class.getSimpleName();
+    private static final int AVATAR_SIZE_DP = 20; // see lb_playback_fragment.xml
     private ChatReceiver mChatReceiver;
     private MessagesListAdapter<ChatItemMessage> mAdapter;
 
@@ -58,17 +61,22 @@ public class LiveChatView extends com.stfalcon.chatkit.messages.MessagesList {
         setVisibility(View.VISIBLE);
 
         if (mAdapter == null) {
-            mAdapter = new MessagesListAdapter<>(SENDER_ID, (imageView, url, payload) ->
-                    Glide.with(getContext())
-                            .load(url)
-                            .apply(ViewUtil.glideOptions())
-                            .circleCrop() // resize image
-                            .into(imageView));
+            mAdapter = new MessagesListAdapter<>(SENDER_ID, new ChatAvatarLoader(getContext(), AVATAR_SIZE_DP));
             mAdapter.setMaxItemsCount(20);
             setAdapter(mAdapter);
         }
 
-        mChatReceiver.setCallback(chatItem -> mAdapter.addToStart(ChatItemMessage.from(chatItem), true));
+        mChatReceiver.setCallback(chatItems -> mAdapter.addToStart(toMessages(chatItems), true));
+    }
+
+    public static List<ChatItemMessage> toMessages(List<ChatItem> chatItems) {
+        List<ChatItemMessage> result = new ArrayList<>(chatItems.size());
+
+        for (ChatItem chatItem : chatItems) {
+            result.add(ChatItemMessage.from(chatItem));
+        }
+
+        return result;
     }
 
     private void alignChat() {
@@ -16,6 +16,7 @@ import com.bumptech.glide.Glide;
 import com.liskovsoft.smartyoutubetv2.common.app.models.data.Video;
 import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
 import com.liskovsoft.smartyoutubetv2.tv.R;
+import com.liskovsoft.smartyoutubetv2.tv.ui.widgets.embedplayer.EmbedPlayerPool;
 import com.liskovsoft.smartyoutubetv2.tv.ui.widgets.embedplayer.EmbedPlayerView;
 import com.liskovsoft.smartyoutubetv2.tv.util.ViewUtil;
 
@@ -153,7 +154,7 @@ public class ComplexImageView extends RelativeLayout {
 
             Glide.with(getContext().getApplicationContext()) // FIX: "You cannot start a load for a destroyed activity"
                     .load(getVideo().previewUrl)
-                    .apply(ViewUtil.glideOptions())
+                    .apply(ViewUtil.animatedImageOptions())
                     .into(mPreviewImage);
         } else if (getVideo().videoId != null) {
             if (mCreateAndStartPlayer == null) {
@@ -169,13 +170,17 @@ public class ComplexImageView extends RelativeLayout {
             return;
         }
 
+        // The player is taken by the other card
+        if (mPreviewPlayer != null && mPreviewPlayer.getParent() != mPreviewContainer) {
+            mPreviewPlayer = null;
+        }
+
         if (mPreviewPlayer == null) {
-            mPreviewPlayer = new EmbedPlayerView(getContext());
+            mPreviewPlayer = EmbedPlayerPool.acquire(mPreviewContainer, mPreviewWidth, mPreviewHeight);
             mPreviewPlayer.setQuality(Math.min(mPreviewWidth, mPreviewHeight) < 300 ? EmbedPlayerView.QUALITY_LOW : EmbedPlayerView.QUALITY_NORMAL);
             mPreviewPlayer.setUseController(false);
             mPreviewPlayer.setMute(mMute);
             mPreviewPlayer.setBackgroundColor(Color.BLACK);
-            mPreviewContainer.addView(mPreviewPlayer, new FrameLayout.LayoutParams(mPreviewWidth, mPreviewHeight));
             mPreviewContainer.setVisibility(View.VISIBLE);
         }
 
@@ -205,15 +210,12 @@ public class ComplexImageView extends RelativeLayout {
             if (mPreviewPlayer != null) {
                 mPreviewContainer.setVisibility(View.GONE);
                 if (stopImmediately) {
-                    mPreviewPlayer.finish();
-                    mPreviewContainer.removeView(mPreviewPlayer);
+                    EmbedPlayerPool.release(mPreviewPlayer, mPreviewContainer);
                 } else {
                     EmbedPlayerView epv = mPreviewPlayer;
                     epv.setMute(true);
-                    Utils.postDelayed(() -> {
-                        epv.finish();
-                        mPreviewContainer.removeView(epv);
-                    }, 500);
+                    // The player may be taken by the next card earlier
+                    Utils.postDelayed(() -> EmbedPlayerPool.release(epv, mPreviewContainer), 500);
                 }
                 mPreviewPlayer = null;
             }
@@ -0,0 +1,107 @@
+package com.liskovsoft.smartyoutubetv2.tv.ui.widgets.embedplayer;
+
+import android.content.Context;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import com.liskovsoft.smartyoutubetv2.common.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Preview players of the cards. The player (renderers, track selector, media source factory) outlives the card.
+ * The view is moved to the focused card.<br/>
+ * One or two players depending on RAM. This also limits the decoders that are alive at once.
+ * Idle players are released after a while.
+ */
+public final class EmbedPlayerPool {
+    private static final long IDLE_RELEASE_MS = 30_000;
+    /**
+     * Least recently used first
+     */
+    private static final List<EmbedPlayerView> sPlayers = new ArrayList<>();
+    private static final Runnable sReleaseIdle = EmbedPlayerPool::releaseIdle;
+
+    private EmbedPlayerPool() {
+    }
+
+    /**
+     * Idle player goes first. The least recently used one is taken from its card when the pool is full.
+     */
+    public static EmbedPlayerView acquire(FrameLayout container, int width, int height) {
+        Context context = container.getContext();
+        EmbedPlayerView player = null;
+
+        for (EmbedPlayerView item : sPlayers) {
+            if (item.getParent() == null && item.getContext() == context) {
+                player = item;
+                break;
+            }
+        }
+
+        if (player == null && sPlayers.size() >= getMaxSize()) {
+            player = sPlayers.get(0);
+            detach(player);
+
+            // Different activity
+            if (player.getContext() != context) {
+                player.finish();
+                sPlayers.remove(player);
+                player = null;
+            }
+        }
+
+        if (player == null) {
+            player = new EmbedPlayerView(context);
+        } else {
+            sPlayers.remove(player);
+        }
+
+        sPlayers.add(player);
+        container.addView(player, new FrameLayout.LayoutParams(width, height));
+
+        return player;
+    }
+
+    /**
+     * Nothing happens if the player already moved to the other card
+     */
+    public static void release(EmbedPlayerView player, ViewGroup container) {
+        if (player == null || player.getParent() != container) {
+            return;
+        }
+
+        detach(player);
+
+        Utils.removeCallbacks(sReleaseIdle);
+        Utils.postDelayed(sReleaseIdle, IDLE_RELEASE_MS);
+    }
+
+    private static void detach(EmbedPlayerView player) {
+        player.recycle();
+
+        ViewGroup parent = (ViewGroup) player.getParent();
+
+        if (parent != null) {
+            parent.removeView(player);
+        }
+    }
+
+    private static void releaseIdle() {
+        Iterator<EmbedPlayerView> iterator = sPlayers.iterator();
+
+        while (iterator.hasNext()) {
+            EmbedPlayerView player = iterator.next();
+
+            if (player.getParent() == null) {
+                player.finish();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static int getMaxSize() {
+        return Utils.isEnoughRam() ? 2 : 1;
+    }
+}
@@ -49,6 +49,7 @@ public class EmbedPlayerView extends PlayerView implements PlaybackView {
     private final Runnable mStopPlayback = this::finish;
     private int mQuality;
     private float mPercentWatched;
+    private boolean mIsEngineStarted;
 
     public EmbedPlayerView(Context context) {
         super(context);
@@ -382,7 +383,7 @@ public class EmbedPlayerView extends PlayerView implements PlaybackView {
 
     @Override
     public boolean isEngineInitialized() {
-        return mPlayer != null;
+        return mPlayer != null && mIsEngineStarted;
     }
 
     @Override
@@ -497,6 +498,24 @@ public class EmbedPlayerView extends PlayerView implements PlaybackView {
         
     }
 
+    @Override
+    public boolean setPositionMarkers(long[] positionsMs, OnPositionMarker callback) {
+        if (mExoPlayerController == null) {
+            return false;
+        }
+
+        return mExoPlayerController.setPositionMarkers(positionsMs, callback);
+    }
+
+    @Override
+    public void prefetchDash(InputStream dashManifest) {
+        if (mExoPlayerController == null) {
+            return;
+        }
+
+        mExoPlayerController.prefetchDash(dashManifest);
+    }
+
     @Override
     protected void finalize() throws Throwable {
         try {
@@ -528,13 +547,32 @@ public class EmbedPlayerView extends PlayerView implements PlaybackView {
         if (view == null || view instanceof EmbedPlayerView || !PlaybackPresenter.instance(getContext()).isEngineInitialized()) {
             initPlayer();
             createPlayerObjects();
+            // Not started engine (new or recycled player) loads the pending video once started
             mPlaybackPresenter.onNewVideo(video);
             mPercentWatched = video.percentWatched;
+            startEngine();
+        }
+    }
+
+    /**
+     * Stops the video but keeps the player (renderers, track selector, media source factory) for the next card.<br/>
+     * Pending requests of the video are cancelled.
+     */
+    public void recycle() {
+        if (mPlayer == null) {
+            return;
         }
+
+        Utils.removeCallbacks(mShowView);
+        Utils.removeCallbacks(mStopPlayback);
+        stopEngine();
+        mExoPlayerController.resetPlayerState();
+        hideView();
+        syncPositionIfNeeded();
     }
 
     private void initPlayer() {
-        if (isEngineInitialized()) {
+        if (mPlayer != null) {
             mPlaybackPresenter.setView(this);
             return;
         }
@@ -549,8 +587,9 @@ public class EmbedPlayerView extends PlayerView implements PlaybackView {
     }
 
     private void createPlayerObjects() {
-        if (isEngineInitialized()) {
+        if (mPlayer != null) {
             setPlayer(mPlayer);
+            applyFormats();
             return;
         }
 
@@ -565,26 +604,46 @@ public class EmbedPlayerView extends PlayerView implements PlaybackView {
 
         mExoPlayerController.setPlayer(mPlayer);
         //mExoPlayerController.setVideo(mVideo);
-        mExoPlayerController.selectFormat(mQuality == QUALITY_LOW ? FormatItem.VIDEO_SUB_SD_AVC_30 : FormatItem.VIDEO_SD_AVC_30);
-        // Don't use subs! Not efficient. High cpu load. Cause input lags.
-        mExoPlayerController.selectFormat(FormatItem.SUBTITLE_NONE);
+        applyFormats();
         if (mIsMute) {
             mExoPlayerController.setVolume(0);
         }
 
         setPlayer(mPlayer);
+    }
+
+    private void applyFormats() {
+        mExoPlayerController.selectFormat(mQuality == QUALITY_LOW ? FormatItem.VIDEO_SUB_SD_AVC_30 : FormatItem.VIDEO_SD_AVC_30);
+        // Don't use subs! Not efficient. High cpu load. Cause input lags.
+        mExoPlayerController.selectFormat(FormatItem.SUBTITLE_NONE);
+    }
 
+    private void startEngine() {
+        if (mIsEngineStarted) {
+            return;
+        }
+
+        mIsEngineStarted = true;
         mPlaybackPresenter.onEngineInitialized(); // start playback
     }
 
+    private void stopEngine() {
+        if (!mIsEngineStarted) {
+            return;
+        }
+
+        mIsEngineStarted = false;
+        // Don't replace main player!
+        if (mPlaybackPresenter.getView() == null || mPlaybackPresenter.getView() == this) {
+            mPlaybackPresenter.onEngineReleased();
+        }
+    }
+
     private void destroyPlayerObjects() {
-        if (isEngineInitialized()) {
+        if (mPlayer != null) {
             Utils.removeCallbacks(mShowView);
             Utils.removeCallbacks(mStopPlayback);
-            // Don't replace main player!
-            if (mPlaybackPresenter.getView() == null || mPlaybackPresenter.getView() == this) {
-                mPlaybackPresenter.onEngineReleased();
-            }
+            stopEngine();
             mExoPlayerController.setOnVideoLoaded(null);
             // Fix access calls when player isn't initialized
             mExoPlayerController.release();
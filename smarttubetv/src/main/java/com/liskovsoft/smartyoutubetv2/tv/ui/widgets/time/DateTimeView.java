@@ -35,7 +35,7 @@ public class DateTimeView extends TextView implements TickleListener {
     }
 
     private void init() {
-        mTickleManager = TickleManager.instance();
+        mTickleManager = TickleManager.instance(getContext());
         updateListener();
     }
 
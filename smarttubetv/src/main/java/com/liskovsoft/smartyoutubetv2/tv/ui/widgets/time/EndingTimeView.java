@@ -41,7 +41,7 @@ public class EndingTimeView extends TextView implements TickleListener, OnDataCh
     }
 
     private void init() {
-        mTickleManager = TickleManager.instance();
+        mTickleManager = TickleManager.instance(getContext());
         mPlayerData = PlayerData.instance(getContext());
         updateListener();
     }
@@ -4,8 +4,8 @@ import android.content.Context;
 
 import com.bumptech.glide.GlideBuilder;
 import com.bumptech.glide.annotation.GlideModule;
-import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
 import com.bumptech.glide.module.AppGlideModule;
+import com.liskovsoft.smartyoutubetv2.common.misc.ImageCacheManager;
 
 /**
  * https://bumptech.github.io/glide/doc/configuration.html#disk-cache<br/>
@@ -13,14 +13,12 @@ import com.bumptech.glide.module.AppGlideModule;
  */
 @GlideModule
 public class GlideCachingModule extends AppGlideModule {
-    private final static long CACHE_SIZE = 10 * 1024 * 1024; // 10 MB
-
     @Override
     public void applyOptions(Context context, GlideBuilder builder) {
         //if (MyApplication.from(context).isTest())
         //    return; // NOTE: StatFs will crash on robolectric.
 
-        // Limit cache size
-        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, CACHE_SIZE));
+        // Cache sizes depend on the device RAM and the free storage
+        ImageCacheManager.applyOptions(context, builder);
     }
 }
@@ -40,6 +40,10 @@ public class ViewUtil {
      * Dim other rows in {@link RowPresenter}
      */
     public static final boolean ROW_SELECT_EFFECT_ENABLED = false;
+    /**
+     * Bigger images skip the memory cache (~ quarter of the 1080p screen)
+     */
+    private static final long LARGE_IMAGE_PIXELS = 960 * 540;
     /**
      * Scroll continue threshold
      */
@@ -175,12 +179,47 @@ public class ViewUtil {
         return true;
     }
 
-    public static RequestOptions glideOptions() {
+    /**
+     * Animated previews (webp). The source is cached on disk, but the animation is decoded again.
+     * So it starts from the first frame.
+     */
+    public static RequestOptions animatedImageOptions() {
         return new RequestOptions()
-                .diskCacheStrategy(DiskCacheStrategy.NONE) // ensure start animation from beginning
+                .diskCacheStrategy(getDiskCacheStrategy(DiskCacheStrategy.DATA))
                 .skipMemoryCache(true); // ensure start animation from beginning
     }
 
+    /**
+     * Thumbnails, avatars, icons. Cached on disk and in memory.
+     */
+    public static RequestOptions staticImageOptions() {
+        return new RequestOptions()
+                .diskCacheStrategy(getDiskCacheStrategy(DiskCacheStrategy.ALL));
+    }
+
+    /**
+     * Decoded with the target size. Large images (e.g. backgrounds) aren't kept in memory, they would evict many cards.
+     */
+    public static RequestOptions staticImageOptions(int widthPx, int heightPx) {
+        return staticImageOptions()
+                .override(widthPx, heightPx)
+                .skipMemoryCache((long) widthPx * heightPx > LARGE_IMAGE_PIXELS);
+    }
+
+    /**
+     * One-off images (e.g. sign in qr code)
+     */
+    public static RequestOptions uncachedImageOptions() {
+        return new RequestOptions()
+                .diskCacheStrategy(DiskCacheStrategy.NONE)
+                .skipMemoryCache(true);
+    }
+
+    private static DiskCacheStrategy getDiskCacheStrategy(DiskCacheStrategy strategy) {
+        // Cache makes app crashing on old android versions
+        return VERSION.SDK_INT > 21 ? strategy : DiskCacheStrategy.NONE;
+    }
+
     public static void enableTransparentDialog(Context context, View rootView) {
         if (context == null || rootView == null || VERSION.SDK_INT <= 19) {
             return;